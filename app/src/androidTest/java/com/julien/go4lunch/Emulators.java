@@ -0,0 +1,40 @@
+package com.julien.go4lunch;
+
+import android.os.Bundle;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Points the app at the Firestore and Auth emulators, once for the whole run : Firestore can't be
+ * moved after its first use. Arguments "firestoreEmulator" and "authEmulator", as host:port,
+ * 10.0.2.2 being the host from the Android emulator.
+ */
+final class Emulators {
+
+    private static boolean connected = false;
+
+    private Emulators() {
+        // Keep Empty
+    }
+
+    /**
+     * Connects to the emulators and signs in a new anonymous user the first time, the same user afterwards.
+     */
+    static synchronized FirebaseUser connect(Bundle arguments, long timeoutSeconds) throws Exception {
+        if (!connected) {
+            String[] firestore = arguments.getString("firestoreEmulator", "10.0.2.2:8080").split(":");
+            FirebaseFirestore.getInstance().useEmulator(firestore[0], Integer.parseInt(firestore[1]));
+            String[] auth = arguments.getString("authEmulator", "10.0.2.2:9099").split(":");
+            FirebaseAuth.getInstance().useEmulator(auth[0], Integer.parseInt(auth[1]));
+
+            Tasks.await(FirebaseAuth.getInstance().signInAnonymously(), timeoutSeconds, TimeUnit.SECONDS);
+            connected = true;
+        }
+        return FirebaseAuth.getInstance().getCurrentUser();
+    }
+}
@@ -0,0 +1,148 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.model.bo.place.Location;
+import com.julien.go4lunch.model.bo.place.Photo;
+import com.julien.go4lunch.model.repository.FirestoreMapper;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written Firestore mappers with {@code toObject(Lunch.class)}, on the documents of
+ * a busy lunch time written to the Firestore emulator and read back from it, as the repositories do.
+ * Both mappers start from the same snapshots : the hand-written one pays for {@code getData()}.
+ *
+ * Skipped without the "firestoreEmulator" argument, the emulators must be started :
+ * <pre>
+ * ./gradlew :app:connectedDebugAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.julien.go4lunch.FirestoreMapperBenchmark \
+ *     -Pandroid.testInstrumentationRunnerArguments.firestoreEmulator=10.0.2.2:8080
+ * </pre>
+ * Timings are logged with the tag "FirestoreMapperBenchmark".
+ */
+@RunWith(AndroidJUnit4.class)
+public class FirestoreMapperBenchmark {
+
+    private static final String TAG = "FirestoreMapperBenchmark";
+    private static final String COLLECTION = "mapperBenchmark";
+    private static final long TIMEOUT_SECONDS = 60;
+    private static final int LUNCHES = 200;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 100;
+
+    private static List<DocumentSnapshot> documents;
+
+    private static CollectionReference getCollection() {
+        return FirebaseFirestore.getInstance().collection(COLLECTION);
+    }
+
+    @BeforeClass
+    public static void writeLunchDocuments() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        assumeTrue("Needs the Firestore emulator", arguments.containsKey("firestoreEmulator"));
+        Emulators.connect(arguments, TIMEOUT_SECONDS);
+
+        // Serialized by Firestore, as the lunches of the app
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        for (int i = 0; i < LUNCHES; i++) {
+            Photo photo = new Photo();
+            photo.setPhotoReference("photo-" + i);
+            photo.setHeight(1080);
+            photo.setWidth(1920);
+            photo.setHtmlAttributions(Collections.singletonList("<a href=\"https://maps.google.com\">Go4Lunch</a>"));
+
+            Restaurant restaurant = new Restaurant("place-" + i, "Restaurant " + i, i + " rue du Temple",
+                    new Location(48.8566 + i * 0.0001, 2.3522), Arrays.asList("restaurant", "food", "point_of_interest"),
+                    i % 2 == 0, 100 + i, 4.2, null, null, Collections.singletonList(photo), null);
+            Workmate workmate = new Workmate("uid-" + i, "Workmate " + i, "workmate" + i + "@go4lunch.com", null, true);
+
+            batch.set(getCollection().document("lunch-" + i), new Lunch(workmate, restaurant, "2024-01-01T00:00:00Z"));
+        }
+        Tasks.await(batch.commit(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        documents = Tasks.await(getCollection().get(Source.SERVER), TIMEOUT_SECONDS, TimeUnit.SECONDS).getDocuments();
+        assertEquals(LUNCHES, documents.size());
+    }
+
+    @AfterClass
+    public static void deleteLunchDocuments() throws Exception {
+        if (documents == null) {
+            return;
+        }
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        for (DocumentSnapshot document : documents) {
+            batch.delete(document.getReference());
+        }
+        Tasks.await(batch.commit(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private long reflective() {
+        long start = System.nanoTime();
+        for (DocumentSnapshot document : documents) {
+            document.toObject(Lunch.class);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long handWritten() {
+        long start = System.nanoTime();
+        for (DocumentSnapshot document : documents) {
+            FirestoreMapper.toLunch(document.getData());
+        }
+        return System.nanoTime() - start;
+    }
+
+    @Test
+    public void compareWithReflectiveMapper() {
+        // Both mappers read the same lunches
+        for (DocumentSnapshot document : documents) {
+            Lunch expected = document.toObject(Lunch.class);
+            Lunch actual = FirestoreMapper.toLunch(document.getData());
+            assertEquals(expected.getWorkmate(), actual.getWorkmate());
+            assertEquals(expected.getRestaurant().getId(), actual.getRestaurant().getId());
+            assertEquals(expected.getRestaurant().getRating(), actual.getRestaurant().getRating());
+            assertEquals(expected.getRestaurant().getNumberOfReviews(), actual.getRestaurant().getNumberOfReviews());
+            assertEquals(expected.getRestaurant().getPhotos().get(0).getPhotoReference(), actual.getRestaurant().getPhotos().get(0).getPhotoReference());
+            assertEquals(expected.getDate(), actual.getDate());
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            reflective();
+            handWritten();
+        }
+
+        long reflectiveNanos = 0;
+        long handWrittenNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            reflectiveNanos += reflective();
+            handWrittenNanos += handWritten();
+        }
+
+        Log.i(TAG, LUNCHES + " lunches, mean per round : reflective " + reflectiveNanos / ROUNDS / 1000 + " us"
+                + ", hand-written " + handWrittenNanos / ROUNDS / 1000 + " us");
+    }
+}
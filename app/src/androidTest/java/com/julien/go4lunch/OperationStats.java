@@ -0,0 +1,84 @@
+package com.julien.go4lunch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Samples of a benchmarked repository operation. The first sample is the cold one, run on an empty
+ * local database, the percentiles are taken over the warm ones.
+ */
+class OperationStats {
+
+    static final String CSV_HEADER = "revision,dataset,operation,iterations,"
+            + "cold_ms,cold_reads,cold_bytes,"
+            + "p50_ms,p90_ms,p99_ms,settled_p50_ms,settled_p99_ms,reads_per_op,bytes_per_op";
+
+    private final String operation;
+    private final List<long[]> samples = new ArrayList<>();
+
+    OperationStats(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @param resultNanos until the result of the operation
+     * @param settledNanos until no Firestore call is in flight
+     * @param bytes sent and received by the app, -1 if the device does not count them
+     */
+    void add(long resultNanos, long settledNanos, long documentsRead, long bytes) {
+        samples.add(new long[]{resultNanos, settledNanos, documentsRead, bytes});
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values, 0 if there is none.
+     */
+    static long percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private long[] warm(int column) {
+        long[] values = new long[Math.max(samples.size() - 1, 0)];
+        for (int i = 1; i < samples.size(); i++) {
+            values[i - 1] = samples.get(i)[column];
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private static double mean(long[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (long value : values) {
+            if (value < 0) {
+                return -1;
+            }
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    String toCsv(String revision, String dataset) {
+        long[] cold = samples.get(0);
+        long[] latencies = warm(0);
+        long[] settled = warm(1);
+
+        return String.format(Locale.ROOT, "%s,%s,%s,%d,%.1f,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.0f",
+                revision, dataset, operation, samples.size(),
+                millis(cold[0]), cold[2], cold[3],
+                millis(percentile(latencies, 50)), millis(percentile(latencies, 90)), millis(percentile(latencies, 99)),
+                millis(percentile(settled, 50)), millis(percentile(settled, 99)),
+                mean(warm(2)), mean(warm(3)));
+    }
+}
@@ -0,0 +1,308 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+import android.net.TrafficStats;
+import android.os.Bundle;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.auth.UserProfileChangeRequest;
+import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.model.db.AppDatabase;
+import com.julien.go4lunch.model.repository.FirestoreStats;
+import com.julien.go4lunch.model.repository.LunchRepository;
+import com.julien.go4lunch.model.repository.WorkmateRepository;
+import com.julien.go4lunch.utils.AppExecutors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the operations of the LunchRepository and the WorkmateRepository against the Firestore emulator,
+ * loaded with an office by loadgen. For each operation : latency percentiles, documents read and bytes
+ * sent and received by the app. Two revisions run on the same dataset tell whether a change of the
+ * repositories cuts the reads and the latency.
+ *
+ * The latency runs until the result : the Task completes, the LiveData gives its first value, or the
+ * method returns. The settled time, the reads and the bytes run until no Firestore call is in flight,
+ * the syncs started in the background included. The first iteration runs on an empty local database.
+ *
+ * loadgen/benchmark-repositories.sh runs it on every dataset. Skipped without the "dataset" argument :
+ * <pre>
+ * ./gradlew :app:connectedDebugAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.julien.go4lunch.RepositoryBenchmark \
+ *     -Pandroid.testInstrumentationRunnerArguments.dataset=1000-10000
+ * </pre>
+ * Rows are logged with the tag "RepositoryBenchmark" and written to repositories-[dataset]-[lunch|workmate].csv
+ * in the additional test output of the run.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RepositoryBenchmark {
+
+    private static final String TAG = "RepositoryBenchmark";
+    private static final long TIMEOUT_SECONDS = 120;
+    // A call started by the listener of another one is sent right after it, within this time
+    private static final long QUIET_MILLIS = 200;
+    private static final long POLL_MILLIS = 10;
+
+    private static String dataset;
+    private static String revision;
+    private static int iterations;
+    private static Workmate workmate;
+    private static Restaurant restaurant;
+
+    private final List<OperationStats> operations = new ArrayList<>();
+
+    @BeforeClass
+    public static void connectToEmulators() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        assumeTrue("Run by loadgen/benchmark-repositories.sh, on a loaded emulator", arguments.containsKey("dataset"));
+        dataset = arguments.getString("dataset");
+        revision = arguments.getString("revision", "unknown");
+        iterations = Integer.parseInt(arguments.getString("iterations", "20"));
+
+        FirebaseUser user = Emulators.connect(arguments, TIMEOUT_SECONDS);
+        assertNotNull(user);
+        Tasks.await(user.updateProfile(new UserProfileChangeRequest.Builder().setDisplayName("Benchmark Workmate").build()),
+                TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // The repository adds the workmate of the user
+        WorkmateRepository workmateRepository = WorkmateRepository.getInstance();
+        awaitCondition(() -> workmateRepository.getCurrentWorkmateDocumentId() != null);
+        workmate = workmateRepository.getCurrentWorkmate();
+
+        List<Lunch> todayLunches = Tasks.await(LunchRepository.getInstance().fetchTodayLunchesTask(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse("No lunch today, the emulator is not loaded", todayLunches.isEmpty());
+        restaurant = todayLunches.get(0).getRestaurant();
+        awaitSettled();
+    }
+
+    @Test
+    public void lunchRepository() throws Exception {
+        LunchRepository repository = LunchRepository.getInstance();
+        String uid = workmate.getUid();
+
+        measure("LunchRepository.fetchTodayLunchesTask", null, repository::fetchTodayLunchesTask);
+        measure("LunchRepository.fetchTodayLunches", null, repository::fetchTodayLunches);
+        measure("LunchRepository.syncTodayLunches", null, () -> {
+            repository.syncTodayLunches();
+            return null;
+        });
+        measure("LunchRepository.syncTodayLunchesIfStale", null, () -> {
+            repository.syncTodayLunchesIfStale();
+            return null;
+        });
+        measure("LunchRepository.fetchTodayLunchRestaurantNames", null, repository::fetchTodayLunchRestaurantNames);
+        measure("LunchRepository.getTodayLunch", null, () -> repository.getTodayLunch(uid));
+        measure("LunchRepository.fetchTodayWorkmatesAtRestaurant", null, () -> repository.fetchTodayWorkmatesAtRestaurant(restaurant));
+        measure("LunchRepository.hasWorkmateChosenThisRestaurant", null, () -> repository.hasWorkmateChosenThisRestaurant(restaurant, uid));
+        measure("LunchRepository.deleteLunch", () -> repository.createLunch(restaurant, workmate),
+                () -> repository.deleteLunch(restaurant, uid));
+        measure("LunchRepository.createLunch", () -> repository.deleteLunch(restaurant, uid), () -> {
+            repository.createLunch(restaurant, workmate);
+            return null;
+        });
+        measure("LunchRepository.fetchTodayLunchCardTask", null, () -> repository.fetchTodayLunchCardTask(uid));
+
+        report("lunch");
+    }
+
+    @Test
+    public void workmateRepository() throws Exception {
+        WorkmateRepository repository = WorkmateRepository.getInstance();
+
+        measure("WorkmateRepository.getCurrentWorkmate", null, repository::getCurrentWorkmate);
+        measure("WorkmateRepository.fetchAllWorkmatesTask", null, repository::fetchAllWorkmatesTask);
+        measure("WorkmateRepository.getAllWorkmates", null, repository::getAllWorkmates);
+        measure("WorkmateRepository.createOrUpdateWorkmate", null, () -> {
+            repository.createOrUpdateWorkmate(true);
+            return null;
+        });
+        measure("WorkmateRepository.getIsNotificationEnabled", null, repository::getIsNotificationEnabled);
+        measure("WorkmateRepository.fetchIsNotificationEnabledTask", null, repository::fetchIsNotificationEnabledTask);
+        measure("WorkmateRepository.addLikeRestaurant", () -> repository.deleteLikeRestaurant(restaurant), () -> {
+            repository.addLikeRestaurant(restaurant);
+            return null;
+        });
+        measure("WorkmateRepository.deleteLikeRestaurant", () -> repository.addLikeRestaurant(restaurant), () -> {
+            repository.deleteLikeRestaurant(restaurant);
+            return null;
+        });
+        measure("WorkmateRepository.checkIfCurrentWorkmateLikeThisRestaurant", null,
+                () -> repository.checkIfCurrentWorkmateLikeThisRestaurant(restaurant));
+        measure("WorkmateRepository.getLikedRestaurantIds", null, repository::getLikedRestaurantIds);
+
+        report("workmate");
+    }
+
+    // UTILS
+
+    /**
+     * Runs an operation on the main thread, as the view models do, after its setup if it has one.
+     * The operation returns a Task, a LiveData, or its result.
+     */
+    private void measure(String name, Runnable setup, Callable<Object> operation) throws Exception {
+        OperationStats stats = new OperationStats(name);
+
+        for (int i = 0; i < iterations; i++) {
+            if (i == 0) {
+                AppDatabase.getInstance().clearAllTables();
+            }
+            if (setup != null) {
+                InstrumentationRegistry.getInstrumentation().runOnMainSync(setup);
+                awaitSettled();
+            }
+
+            long documentsRead = FirestoreStats.getDocumentsRead();
+            long bytes = networkBytes();
+            AtomicLong startedAt = new AtomicLong();
+            AtomicLong resultAt = new AtomicLong();
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            AtomicReference<LiveData<Object>> observed = new AtomicReference<>();
+            CountDownLatch result = new CountDownLatch(1);
+            Observer<Object> observer = value -> {
+                if (resultAt.compareAndSet(0, System.nanoTime())) {
+                    result.countDown();
+                }
+            };
+
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+                startedAt.set(System.nanoTime());
+                try {
+                    Object returned = operation.call();
+                    if (returned instanceof Task) {
+                        ((Task<?>) returned).addOnCompleteListener(Runnable::run, task -> {
+                            if (!task.isSuccessful()) {
+                                failure.set(task.getException());
+                            }
+                            resultAt.set(System.nanoTime());
+                            result.countDown();
+                        });
+                    } else if (returned instanceof LiveData) {
+                        @SuppressWarnings("unchecked")
+                        LiveData<Object> liveData = (LiveData<Object>) returned;
+                        observed.set(liveData);
+                        liveData.observeForever(observer);
+                    } else {
+                        resultAt.set(System.nanoTime());
+                        result.countDown();
+                    }
+                } catch (Exception e) {
+                    failure.set(e);
+                    result.countDown();
+                }
+            });
+
+            if (!result.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new TimeoutException(name + " gave no result in " + TIMEOUT_SECONDS + " s");
+            }
+            if (failure.get() != null) {
+                throw new AssertionError(name + " failed", failure.get());
+            }
+            long settledAt = awaitSettled();
+
+            if (observed.get() != null) {
+                InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> observed.get().removeObserver(observer));
+            }
+            long bytesAfter = networkBytes();
+            stats.add(resultAt.get() - startedAt.get(), Math.max(settledAt, resultAt.get()) - startedAt.get(),
+                    FirestoreStats.getDocumentsRead() - documentsRead, bytes < 0 || bytesAfter < 0 ? -1 : bytesAfter - bytes);
+        }
+        operations.add(stats);
+    }
+
+    /**
+     * Waits for no Firestore call in flight during {@link #QUIET_MILLIS}, and for the disk writes of their results.
+     * @return the time of the last call completed
+     */
+    private static long awaitSettled() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        long quietSince = -1;
+
+        while (true) {
+            CountDownLatch diskWrites = new CountDownLatch(1);
+            AppExecutors.diskIo().execute(diskWrites::countDown);
+            diskWrites.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            long now = System.nanoTime();
+            if (FirestoreStats.getInFlight() > 0) {
+                quietSince = -1;
+            } else if (quietSince < 0) {
+                quietSince = now;
+            } else if (now - quietSince >= TimeUnit.MILLISECONDS.toNanos(QUIET_MILLIS)) {
+                return quietSince;
+            }
+            if (now > deadline) {
+                throw new TimeoutException("Firestore calls still in flight after " + TIMEOUT_SECONDS + " s");
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("Condition not met after " + TIMEOUT_SECONDS + " s");
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Bytes sent and received by the app since the boot, -1 if the device does not count them.
+     */
+    private static long networkBytes() {
+        long received = TrafficStats.getUidRxBytes(Process.myUid());
+        long sent = TrafficStats.getUidTxBytes(Process.myUid());
+        return received == TrafficStats.UNSUPPORTED || sent == TrafficStats.UNSUPPORTED ? -1 : received + sent;
+    }
+
+    private void report(String repository) throws IOException {
+        // Set by the Android Gradle plugin, pulled to build/outputs/connected_android_test_additional_output
+        String outputDirectory = InstrumentationRegistry.getArguments().getString("additionalTestOutputDir");
+        File directory = outputDirectory != null
+                ? new File(outputDirectory)
+                : InstrumentationRegistry.getInstrumentation().getTargetContext().getExternalFilesDir("benchmarks");
+        File file = new File(directory, "repositories-" + dataset + "-" + repository + ".csv");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(OperationStats.CSV_HEADER + "\n");
+            for (OperationStats stats : operations) {
+                String row = stats.toCsv(revision, dataset);
+                Log.i(TAG, row);
+                writer.write(row + "\n");
+            }
+        }
+        Log.i(TAG, "Results written to " + file);
+    }
+}
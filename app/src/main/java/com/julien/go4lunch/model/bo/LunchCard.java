@@ -0,0 +1,123 @@
+package com.julien.go4lunch.model.bo;
+
+import com.google.firebase.firestore.Exclude;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Today's lunch of a workmate, as shown by the noon reminder : where, and with whom.
+ * Written with the lunch and kept up to date when a workmate joins or leaves the same restaurant,
+ * so that the reminder only reads this card. The attendees are kept by uid, with their name for display.
+ */
+public class LunchCard {
+    private String date;
+    private String restaurantId;
+    private String restaurantName;
+    private String restaurantAddress;
+    private Map<String, String> attendees = new LinkedHashMap<>();
+
+    public LunchCard() {
+        // KEEP EMPTY CONSTRUCTOR FOR FIRESTORE
+    }
+
+    /**
+     * Constructor for the LunchCard class.
+     *
+     * @param date       the day of the lunch
+     * @param restaurant the restaurant chosen
+     * @param attendees  the names of the workmates having lunch there by uid, the owner of the card included
+     */
+    public LunchCard(String date, Restaurant restaurant, Map<String, String> attendees) {
+        this.date = date;
+        this.restaurantId = restaurant.getId();
+        this.restaurantName = restaurant.getName();
+        this.restaurantAddress = restaurant.getAddress();
+        this.attendees = attendees;
+    }
+
+    /**
+     * Gets and sets the day of the lunch.
+     */
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    /**
+     * Gets and sets the placeId of the restaurant.
+     */
+    public String getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(String restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    /**
+     * Gets and sets the name of the restaurant.
+     */
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+
+    public void setRestaurantName(String restaurantName) {
+        this.restaurantName = restaurantName;
+    }
+
+    /**
+     * Gets and sets the address of the restaurant.
+     */
+    public String getRestaurantAddress() {
+        return restaurantAddress;
+    }
+
+    public void setRestaurantAddress(String restaurantAddress) {
+        this.restaurantAddress = restaurantAddress;
+    }
+
+    /**
+     * Gets and sets the names of the workmates having lunch at the restaurant by uid, the owner of the card included.
+     */
+    public Map<String, String> getAttendees() {
+        return attendees;
+    }
+
+    public void setAttendees(Map<String, String> attendees) {
+        this.attendees = attendees;
+    }
+
+    /**
+     * Gets the names of the workmates having lunch at the restaurant, homonyms included.
+     */
+    @Exclude
+    public List<String> getAttendeeNames() {
+        return new ArrayList<>(attendees.values());
+    }
+
+    /**
+     * Gets the restaurant of the card, with the fields the reminder needs.
+     */
+    public Restaurant toRestaurant() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(restaurantId);
+        restaurant.setName(restaurantName);
+        restaurant.setAddress(restaurantAddress);
+        return restaurant;
+    }
+
+    @Override
+    public String toString() {
+        return "LunchCard{" +
+                "date=" + date +
+                ", restaurantName=" + restaurantName +
+                ", attendees=" + attendees +
+                '}';
+    }
+}
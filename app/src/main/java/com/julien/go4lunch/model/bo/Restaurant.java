@@ -1,17 +1,22 @@
 package com.julien.go4lunch.model.bo;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import com.julien.go4lunch.model.bo.place.Location;
 import com.julien.go4lunch.model.bo.place.Photo;
 
-import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * This class represents a restaurant with attributes such as name, address, distance, type, opening hours,
  * number of reviews, rating, and picture.
+ *
+ * Screens are opened with the placeId only, the Parcelable form is kept for the saved instance state.
  */
-public class Restaurant implements Serializable {
+public class Restaurant implements Parcelable {
     private String id;
     private String name;
     private String address;
@@ -56,6 +61,82 @@ public class Restaurant implements Serializable {
         this.icon = icon;
     }
 
+    protected Restaurant(Parcel in) {
+        id = in.readString();
+        name = in.readString();
+        address = in.readString();
+        if (in.readByte() != 0) {
+            location = new Location(in.readDouble(), in.readDouble());
+        }
+        types = in.createStringArrayList();
+        isOpened = (Boolean) in.readValue(Boolean.class.getClassLoader());
+        numberOfReviews = (Integer) in.readValue(Integer.class.getClassLoader());
+        rating = (Double) in.readValue(Double.class.getClassLoader());
+        website = in.readString();
+        formattedPhoneNumber = in.readString();
+        int photoCount = in.readInt();
+        if (photoCount >= 0) {
+            photos = new ArrayList<>(photoCount);
+            for (int i = 0; i < photoCount; i++) {
+                Photo photo = new Photo();
+                photo.setPhotoReference(in.readString());
+                photo.setHeight((Integer) in.readValue(Integer.class.getClassLoader()));
+                photo.setWidth((Integer) in.readValue(Integer.class.getClassLoader()));
+                photo.setHtmlAttributions(in.createStringArrayList());
+                photos.add(photo);
+            }
+        }
+        icon = in.readString();
+    }
+
+    public static final Creator<Restaurant> CREATOR = new Creator<Restaurant>() {
+        @Override
+        public Restaurant createFromParcel(Parcel in) {
+            return new Restaurant(in);
+        }
+
+        @Override
+        public Restaurant[] newArray(int size) {
+            return new Restaurant[size];
+        }
+    };
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(id);
+        dest.writeString(name);
+        dest.writeString(address);
+        boolean hasLocation = location != null && location.getLat() != null && location.getLng() != null;
+        dest.writeByte((byte) (hasLocation ? 1 : 0));
+        if (hasLocation) {
+            dest.writeDouble(location.getLat());
+            dest.writeDouble(location.getLng());
+        }
+        dest.writeStringList(types);
+        dest.writeValue(isOpened);
+        dest.writeValue(numberOfReviews);
+        dest.writeValue(rating);
+        dest.writeString(website);
+        dest.writeString(formattedPhoneNumber);
+        if (photos == null) {
+            dest.writeInt(-1);
+        } else {
+            dest.writeInt(photos.size());
+            for (Photo photo : photos) {
+                dest.writeString(photo.getPhotoReference());
+                dest.writeValue(photo.getHeight());
+                dest.writeValue(photo.getWidth());
+                dest.writeStringList(photo.getHtmlAttributions());
+            }
+        }
+        dest.writeString(icon);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
     public Restaurant() {
         // KEEP EMPTY CONSTRUCTOR
     }
@@ -206,16 +287,45 @@ public class Restaurant implements Serializable {
     }
 
 
+    /**
+     * Returns a new record of this place, with the known fields of another record of the same place
+     * over the fields of this one. Neither record is modified.
+     * Unknown fields never clear a known one, so a list-level record keeps the details-level fields.
+     */
+    public Restaurant mergedWith(Restaurant other) {
+        if (other == this) return this;
+        return new Restaurant(
+                id,
+                other.name != null ? other.name : name,
+                other.address != null ? other.address : address,
+                other.location != null ? other.location : location,
+                other.types != null ? other.types : types,
+                other.isOpened != null ? other.isOpened : isOpened,
+                other.numberOfReviews != null ? other.numberOfReviews : numberOfReviews,
+                other.rating != null ? other.rating : rating,
+                other.website != null ? other.website : website,
+                other.formattedPhoneNumber != null ? other.formattedPhoneNumber : formattedPhoneNumber,
+                other.photos != null && !other.photos.isEmpty() ? other.photos : photos,
+                other.icon != null ? other.icon : icon);
+    }
+
+    /**
+     * Restaurants are the same place when they have the same placeId,
+     * the name is only compared for the records without placeId.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Restaurant that = (Restaurant) o;
-        return Objects.equals(id, that.id) && Objects.equals(name, that.name) && Objects.equals(address, that.address) && Objects.equals(location, that.location) && Objects.equals(types, that.types) && Objects.equals(isOpened, that.isOpened) && Objects.equals(numberOfReviews, that.numberOfReviews) && Objects.equals(rating, that.rating) && Objects.equals(website, that.website) && Objects.equals(formattedPhoneNumber, that.formattedPhoneNumber) && Objects.equals(photos, that.photos) && Objects.equals(icon, that.icon);
+        if (id != null || that.id != null) {
+            return Objects.equals(id, that.id);
+        }
+        return Objects.equals(name, that.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, address, location, types, isOpened, numberOfReviews, rating, website, formattedPhoneNumber, photos, icon);
+        return id != null ? id.hashCode() : Objects.hashCode(name);
     }
 }
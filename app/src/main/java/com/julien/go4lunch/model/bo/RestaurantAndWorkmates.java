@@ -0,0 +1,28 @@
+package com.julien.go4lunch.model.bo;
+
+/**
+ * A model that links the number of workmates present at a restaurant with the restaurant itself.
+ */
+public class RestaurantAndWorkmates {
+    private final Long workmatesAtRestaurant;
+    private final Restaurant restaurant;
+
+    public RestaurantAndWorkmates(Long workmatesAtRestaurant, Restaurant restaurant) {
+        this.workmatesAtRestaurant = workmatesAtRestaurant;
+        this.restaurant = restaurant;
+    }
+
+    /**
+     * Gets the number of workmates present at the restaurant.
+     */
+    public Long getWorkmatesAtRestaurant() {
+        return workmatesAtRestaurant;
+    }
+
+    /**
+     * Gets the restaurant instance.
+     */
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+}
@@ -0,0 +1,47 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+import com.julien.go4lunch.MainApplication;
+
+/**
+ * On-device database, the source of truth of what the screens show.
+ * The repositories write what they read from the network to it, and the screens observe its queries.
+ */
+@Database(
+        entities = {RestaurantEntity.class, WorkmateEntity.class, LunchEntity.class, LikeEntity.class, SyncStateEntity.class},
+        version = 3,
+        exportSchema = false
+)
+public abstract class AppDatabase extends RoomDatabase {
+
+    private static final String DATABASE_NAME = "go4lunch.db";
+
+    // SINGLETON
+    private static AppDatabase instance;
+
+    public abstract RestaurantDao restaurantDao();
+
+    public abstract WorkmateDao workmateDao();
+
+    public abstract LunchDao lunchDao();
+
+    public abstract LikeDao likeDao();
+
+    public abstract SyncStateDao syncStateDao();
+
+    /**
+     * Returns the unique instance of the AppDatabase.
+     * Everything in it can be read again from the network, a schema change drops it.
+     */
+    public static synchronized AppDatabase getInstance() {
+        if (instance == null) {
+            instance = Room.databaseBuilder(MainApplication.getApplication(), AppDatabase.class, DATABASE_NAME)
+                    .fallbackToDestructiveMigration()
+                    .build();
+        }
+        return instance;
+    }
+}
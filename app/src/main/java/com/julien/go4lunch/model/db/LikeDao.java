@@ -0,0 +1,46 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public abstract class LikeDao {
+
+    @Query("SELECT placeId FROM likes WHERE workmateUid = :uid AND placeId IS NOT NULL")
+    public abstract LiveData<List<String>> observeLikedPlaceIds(String uid);
+
+    /**
+     * Whether a workmate likes a restaurant, by its placeId. The name only matches the likes saved without placeId.
+     */
+    @Query("SELECT COUNT(*) > 0 FROM likes WHERE workmateUid = :uid"
+            + " AND (placeId = :placeId OR (placeId IS NULL AND restaurantName = :restaurantName))")
+    public abstract LiveData<Boolean> observeIsLiked(String uid, String placeId, String restaurantName);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insert(LikeEntity like);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insert(List<LikeEntity> likes);
+
+    @Query("DELETE FROM likes WHERE workmateUid = :uid"
+            + " AND (placeId = :placeId OR (placeId IS NULL AND restaurantName = :restaurantName))")
+    public abstract void delete(String uid, String placeId, String restaurantName);
+
+    @Query("DELETE FROM likes WHERE workmateUid = :uid")
+    abstract void deleteAll(String uid);
+
+    /**
+     * Replaces the likes of a workmate by the ones read from the network.
+     */
+    @Transaction
+    public void replaceAll(String uid, List<LikeEntity> likes) {
+        deleteAll(uid);
+        insert(likes);
+    }
+}
@@ -0,0 +1,43 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * A restaurant liked by a workmate. Likes are keyed by placeId, the name only keys the likes saved without placeId.
+ */
+@Entity(tableName = "likes", primaryKeys = {"workmateUid", "restaurantKey"}, indices = {@Index("placeId")})
+public class LikeEntity {
+
+    @NonNull
+    public String workmateUid = "";
+
+    @NonNull
+    public String restaurantKey = "";
+
+    public String restaurantName;
+
+    public String placeId;
+
+    public LikeEntity() {
+        // KEEP EMPTY CONSTRUCTOR FOR ROOM
+    }
+
+    @Ignore
+    public LikeEntity(@NonNull String workmateUid, String restaurantName, String placeId) {
+        this.workmateUid = workmateUid;
+        this.restaurantKey = keyOf(placeId, restaurantName);
+        this.restaurantName = restaurantName;
+        this.placeId = placeId;
+    }
+
+    /**
+     * The placeId, or the name prefixed so it can't be taken for a placeId.
+     */
+    @NonNull
+    static String keyOf(String placeId, String restaurantName) {
+        return placeId != null ? placeId : "name:" + restaurantName;
+    }
+}
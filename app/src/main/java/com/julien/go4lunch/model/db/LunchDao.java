@@ -0,0 +1,59 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public abstract class LunchDao {
+
+    @Query("SELECT * FROM lunches WHERE day = :day ORDER BY rowid")
+    public abstract LiveData<List<LunchEntity>> observeDay(String day);
+
+    @Query("SELECT * FROM lunches WHERE day = :day AND workmateUid = :uid ORDER BY rowid LIMIT 1")
+    public abstract LiveData<LunchEntity> observeWorkmateLunch(String day, String uid);
+
+    /**
+     * Lunches at a restaurant, by its placeId. The name only matches the rows saved without placeId.
+     */
+    @Query("SELECT * FROM lunches WHERE day = :day"
+            + " AND (restaurantId = :restaurantId OR (restaurantId IS NULL AND restaurantName = :restaurantName))"
+            + " ORDER BY rowid")
+    public abstract LiveData<List<LunchEntity>> observeRestaurantLunches(String day, String restaurantId, String restaurantName);
+
+    /**
+     * Whether a workmate has lunch at a restaurant, matched as above.
+     */
+    @Query("SELECT COUNT(*) > 0 FROM lunches WHERE day = :day AND workmateUid = :uid"
+            + " AND (restaurantId = :restaurantId OR (restaurantId IS NULL AND restaurantName = :restaurantName))")
+    public abstract LiveData<Boolean> observeHasChosen(String day, String uid, String restaurantId, String restaurantName);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insert(LunchEntity lunch);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insert(List<LunchEntity> lunches);
+
+    @Query("DELETE FROM lunches WHERE documentId = :documentId")
+    public abstract void delete(String documentId);
+
+    @Query("DELETE FROM lunches WHERE day = :day")
+    abstract void deleteDay(String day);
+
+    @Query("DELETE FROM lunches WHERE day < :day")
+    public abstract void deleteBefore(String day);
+
+    /**
+     * Replaces the lunches of a day by the ones read from the network.
+     */
+    @Transaction
+    public void replaceDay(String day, List<LunchEntity> lunches) {
+        deleteDay(day);
+        insert(lunches);
+    }
+}
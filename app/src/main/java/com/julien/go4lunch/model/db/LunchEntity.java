@@ -0,0 +1,76 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.Workmate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A lunch row, by Firestore document id. The workmate and the restaurant are kept as saved with the lunch.
+ */
+@Entity(tableName = "lunches", indices = {@Index("day"), @Index("workmateUid"), @Index("restaurantId")})
+public class LunchEntity {
+
+    @PrimaryKey
+    @NonNull
+    public String documentId = "";
+
+    // Day key of the lunch, the date truncated to the day
+    public String day;
+
+    public String workmateUid;
+    public String workmateName;
+    public String workmateEmail;
+    public String workmateAvatar;
+
+    public String restaurantId;
+    public String restaurantName;
+    public String restaurantAddress;
+    // First type of the restaurant, shown by the workmates list
+    public String restaurantType;
+
+    public static LunchEntity from(String documentId, Lunch lunch) {
+        LunchEntity entity = new LunchEntity();
+        entity.documentId = documentId;
+        entity.day = lunch.getDate();
+        if (lunch.getWorkmate() != null) {
+            entity.workmateUid = lunch.getWorkmate().getUid();
+            entity.workmateName = lunch.getWorkmate().getName();
+            entity.workmateEmail = lunch.getWorkmate().getEmail();
+            entity.workmateAvatar = lunch.getWorkmate().getAvatar();
+        }
+        if (lunch.getRestaurant() != null) {
+            entity.restaurantId = lunch.getRestaurant().getId();
+            entity.restaurantName = lunch.getRestaurant().getName();
+            entity.restaurantAddress = lunch.getRestaurant().getAddress();
+            List<String> types = lunch.getRestaurant().getTypes();
+            entity.restaurantType = types != null && !types.isEmpty() ? types.get(0) : null;
+        }
+        return entity;
+    }
+
+    public Workmate toWorkmate() {
+        return new Workmate(workmateUid, workmateName, workmateEmail, workmateAvatar, false);
+    }
+
+    /**
+     * The restaurant as saved with the lunch, only its id, name, address and first type.
+     */
+    public Restaurant toRestaurant() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(restaurantId);
+        restaurant.setName(restaurantName);
+        restaurant.setAddress(restaurantAddress);
+        if (restaurantType != null) {
+            restaurant.setTypes(Collections.singletonList(restaurantType));
+        }
+        return restaurant;
+    }
+}
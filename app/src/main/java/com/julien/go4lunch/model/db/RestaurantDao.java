@@ -0,0 +1,37 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public abstract class RestaurantDao {
+
+    @Query("SELECT * FROM restaurants WHERE placeId = :placeId")
+    public abstract LiveData<RestaurantEntity> observe(String placeId);
+
+    @Query("SELECT * FROM restaurants WHERE placeId = :placeId")
+    public abstract RestaurantEntity get(String placeId);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insert(RestaurantEntity restaurant);
+
+    /**
+     * Writes the restaurants, the details already known are kept.
+     */
+    @Transaction
+    public void upsert(List<RestaurantEntity> restaurants) {
+        for (RestaurantEntity restaurant : restaurants) {
+            RestaurantEntity previous = get(restaurant.placeId);
+            if (previous != null) {
+                restaurant.keepDetailsOf(previous);
+            }
+            insert(restaurant);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.place.Location;
+import com.julien.go4lunch.model.bo.place.Photo;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * A restaurant row, by placeId. Search results and details are written to the same row :
+ * a search result keeps the details already known.
+ */
+@Entity(tableName = "restaurants")
+public class RestaurantEntity {
+
+    private static final String TYPES_SEPARATOR = ",";
+
+    @PrimaryKey
+    @NonNull
+    public String placeId = "";
+
+    public String name;
+    public String address;
+    public Double latitude;
+    public Double longitude;
+    public Boolean opened;
+    public Double rating;
+    public int numberOfReviews;
+    public String types;
+    public String photoReference;
+    public Integer photoHeight;
+    public Integer photoWidth;
+    public String website;
+    public String phoneNumber;
+
+    // Time of the last details request, 0 if the details were never loaded
+    public long detailsFetchedAt;
+
+    // Time of the last write from the network
+    public long syncedAt;
+
+    /**
+     * Builds the row of a restaurant, null if it has no placeId.
+     */
+    public static RestaurantEntity from(Restaurant restaurant, long syncedAt, long detailsFetchedAt) {
+        if (restaurant.getId() == null) {
+            return null;
+        }
+        RestaurantEntity entity = new RestaurantEntity();
+        entity.placeId = restaurant.getId();
+        entity.name = restaurant.getName();
+        entity.address = restaurant.getAddress();
+        if (restaurant.getLocation() != null) {
+            entity.latitude = restaurant.getLocation().getLat();
+            entity.longitude = restaurant.getLocation().getLng();
+        }
+        entity.opened = restaurant.getOpened();
+        entity.rating = restaurant.getRating();
+        entity.numberOfReviews = restaurant.getNumberOfReviews();
+        entity.types = restaurant.getTypes() != null ? String.join(TYPES_SEPARATOR, restaurant.getTypes()) : null;
+        if (restaurant.getPhotos() != null && !restaurant.getPhotos().isEmpty()) {
+            Photo photo = restaurant.getPhotos().get(0);
+            entity.photoReference = photo.getPhotoReference();
+            entity.photoHeight = photo.getHeight();
+            entity.photoWidth = photo.getWidth();
+        }
+        entity.website = restaurant.getWebsite();
+        entity.phoneNumber = restaurant.getFormattedPhoneNumber();
+        entity.detailsFetchedAt = detailsFetchedAt;
+        entity.syncedAt = syncedAt;
+        return entity;
+    }
+
+    /**
+     * Keeps the details of a previous row that this one does not have, e.g. a search result
+     * written over a restaurant whose details were loaded.
+     */
+    public void keepDetailsOf(RestaurantEntity previous) {
+        if (website == null) {
+            website = previous.website;
+        }
+        if (phoneNumber == null) {
+            phoneNumber = previous.phoneNumber;
+        }
+        detailsFetchedAt = Math.max(detailsFetchedAt, previous.detailsFetchedAt);
+    }
+
+    public boolean hasDetails() {
+        return detailsFetchedAt > 0;
+    }
+
+    public Restaurant toRestaurant() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(placeId);
+        restaurant.setName(name);
+        restaurant.setAddress(address);
+        if (latitude != null && longitude != null) {
+            restaurant.setLocation(new Location(latitude, longitude));
+        }
+        restaurant.setOpened(opened);
+        restaurant.setRating(rating);
+        restaurant.setNumberOfReviews(numberOfReviews);
+        if (types != null) {
+            restaurant.setTypes(types.isEmpty() ? Collections.emptyList() : Arrays.asList(types.split(TYPES_SEPARATOR)));
+        }
+        if (photoReference != null) {
+            Photo photo = new Photo();
+            photo.setPhotoReference(photoReference);
+            photo.setHeight(photoHeight);
+            photo.setWidth(photoWidth);
+            restaurant.setPhotos(Collections.singletonList(photo));
+        }
+        restaurant.setWebsite(website);
+        restaurant.setformattedPhoneNumber(phoneNumber);
+        return restaurant;
+    }
+}
@@ -0,0 +1,20 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@Dao
+public interface SyncStateDao {
+
+    @Query("SELECT * FROM sync_state WHERE name = :name")
+    SyncStateEntity get(String name);
+
+    @Query("SELECT * FROM sync_state WHERE name = :name")
+    LiveData<SyncStateEntity> observe(String name);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void save(SyncStateEntity syncState);
+}
@@ -0,0 +1,48 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * Last sync of a local table with the network, so that the staleness of what the UI shows is known.
+ * The watermark is the most recent Firestore `updatedAt` seen, for the syncs reading a delta.
+ */
+@Entity(tableName = "sync_state")
+public class SyncStateEntity {
+
+    @PrimaryKey
+    @NonNull
+    public String name = "";
+
+    // Time of the last successful sync, in milliseconds since the epoch
+    public long syncedAt;
+
+    // Firestore timestamp, seconds and nanoseconds since the epoch. No watermark : -1
+    public long watermarkSeconds = -1;
+    public int watermarkNanos;
+
+    public SyncStateEntity() {
+        // KEEP EMPTY CONSTRUCTOR FOR ROOM
+    }
+
+    @Ignore
+    public SyncStateEntity(@NonNull String name) {
+        this.name = name;
+    }
+
+    public boolean hasWatermark() {
+        return watermarkSeconds >= 0;
+    }
+
+    /**
+     * Moves the watermark to the given timestamp, if it is more recent.
+     */
+    public void advanceWatermark(long seconds, int nanos) {
+        if (seconds > watermarkSeconds || (seconds == watermarkSeconds && nanos > watermarkNanos)) {
+            watermarkSeconds = seconds;
+            watermarkNanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Workmates in the order of the Firestore collection, by document id.
+ */
+@Dao
+public interface WorkmateDao {
+
+    @Query("SELECT * FROM workmates ORDER BY documentId")
+    LiveData<List<WorkmateEntity>> observeAll();
+
+    @Query("SELECT * FROM workmates ORDER BY documentId")
+    List<WorkmateEntity> getAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(List<WorkmateEntity> workmates);
+
+    @Query("SELECT * FROM workmates WHERE uid = :uid LIMIT 1")
+    WorkmateEntity getByUid(String uid);
+
+    @Query("UPDATE workmates SET notificationEnabled = :notificationEnabled WHERE uid = :uid")
+    void updateNotificationEnabled(String uid, boolean notificationEnabled);
+}
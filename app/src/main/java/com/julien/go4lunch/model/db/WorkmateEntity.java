@@ -0,0 +1,40 @@
+package com.julien.go4lunch.model.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.julien.go4lunch.model.bo.Workmate;
+
+/**
+ * A workmate row, by Firestore document id.
+ */
+@Entity(tableName = "workmates", indices = {@Index("uid")})
+public class WorkmateEntity {
+
+    @PrimaryKey
+    @NonNull
+    public String documentId = "";
+
+    public String uid;
+    public String name;
+    public String email;
+    public String avatar;
+    public boolean notificationEnabled;
+
+    public static WorkmateEntity from(String documentId, Workmate workmate) {
+        WorkmateEntity entity = new WorkmateEntity();
+        entity.documentId = documentId;
+        entity.uid = workmate.getUid();
+        entity.name = workmate.getName();
+        entity.email = workmate.getEmail();
+        entity.avatar = workmate.getAvatar();
+        entity.notificationEnabled = workmate.isNotificationEnabled();
+        return entity;
+    }
+
+    public Workmate toWorkmate() {
+        return new Workmate(uid, name, email, avatar, notificationEnabled);
+    }
+}
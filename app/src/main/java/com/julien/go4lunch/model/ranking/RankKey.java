@@ -0,0 +1,31 @@
+package com.julien.go4lunch.model.ranking;
+
+/**
+ * Keys the restaurant list can be ranked by.
+ */
+public enum RankKey {
+    /**
+     * Closest restaurant first.
+     */
+    DISTANCE,
+
+    /**
+     * Best rated restaurant first.
+     */
+    RATING,
+
+    /**
+     * Restaurant with the most workmates attending today first.
+     */
+    WORKMATES,
+
+    /**
+     * Opened restaurant first.
+     */
+    OPEN_NOW,
+
+    /**
+     * Restaurant liked by the current workmate first.
+     */
+    LIKED
+}
@@ -0,0 +1,108 @@
+package com.julien.go4lunch.model.ranking;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed bitsets over a {@link RestaurantIndex}, one bit per index position.
+ * Any combination of filters is then a few AND / OR operations, without going through the restaurants again.
+ */
+public class RestaurantFacets {
+
+    /**
+     * Minimum rating of the "top rated" facet.
+     */
+    public static final double TOP_RATING = 4;
+
+    /**
+     * Types returned by the Places API for every restaurant, useless as cuisine filters.
+     */
+    private static final Set<String> GENERIC_TYPES = new HashSet<>(Arrays.asList(
+            "restaurant", "food", "point_of_interest", "establishment", "store"));
+
+    private final int size;
+    private final BitSet openNow;
+    private final BitSet topRated;
+    private final BitSet withWorkmates;
+    private final Map<String, BitSet> byType = new HashMap<>();
+    private final List<String> types;
+
+    public RestaurantFacets(RestaurantIndex index) {
+        size = index.size();
+        openNow = new BitSet(size);
+        topRated = new BitSet(size);
+        withWorkmates = new BitSet(size);
+
+        for (int i = 0; i < size; i++) {
+            if (index.openNow[i]) openNow.set(i);
+            if (index.ratings[i] >= TOP_RATING) topRated.set(i);
+            if (index.workmates[i] > 0) withWorkmates.set(i);
+
+            Restaurant restaurant = index.get(i).getRestaurant();
+            if (restaurant.getTypes() != null) {
+                for (String type : restaurant.getTypes()) {
+                    if (type == null || GENERIC_TYPES.contains(type)) {
+                        continue;
+                    }
+                    BitSet bits = byType.get(type);
+                    if (bits == null) {
+                        bits = new BitSet(size);
+                        byType.put(type, bits);
+                    }
+                    bits.set(i);
+                }
+            }
+        }
+
+        // Most frequent types first
+        List<String> sortedTypes = new ArrayList<>(byType.keySet());
+        Collections.sort(sortedTypes, (a, b) -> {
+            int result = Integer.compare(byType.get(b).cardinality(), byType.get(a).cardinality());
+            return result != 0 ? result : a.compareTo(b);
+        });
+        types = Collections.unmodifiableList(sortedTypes);
+    }
+
+    /**
+     * Gets the cuisine types of the snapshot, most frequent first.
+     */
+    public List<String> getTypes() {
+        return types;
+    }
+
+    /**
+     * Gets the index positions of the restaurants matching the given filter.
+     */
+    public BitSet filter(RestaurantFilter filter) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+
+        if (filter == null) {
+            return result;
+        }
+        if (filter.isOpenNow()) result.and(openNow);
+        if (filter.isTopRated()) result.and(topRated);
+        if (filter.isWithWorkmates()) result.and(withWorkmates);
+
+        if (!filter.getTypes().isEmpty()) {
+            BitSet anyType = new BitSet(size);
+            for (String type : filter.getTypes()) {
+                BitSet bits = byType.get(type);
+                if (bits != null) {
+                    anyType.or(bits);
+                }
+            }
+            result.and(anyType);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package com.julien.go4lunch.model.ranking;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable set of filters applied to the restaurant list.
+ * Every enabled facet must match, and a restaurant matches the cuisine types if it has any of them.
+ */
+public class RestaurantFilter {
+
+    public static final RestaurantFilter NONE = new RestaurantFilter(false, false, false, Collections.emptySet());
+
+    private final boolean openNow;
+    private final boolean topRated;
+    private final boolean withWorkmates;
+    private final Set<String> types;
+
+    public RestaurantFilter(boolean openNow, boolean topRated, boolean withWorkmates, Set<String> types) {
+        this.openNow = openNow;
+        this.topRated = topRated;
+        this.withWorkmates = withWorkmates;
+        this.types = types != null ? Collections.unmodifiableSet(new HashSet<>(types)) : Collections.emptySet();
+    }
+
+    public boolean isOpenNow() {
+        return openNow;
+    }
+
+    /**
+     * Returns true if only the restaurants rated {@link RestaurantFacets#TOP_RATING} or more are kept.
+     */
+    public boolean isTopRated() {
+        return topRated;
+    }
+
+    public boolean isWithWorkmates() {
+        return withWorkmates;
+    }
+
+    /**
+     * Gets the cuisine types, empty if the types are not filtered.
+     */
+    public Set<String> getTypes() {
+        return types;
+    }
+
+    public boolean isEmpty() {
+        return !openNow && !topRated && !withWorkmates && types.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RestaurantFilter that = (RestaurantFilter) o;
+        return openNow == that.openNow && topRated == that.topRated && withWorkmates == that.withWorkmates && types.equals(that.types);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(openNow, topRated, withWorkmates, types);
+    }
+}
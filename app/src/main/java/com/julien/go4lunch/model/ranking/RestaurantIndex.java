@@ -0,0 +1,98 @@
+package com.julien.go4lunch.model.ranking;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.RestaurantAndWorkmates;
+import com.julien.go4lunch.model.bo.place.Location;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Column oriented snapshot of a restaurant list.
+ * Every rankable attribute is copied once into a primitive array, so ranking
+ * and distance computation never go through the Restaurant getters again.
+ */
+public class RestaurantIndex {
+
+    private final List<RestaurantAndWorkmates> items;
+    private final Set<String> likedPlaceIds;
+
+    // Coordinates in radians, cos(latitude) is precomputed for the haversine formula
+    final double[] latitudes;
+    final double[] longitudes;
+    final double[] cosLatitudes;
+    final boolean[] hasLocation;
+
+    final double[] ratings;
+    final long[] workmates;
+    final boolean[] openNow;
+    final boolean[] liked;
+
+    /**
+     * Builds the index of the given restaurants.
+     *
+     * @param items         restaurants with the number of workmates attending today
+     * @param likedPlaceIds placeIds liked by the current workmate, may be null
+     */
+    public RestaurantIndex(List<RestaurantAndWorkmates> items, Set<String> likedPlaceIds) {
+        this.items = items;
+        this.likedPlaceIds = likedPlaceIds != null ? likedPlaceIds : Collections.emptySet();
+
+        int size = items.size();
+        latitudes = new double[size];
+        longitudes = new double[size];
+        cosLatitudes = new double[size];
+        hasLocation = new boolean[size];
+        ratings = new double[size];
+        workmates = new long[size];
+        openNow = new boolean[size];
+        liked = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            RestaurantAndWorkmates item = items.get(i);
+            Restaurant restaurant = item.getRestaurant();
+
+            Location location = restaurant.getLocation();
+            if (location != null && location.getLat() != null && location.getLng() != null) {
+                latitudes[i] = Math.toRadians(location.getLat());
+                longitudes[i] = Math.toRadians(location.getLng());
+                cosLatitudes[i] = Math.cos(latitudes[i]);
+                hasLocation[i] = true;
+            }
+
+            ratings[i] = restaurant.getRating() != null ? restaurant.getRating() : -1;
+            workmates[i] = item.getWorkmatesAtRestaurant() != null ? item.getWorkmatesAtRestaurant() : 0;
+            openNow[i] = Boolean.TRUE.equals(restaurant.getOpened());
+            liked[i] = this.likedPlaceIds.contains(restaurant.getId());
+        }
+    }
+
+    /**
+     * Number of restaurants in the index.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Gets the restaurant at the given index position.
+     */
+    public RestaurantAndWorkmates get(int i) {
+        return items.get(i);
+    }
+
+    /**
+     * Gets the list the index was built from.
+     */
+    public List<RestaurantAndWorkmates> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the liked placeIds the index was built with.
+     */
+    public Set<String> getLikedPlaceIds() {
+        return likedPlaceIds;
+    }
+}
@@ -0,0 +1,273 @@
+package com.julien.go4lunch.model.ranking;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Ranks the restaurants of a {@link RestaurantIndex} by a list of keys, the first key
+ * being the most significant. Distance and index are always used as final tie breakers.
+ *
+ * Distances are computed with the haversine formula over the primitive arrays of the index,
+ * and only the K best restaurants are selected (bounded heap, O(n log k)) instead of sorting
+ * the whole list. When the position moves a little, the previous top K is re-sorted in place
+ * and reused if no other restaurant entered it, which avoids a full selection on every GPS tick.
+ * Ranking can be restricted to a set of candidates, typically the result of {@link RestaurantFacets}.
+ *
+ * Not thread safe : a ranker is meant to be used from a single background thread.
+ */
+public class RestaurantRanker {
+
+    /**
+     * Mean earth radius in meters.
+     */
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    /**
+     * Above this displacement, the previous ranking is not reused.
+     */
+    static final double INCREMENTAL_MAX_MOVE_METERS = 100;
+
+    private final RestaurantIndex index;
+    private final double[] distances;
+    private final boolean[] inTop;
+
+    // Previous ranking
+    private int[] top = new int[0];
+    private RankKey[] lastKeys;
+    private BitSet lastCandidates;
+    private boolean hasOrigin = false;
+    private double lastLatitude, lastLongitude, lastCosLatitude;
+
+    public RestaurantRanker(RestaurantIndex index) {
+        this.index = index;
+        this.distances = new double[index.size()];
+        this.inTop = new boolean[index.size()];
+    }
+
+    /**
+     * Gets the index this ranker works on.
+     */
+    public RestaurantIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the distance in meters between the last ranking position and the restaurant at
+     * the given index position, or positive infinity if the restaurant has no location.
+     */
+    public double distanceAt(int i) {
+        return distances[i];
+    }
+
+    /**
+     * Ranks the restaurants from the given position.
+     *
+     * @param latitude  position latitude, in degrees
+     * @param longitude position longitude, in degrees
+     * @param keys      ranking keys, the first one being the most significant
+     * @param k         maximum number of restaurants to return
+     * @return the index positions of the K best restaurants, best first
+     */
+    public int[] rank(double latitude, double longitude, List<RankKey> keys, int k) {
+        return rank(latitude, longitude, keys, k, null);
+    }
+
+    /**
+     * Ranks the given candidates from the given position.
+     *
+     * @param latitude   position latitude, in degrees
+     * @param longitude  position longitude, in degrees
+     * @param keys       ranking keys, the first one being the most significant
+     * @param k          maximum number of restaurants to return
+     * @param candidates index positions allowed in the ranking, null for all the restaurants
+     * @return the index positions of the K best candidates, best first
+     */
+    public int[] rank(double latitude, double longitude, List<RankKey> keys, int k, BitSet candidates) {
+        if (candidates == null) {
+            candidates = new BitSet(index.size());
+            candidates.set(0, index.size());
+        }
+        k = Math.min(k, candidates.cardinality());
+
+        double latRad = Math.toRadians(latitude);
+        double lngRad = Math.toRadians(longitude);
+        double cosLat = Math.cos(latRad);
+        RankKey[] rankKeys = keys.toArray(new RankKey[0]);
+
+        boolean canReuse = hasOrigin
+                && top.length == k
+                && Arrays.equals(rankKeys, lastKeys)
+                && candidates.equals(lastCandidates)
+                && haversine(lastLatitude, lastLongitude, lastCosLatitude, latRad, lngRad, cosLat) <= INCREMENTAL_MAX_MOVE_METERS;
+
+        computeDistances(latRad, lngRad, cosLat);
+
+        hasOrigin = true;
+        lastLatitude = latRad;
+        lastLongitude = lngRad;
+        lastCosLatitude = cosLat;
+        lastKeys = rankKeys;
+        lastCandidates = (BitSet) candidates.clone();
+
+        if (!canReuse || !reRankIncrementally(rankKeys, candidates)) {
+            top = selectTopK(rankKeys, k, candidates);
+        }
+        return Arrays.copyOf(top, top.length);
+    }
+
+    private void computeDistances(double latRad, double lngRad, double cosLat) {
+        for (int i = 0; i < distances.length; i++) {
+            if (index.hasLocation[i]) {
+                distances[i] = haversine(latRad, lngRad, cosLat, index.latitudes[i], index.longitudes[i], index.cosLatitudes[i]);
+            } else {
+                distances[i] = Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * Haversine distance in meters, coordinates in radians.
+     */
+    static double haversine(double lat1, double lng1, double cosLat1, double lat2, double lng2, double cosLat2) {
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLng = Math.sin((lng2 - lng1) / 2);
+        double a = sinLat * sinLat + cosLat1 * cosLat2 * sinLng * sinLng;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Re-sorts the previous top K with the new distances (insertion sort, nearly sorted input)
+     * and checks that no candidate outside of it is now better than its last element.
+     *
+     * @return false if the previous top K is not valid anymore
+     */
+    private boolean reRankIncrementally(RankKey[] keys, BitSet candidates) {
+        for (int i = 1; i < top.length; i++) {
+            int current = top[i];
+            int j = i - 1;
+            while (j >= 0 && compare(keys, current, top[j]) < 0) {
+                top[j + 1] = top[j];
+                j--;
+            }
+            top[j + 1] = current;
+        }
+
+        if (top.length == 0 || top.length == candidates.cardinality()) {
+            return true;
+        }
+
+        Arrays.fill(inTop, false);
+        for (int i : top) {
+            inTop[i] = true;
+        }
+
+        int worst = top[top.length - 1];
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (!inTop[i] && compare(keys, i, worst) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Selects the K best candidates with a bounded max-heap whose root is the worst selected one.
+     */
+    private int[] selectTopK(RankKey[] keys, int k, BitSet candidates) {
+        int[] heap = new int[k];
+        int heapSize = 0;
+
+        if (k == 0) {
+            return heap;
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (heapSize < k) {
+                heap[heapSize] = i;
+                siftUp(keys, heap, heapSize);
+                heapSize++;
+            } else if (compare(keys, i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(keys, heap, 0, heapSize);
+            }
+        }
+
+        // Heap sort : move the worst to the end until the heap is empty, best first
+        for (int end = heapSize - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDown(keys, heap, 0, end);
+        }
+        return heap;
+    }
+
+    private void siftUp(RankKey[] keys, int[] heap, int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (compare(keys, heap[position], heap[parent]) <= 0) {
+                return;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[position];
+            heap[position] = tmp;
+            position = parent;
+        }
+    }
+
+    private void siftDown(RankKey[] keys, int[] heap, int position, int heapSize) {
+        while (true) {
+            int left = 2 * position + 1;
+            int right = left + 1;
+            int largest = position;
+
+            if (left < heapSize && compare(keys, heap[left], heap[largest]) > 0) {
+                largest = left;
+            }
+            if (right < heapSize && compare(keys, heap[right], heap[largest]) > 0) {
+                largest = right;
+            }
+            if (largest == position) {
+                return;
+            }
+            int tmp = heap[largest];
+            heap[largest] = heap[position];
+            heap[position] = tmp;
+            position = largest;
+        }
+    }
+
+    /**
+     * Compares two restaurants, a negative result means that a is ranked before b.
+     */
+    private int compare(RankKey[] keys, int a, int b) {
+        for (RankKey key : keys) {
+            int result;
+            switch (key) {
+                case RATING:
+                    result = Double.compare(index.ratings[b], index.ratings[a]);
+                    break;
+                case WORKMATES:
+                    result = Long.compare(index.workmates[b], index.workmates[a]);
+                    break;
+                case OPEN_NOW:
+                    result = Boolean.compare(index.openNow[b], index.openNow[a]);
+                    break;
+                case LIKED:
+                    result = Boolean.compare(index.liked[b], index.liked[a]);
+                    break;
+                case DISTANCE:
+                default:
+                    result = Double.compare(distances[a], distances[b]);
+                    break;
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        int result = Double.compare(distances[a], distances[b]);
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+}
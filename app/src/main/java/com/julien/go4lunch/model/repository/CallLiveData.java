@@ -0,0 +1,103 @@
+package com.julien.go4lunch.model.repository;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * LiveData backed by a Retrofit call.
+ * The call is sent when the LiveData becomes active and cancelled if it becomes inactive before the response,
+ * for example when a switchMap moves to a newer request. It is sent again if the LiveData becomes active again,
+ * also after an error response or a network failure.
+ *
+ * @param <T> type of the response body
+ * @param <R> type of the LiveData value
+ */
+class CallLiveData<T, R> extends LiveData<R> {
+
+    /**
+     * Maps the response body to the LiveData value, on the main thread.
+     */
+    interface Mapper<T, R> {
+        R map(T body);
+    }
+
+    private final String tag;
+    private final Call<T> template;
+    private final Mapper<T, R> mapper;
+    private final Runnable onError;
+
+    private Call<T> call;
+    private boolean delivered = false;
+
+    CallLiveData(String tag, Call<T> template, Mapper<T, R> mapper) {
+        this(tag, template, mapper, null);
+    }
+
+    /**
+     * @param onError called on the main thread after an error response or a network failure, may be null
+     */
+    CallLiveData(String tag, Call<T> template, Mapper<T, R> mapper, Runnable onError) {
+        this.tag = tag;
+        this.template = template;
+        this.mapper = mapper;
+        this.onError = onError;
+    }
+
+    @Override
+    protected void onActive() {
+        if (delivered || (call != null && !call.isCanceled())) {
+            return;
+        }
+
+        // A call can only be executed once, a canceled one is replaced by a clone
+        Call<T> current = template.clone();
+        call = current;
+        current.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> c, Response<T> response) {
+                if (current != call || current.isCanceled()) {
+                    return;
+                }
+                if (response.isSuccessful() && response.body() != null) {
+                    delivered = true;
+                    setValue(mapper.map(response.body()));
+                } else {
+                    Log.e(tag, "API call was not successful. Response code: " + response.code() + ", Message: " + response.message());
+                    failed();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> c, Throwable t) {
+                if (current.isCanceled()) {
+                    Log.i(tag, "API call canceled : " + c.request().url());
+                } else if (current == call) {
+                    Log.i(tag, "Failure API call, exception : " + t.getMessage());
+                    failed();
+                }
+            }
+        });
+    }
+
+    /**
+     * Forgets the failed call, so that the next activation sends it again.
+     */
+    private void failed() {
+        call = null;
+        if (onError != null) {
+            onError.run();
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        if (!delivered && call != null) {
+            call.cancel();
+        }
+    }
+}
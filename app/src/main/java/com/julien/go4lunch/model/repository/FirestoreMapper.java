@@ -0,0 +1,157 @@
+package com.julien.go4lunch.model.repository;
+
+import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.LunchCard;
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.model.bo.place.Location;
+import com.julien.go4lunch.model.bo.place.Photo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written mappers from Firestore document data to the business objects.
+ *
+ * Field names are the bean properties Firestore writes for these classes, so documents written
+ * with {@code add(lunch)} are read back the same way as with {@code toObject(Lunch.class)},
+ * without the reflection of the Firestore class mapper.
+ * Firestore returns integers as Long and decimals as Double, numbers are read as {@link Number}.
+ */
+public final class FirestoreMapper {
+
+    private FirestoreMapper() {
+        // Keep Empty
+    }
+
+    public static Lunch toLunch(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        Lunch lunch = new Lunch();
+        lunch.setWorkmate(toWorkmate(asMap(data.get("workmate"))));
+        lunch.setRestaurant(toRestaurant(asMap(data.get("restaurant"))));
+        lunch.setDate(asString(data.get("date")));
+        return lunch;
+    }
+
+    public static LunchCard toLunchCard(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        LunchCard lunchCard = new LunchCard();
+        lunchCard.setDate(asString(data.get("date")));
+        lunchCard.setRestaurantId(asString(data.get("restaurantId")));
+        lunchCard.setRestaurantName(asString(data.get("restaurantName")));
+        lunchCard.setRestaurantAddress(asString(data.get("restaurantAddress")));
+        lunchCard.setAttendees(toAttendees(data.get("attendees")));
+        return lunchCard;
+    }
+
+    /**
+     * Maps the attendees of a lunch card or a lunch table, names by uid.
+     * Empty if there are none, or for the lists of names of the former cards.
+     */
+    public static Map<String, String> toAttendees(Object value) {
+        Map<String, String> attendees = new LinkedHashMap<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                attendees.put(asString(entry.getKey()), asString(entry.getValue()));
+            }
+        }
+        return attendees;
+    }
+
+    public static Workmate toWorkmate(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        Workmate workmate = new Workmate();
+        workmate.setUid(asString(data.get("uid")));
+        workmate.setName(asString(data.get("name")));
+        workmate.setEmail(asString(data.get("email")));
+        workmate.setAvatar(asString(data.get("avatar")));
+        workmate.setNotificationEnabled(Boolean.TRUE.equals(data.get("notificationEnabled")));
+        return workmate;
+    }
+
+    public static Restaurant toRestaurant(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(asString(data.get("id")));
+        restaurant.setName(asString(data.get("name")));
+        restaurant.setAddress(asString(data.get("address")));
+        restaurant.setLocation(toLocation(asMap(data.get("location"))));
+        restaurant.setTypes(asStrings(data.get("types")));
+        restaurant.setOpened((Boolean) data.get("opened"));
+
+        Number numberOfReviews = (Number) data.get("numberOfReviews");
+        restaurant.setNumberOfReviews(numberOfReviews != null ? numberOfReviews.intValue() : 0);
+
+        Number rating = (Number) data.get("rating");
+        restaurant.setRating(rating != null ? rating.doubleValue() : null);
+
+        restaurant.setWebsite(asString(data.get("website")));
+        restaurant.setformattedPhoneNumber(asString(data.get("formattedPhoneNumber")));
+        restaurant.setPhotos(toPhotos(data.get("photos")));
+        restaurant.setIcon(asString(data.get("icon")));
+        return restaurant;
+    }
+
+    private static Location toLocation(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        Number lat = (Number) data.get("lat");
+        Number lng = (Number) data.get("lng");
+        return new Location(lat != null ? lat.doubleValue() : null, lng != null ? lng.doubleValue() : null);
+    }
+
+    private static List<Photo> toPhotos(Object value) {
+        if (!(value instanceof List)) {
+            return null;
+        }
+        List<?> values = (List<?>) value;
+        List<Photo> photos = new ArrayList<>(values.size());
+        for (Object item : values) {
+            Map<String, Object> data = asMap(item);
+            if (data == null) {
+                continue;
+            }
+            Photo photo = new Photo();
+            Number height = (Number) data.get("height");
+            Number width = (Number) data.get("width");
+            photo.setHeight(height != null ? height.intValue() : null);
+            photo.setWidth(width != null ? width.intValue() : null);
+            photo.setPhotoReference(asString(data.get("photoReference")));
+            photo.setHtmlAttributions(asStrings(data.get("htmlAttributions")));
+            photos.add(photo);
+        }
+        return photos;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static List<String> asStrings(Object value) {
+        if (!(value instanceof List)) {
+            return null;
+        }
+        List<?> values = (List<?>) value;
+        List<String> strings = new ArrayList<>(values.size());
+        for (Object item : values) {
+            strings.add(asString(item));
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,67 @@
+package com.julien.go4lunch.model.repository;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the Firestore calls of the repositories : documents read from the server and calls in flight.
+ * Read by the repository benchmark, the counters are cheap enough to stay on.
+ */
+public final class FirestoreStats {
+
+    private static final AtomicLong calls = new AtomicLong();
+    private static final AtomicLong documentsRead = new AtomicLong();
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    private FirestoreStats() {
+        // Keep Empty
+    }
+
+    /**
+     * Tracks a Firestore call, the task is returned as is.
+     * A query answered by the server costs a read per document, one if it is empty, as billed by Firestore.
+     * A document costs one read. Results from the local cache cost nothing.
+     */
+    public static <T> Task<T> track(Task<T> task) {
+        calls.incrementAndGet();
+        inFlight.incrementAndGet();
+
+        task.addOnCompleteListener(Runnable::run, completed -> {
+            if (completed.isSuccessful()) {
+                Object result = completed.getResult();
+                if (result instanceof QuerySnapshot && !((QuerySnapshot) result).getMetadata().isFromCache()) {
+                    documentsRead.addAndGet(Math.max(1, ((QuerySnapshot) result).size()));
+                } else if (result instanceof DocumentSnapshot && !((DocumentSnapshot) result).getMetadata().isFromCache()) {
+                    documentsRead.incrementAndGet();
+                }
+            }
+            inFlight.decrementAndGet();
+        });
+        return task;
+    }
+
+    /**
+     * Firestore calls sent since the start of the app, reads and writes.
+     */
+    public static long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Documents read from the server since the start of the app.
+     */
+    public static long getDocumentsRead() {
+        return documentsRead.get();
+    }
+
+    /**
+     * Firestore calls sent and not completed yet.
+     */
+    public static int getInFlight() {
+        return inFlight.get();
+    }
+}
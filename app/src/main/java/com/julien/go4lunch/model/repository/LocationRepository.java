@@ -1,7 +1,11 @@
 package com.julien.go4lunch.model.repository;
 
+import android.annotation.SuppressLint;
 import android.location.Location;
+import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresPermission;
@@ -15,18 +19,44 @@ import com.google.android.gms.location.LocationResult;
 
 /**
  * Location repository to request gps updates and provide the current location.
+ *
+ * The location request adapts to what the user is doing : a high rate while walking,
+ * a low power request when stationary and a passive one when the app is in background.
  */
 public class LocationRepository {
 
     /**
-     * Location request interval in milliseconds.
+     * Location sampling modes, from the most accurate to the least power hungry.
      */
-    private static final int LOCATION_REQUEST_INTERVAL_MS = 20_000;
+    public enum Mode {
+        MOVING(LocationRequest.PRIORITY_HIGH_ACCURACY, 10_000, 5_000, 20),
+        STATIONARY(LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY, 60_000, 30_000, 50),
+        BACKGROUND(LocationRequest.PRIORITY_NO_POWER, 300_000, 60_000, 100);
+
+        private final int priority;
+        private final long intervalMs;
+        private final long fastestIntervalMs;
+        private final float smallestDisplacementMeter;
+
+        Mode(int priority, long intervalMs, long fastestIntervalMs, float smallestDisplacementMeter) {
+            this.priority = priority;
+            this.intervalMs = intervalMs;
+            this.fastestIntervalMs = fastestIntervalMs;
+            this.smallestDisplacementMeter = smallestDisplacementMeter;
+        }
+    }
+
+    private static final String TAG = "LocationRepository";
 
     /**
-     * Smallest displacement threshold in meters.
+     * Above this speed in meters per second, the user is considered moving (slow walk).
      */
-    private static final float SMALLEST_DISPLACEMENT_METER = 50;
+    private static final float MOVING_SPEED_MPS = 0.6f;
+
+    /**
+     * Without any movement during this delay, the user is considered stationary.
+     */
+    private static final long STATIONARY_AFTER_MS = 2 * 60 * 1000;
 
     /**
      * Fused location provider client, used to request location updates.
@@ -45,6 +75,17 @@ public class LocationRepository {
      */
     private LocationCallback locationCallback;
 
+    // Adaptive sampling state, main thread only
+    private boolean isRequesting = false;
+    private boolean isInBackground = false;
+    private Mode mode = Mode.MOVING;
+    private Location lastLocation;
+    private long lastMovementAt = SystemClock.elapsedRealtime();
+
+    // A stationary user may not produce any fix, the mode is also checked after the stationary delay
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable modeCheck = this::updateMode;
+
     /**
      * Constructor.
      * @param fusedClient Fused location provider client.
@@ -62,7 +103,14 @@ public class LocationRepository {
     }
 
     /**
-     * Start location request.
+     * Get the current sampling mode.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Start location request, in the foreground modes.
      * This method requires the ACCESS_COARSE_LOCATION or ACCESS_FINE_LOCATION permission.
      */
     @RequiresPermission(anyOf = {"android.permission.ACCESS_COARSE_LOCATION", "android.permission.ACCESS_FINE_LOCATION"})
@@ -71,6 +119,52 @@ public class LocationRepository {
         // create a location callback
         armLocationCallback();
 
+        // until the first fix, start from the last known location, if it is not too old for the provider
+        if (locationMutableLiveData.getValue() == null) {
+            fusedClient.getLastLocation().addOnSuccessListener(location -> {
+                if (location != null && locationMutableLiveData.getValue() == null) {
+                    Log.i(TAG, "Location seeded from the last known location");
+                    locationMutableLiveData.setValue(location);
+                }
+            });
+        }
+
+        // a new start (app resumed) samples at a high rate until the user is known to be stationary
+        isInBackground = false;
+        isRequesting = true;
+        onMovement();
+        mode = targetMode();
+        requestLocationUpdates();
+    }
+
+    /**
+     * Stop location request.
+     */
+    public void stopLocationRequest() {
+        isRequesting = false;
+        handler.removeCallbacks(modeCheck);
+        if (locationCallback != null) {
+            // remove location updates
+            fusedClient.removeLocationUpdates(locationCallback);
+        }
+    }
+
+    /**
+     * Switches to passive sampling while the app is in background, and back when it comes to foreground.
+     */
+    public void setInBackground(boolean inBackground) {
+        isInBackground = inBackground;
+        updateMode();
+    }
+
+    /**
+     * Request location updates with the parameters of the current mode,
+     * the previous request is replaced.
+     */
+    @SuppressLint("MissingPermission")
+    private void requestLocationUpdates() {
+        Log.i(TAG, "Location request mode : " + mode);
+
         // remove location updates if already requested
         fusedClient.removeLocationUpdates(locationCallback);
 
@@ -78,13 +172,15 @@ public class LocationRepository {
         fusedClient.requestLocationUpdates(
                 // create a location request
                 LocationRequest.create()
-                        // set the priority to high accuracy
-                        .setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY)
+                        // set the priority : accuracy vs power consumption
+                        .setPriority(mode.priority)
                         // set the smallest displacement threshold
-                        .setSmallestDisplacement(SMALLEST_DISPLACEMENT_METER)
+                        .setSmallestDisplacement(mode.smallestDisplacementMeter)
                         // set the interval between location updates
                         // have an impact of power consumption / battery life
-                        .setInterval(LOCATION_REQUEST_INTERVAL_MS),
+                        .setInterval(mode.intervalMs)
+                        // accept fixes requested by other apps, up to this rate
+                        .setFastestInterval(mode.fastestIntervalMs),
                 // provide the location callback
                 locationCallback,
                 // use the main looper
@@ -93,15 +189,43 @@ public class LocationRepository {
     }
 
     /**
-     * Stop location request.
+     * Switches mode if the user started or stopped moving, or if the app went to background.
      */
-    public void stopLocationRequest() {
-        if (locationCallback != null) {
-            // remove location updates
-            fusedClient.removeLocationUpdates(locationCallback);
+    private void updateMode() {
+        Mode target = targetMode();
+        if (isRequesting && target != mode) {
+            mode = target;
+            requestLocationUpdates();
         }
     }
 
+    private void onMovement() {
+        lastMovementAt = SystemClock.elapsedRealtime();
+        handler.removeCallbacks(modeCheck);
+        handler.postDelayed(modeCheck, STATIONARY_AFTER_MS);
+    }
+
+    private Mode targetMode() {
+        if (isInBackground) {
+            return Mode.BACKGROUND;
+        }
+        return SystemClock.elapsedRealtime() - lastMovementAt < STATIONARY_AFTER_MS ? Mode.MOVING : Mode.STATIONARY;
+    }
+
+    /**
+     * Speed in meters per second, from the fix itself or from the previous fix.
+     */
+    private float speedOf(Location location) {
+        if (location.hasSpeed()) {
+            return location.getSpeed();
+        }
+        if (lastLocation == null) {
+            return 0;
+        }
+        long elapsedMs = (location.getElapsedRealtimeNanos() - lastLocation.getElapsedRealtimeNanos()) / 1_000_000;
+        return elapsedMs > 0 ? location.distanceTo(lastLocation) * 1000f / elapsedMs : 0;
+    }
+
     /**
      * Arm the Location callback
      */
@@ -114,6 +238,13 @@ public class LocationRepository {
                 public void onLocationResult(@NonNull LocationResult locationResult) {
                     // get the last location
                     Location location = locationResult.getLastLocation();
+
+                    if (speedOf(location) >= MOVING_SPEED_MPS) {
+                        onMovement();
+                    }
+                    lastLocation = location;
+                    updateMode();
+
                     // update the location live data
                     locationMutableLiveData.setValue(location);
                 }
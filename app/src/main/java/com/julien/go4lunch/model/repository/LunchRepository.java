@@ -4,21 +4,37 @@ import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
 import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.LunchCard;
 import com.julien.go4lunch.model.bo.Restaurant;
 import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.model.db.AppDatabase;
+import com.julien.go4lunch.model.db.LunchEntity;
+import com.julien.go4lunch.model.db.SyncStateEntity;
+import com.julien.go4lunch.utils.AppExecutors;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class LunchRepository {
     // TAG for logs
@@ -29,20 +45,30 @@ public class LunchRepository {
     public final String LUNCH_WORKMATE_ID_FIELD = "workmate.uid";
     public final String LUNCH_DATE_FIELD = "date";
     public final String RESTAURANT_CHOSEN_NAME = "restaurant.name";
+    public final String RESTAURANT_CHOSEN_ID = "restaurant.id";
+    public final String LUNCH_CARD_COLLECTION = "lunchCards";
+    public final String LUNCH_CARD_ATTENDEES_FIELD = "attendees";
+    public final String LUNCH_TABLE_COLLECTION = "lunchTables";
 
     // SINGLETON
     private static LunchRepository instance;
 
+    // LOCAL DATABASE, source of truth of the screens
+    private static final String LUNCHES_SYNC = "lunches:";
+    private static final long TODAY_LUNCHES_MAX_AGE_MILLIS = 5 * 60 * 1000;
+    private final AppDatabase database;
+    private final AtomicBoolean isSyncingToday = new AtomicBoolean(false);
+
     // Private constructor to prevent direct instantiation
     private LunchRepository() {
-        // Keep Empty
+        database = AppDatabase.getInstance();
     }
 
     /**
      * Returns the unique instance of the LunchRepository.
      * Implements the Singleton pattern to ensure only one instance of the repository exists.
      */
-    public static LunchRepository getInstance() {
+    public static synchronized LunchRepository getInstance() {
         if (instance == null) {
             instance = new LunchRepository();
         }
@@ -56,6 +82,24 @@ public class LunchRepository {
         return FirebaseFirestore.getInstance().collection(LUNCH_COLLECTION);
     }
 
+    /**
+     * Returns the lunch card of a workmate, its document id is the workmate uid.
+     */
+    private DocumentReference getLunchCard(String uid) {
+        return FirebaseFirestore.getInstance().collection(LUNCH_CARD_COLLECTION).document(uid);
+    }
+
+    /**
+     * Returns the table of a restaurant for a day : the workmates having lunch there, by uid.
+     * The lunches and the lunch cards are written in transactions reading it,
+     * so that two workmates choosing the same restaurant at once both see each other.
+     */
+    private DocumentReference getLunchTable(String day, Restaurant restaurant) {
+        String restaurantKey = restaurant.getId() != null ? restaurant.getId() : "name:" + restaurant.getName();
+        return FirebaseFirestore.getInstance().collection(LUNCH_TABLE_COLLECTION)
+                .document((day + "_" + restaurantKey).replace('/', '_'));
+    }
+
     /**
      * Returns the current date truncated to the day (without time).
      */
@@ -64,258 +108,243 @@ public class LunchRepository {
     }
 
     /**
-     * Fetches a list of restaurant names where lunches are scheduled for today
+     * Maps a lunch document, its restaurant is the canonical instance of the place.
+     * The restaurant saved with the lunch may be out of date, it is not merged into the canonical one.
      */
-    public LiveData<List<String>> fetchTodayLunchRestaurantNames() {
-        MutableLiveData<List<String>> restaurantNameLiveData = new MutableLiveData<>();
+    private Lunch toLunch(DocumentSnapshot document) {
+        Lunch lunch = FirestoreMapper.toLunch(document.getData());
+        if (lunch != null) {
+            lunch.setRestaurant(RestaurantStore.getInstance().intern(lunch.getRestaurant()));
+        }
+        return lunch;
+    }
 
-        Task<QuerySnapshot> task = getLunchCollection()
-                .whereEqualTo(LUNCH_DATE_FIELD, toDay())
-                .get();
+    /**
+     * Maps a lunch row, its restaurant is the canonical instance of the place if it is loaded.
+     * The row only keeps a few fields of the restaurant, it is not stored as the canonical one.
+     */
+    private Lunch toLunch(LunchEntity entity) {
+        return new Lunch(entity.toWorkmate(), RestaurantStore.getInstance().resolve(entity.toRestaurant()), entity.day);
+    }
 
-        task.addOnCompleteListener(result -> {
-            if (result.isSuccessful()) {
-                List<Lunch> lunchList = result.getResult().toObjects(Lunch.class);
+    private List<Lunch> toLunchList(List<LunchEntity> entities) {
+        List<Lunch> lunches = new ArrayList<>(entities.size());
+        for (LunchEntity entity : entities) {
+            lunches.add(toLunch(entity));
+        }
+        return lunches;
+    }
 
-                if (!lunchList.isEmpty()) {
-                    Log.i(TAG, "Successfully retrieved today's lunches: " + lunchList.size() + " lunch(es) scheduled.");
+    /**
+     * Reads today's lunches from Firestore and replaces them in the local database, the observers
+     * of the local queries receive them. A sync already running is not sent again.
+     */
+    public void syncTodayLunches() {
+        if (!isSyncingToday.compareAndSet(false, true)) {
+            return;
+        }
+        String day = toDay();
 
-                    List<String> restaurantNameList = new ArrayList<>();
-                    for (Lunch lunch : lunchList) {
-                        String restaurantName = lunch.getRestaurant().getName();
-                        restaurantNameList.add(restaurantName);
+        FirestoreStats.track(getLunchCollection()
+                .whereEqualTo(LUNCH_DATE_FIELD, day)
+                .get())
+                .addOnCompleteListener(AppExecutors.diskIo(), task -> {
+                    isSyncingToday.set(false);
+                    if (task.isSuccessful()) {
+                        saveDay(day, task.getResult());
+                    } else {
+                        Log.e(TAG, "Error syncing today's lunches: ", task.getException());
                     }
+                });
+    }
 
-                    restaurantNameLiveData.setValue(restaurantNameList);
-                } else {
-                    Log.i(TAG, "No lunches scheduled for today.");
-                    restaurantNameLiveData.setValue(null);
-                }
-
-            } else {
-                Log.e(TAG, "Error retrieving lunches: ", task.getException());
-                restaurantNameLiveData.setValue(null);
+    /**
+     * Syncs today's lunches if the last sync is older than {@link #TODAY_LUNCHES_MAX_AGE_MILLIS}.
+     */
+    public void syncTodayLunchesIfStale() {
+        String day = toDay();
+
+        AppExecutors.diskIo().execute(() -> {
+            SyncStateEntity syncState = database.syncStateDao().get(LUNCHES_SYNC + day);
+            long age = syncState != null ? System.currentTimeMillis() - syncState.syncedAt : Long.MAX_VALUE;
+            if (age > TODAY_LUNCHES_MAX_AGE_MILLIS) {
+                Log.i(TAG, "Today's lunches are stale, last sync : " + (syncState != null ? age + " ms ago" : "never"));
+                syncTodayLunches();
             }
         });
-
-        task.addOnFailureListener(result -> {
-            Log.e(TAG, "Task failed while retrieving today's lunches.");
-            restaurantNameLiveData.setValue(null);
-        });
-
-        return restaurantNameLiveData;
     }
 
     /**
-     * Get all lunches for today
-     **/
-    public LiveData<List<Lunch>> fetchTodayLunches() {
-        MutableLiveData<List<Lunch>> lunchLiveData = new MutableLiveData<>();
+     * Replaces the lunches of a day by a query result, called on the disk executor.
+     * The lunches of the previous days are dropped.
+     */
+    private List<LunchEntity> saveDay(String day, QuerySnapshot querySnapshot) {
+        List<LunchEntity> entities = new ArrayList<>(querySnapshot.size());
+        for (QueryDocumentSnapshot document : querySnapshot) {
+            Lunch lunch = FirestoreMapper.toLunch(document.getData());
+            if (lunch != null) {
+                entities.add(LunchEntity.from(document.getId(), lunch));
+            }
+        }
 
-        Task<QuerySnapshot> task = getLunchCollection()
-                .whereEqualTo(LUNCH_DATE_FIELD, toDay())
-                .get();
+        SyncStateEntity syncState = new SyncStateEntity(LUNCHES_SYNC + day);
+        syncState.syncedAt = System.currentTimeMillis();
 
-        task.addOnCompleteListener(result -> {
-            if (result.isSuccessful()) {
-                List<Lunch> lunchList = result.getResult().toObjects(Lunch.class);
+        database.runInTransaction(() -> {
+            database.lunchDao().replaceDay(day, entities);
+            database.lunchDao().deleteBefore(day);
+            database.syncStateDao().save(syncState);
+        });
+        Log.i(TAG, "Today's lunches synced : " + entities.size() + " lunch(es) scheduled.");
+        return entities;
+    }
 
-                if (!lunchList.isEmpty()) {
-                    Log.i(TAG, "Successfully retrieved today's lunches: " + lunchList.size() + " lunch(es) scheduled.");
-                    lunchLiveData.setValue(lunchList);
-                } else {
-                    Log.i(TAG, "No lunches scheduled for today.");
-                    lunchLiveData.setValue(new ArrayList<>());
-                }
-            } else {
-                Log.e(TAG, "Error retrieving lunches: ", task.getException());
-                lunchLiveData.setValue(null);
+    /**
+     * Fetches a list of restaurant names where lunches are scheduled for today, null if there is none
+     */
+    public LiveData<List<String>> fetchTodayLunchRestaurantNames() {
+        syncTodayLunchesIfStale();
+
+        return Transformations.map(database.lunchDao().observeDay(toDay()), entities -> {
+            if (entities.isEmpty()) {
+                return null;
+            }
+            List<String> restaurantNameList = new ArrayList<>(entities.size());
+            for (LunchEntity entity : entities) {
+                restaurantNameList.add(entity.restaurantName);
             }
+            return restaurantNameList;
         });
+    }
 
-        task.addOnFailureListener(result -> {
-            Log.e(TAG, "Task failed while retrieving today's lunches.");
-            lunchLiveData.setValue(null);
-        });
+    /**
+     * Get all lunches for today, as a Task for the background jobs waiting for the result.
+     * The lunches are saved to the local database, the Task fails if the query fails.
+     **/
+    public Task<List<Lunch>> fetchTodayLunchesTask() {
+        String day = toDay();
 
-        return lunchLiveData;
+        return FirestoreStats.track(getLunchCollection()
+                .whereEqualTo(LUNCH_DATE_FIELD, day)
+                .get())
+                .continueWith(AppExecutors.diskIo(), task -> toLunchList(saveDay(day, task.getResult())));
     }
 
+    /**
+     * Get all lunches for today, from the local database. They are synced again by this call.
+     **/
+    public LiveData<List<Lunch>> fetchTodayLunches() {
+        syncTodayLunches();
+
+        return Transformations.map(database.lunchDao().observeDay(toDay()), this::toLunchList);
+    }
 
     /**
-     * Create a Lunch
+     * Create a Lunch, saved to the local database at once
      **/
     public void createLunch(Restaurant restaurantChosen, Workmate workmate) {
         Lunch lunch = new Lunch(workmate, restaurantChosen, toDay());
+        DocumentReference lunchDocument = getLunchCollection().document();
+        LunchEntity entity = LunchEntity.from(lunchDocument.getId(), lunch);
+
+        AppExecutors.diskIo().execute(() -> database.lunchDao().insert(entity));
+
+        // The lunch and the lunch cards of the workmates at the same table, in one write
+        FirestoreStats.track(FirebaseFirestore.getInstance().runTransaction(transaction -> {
+                    DocumentReference table = getLunchTable(lunch.getDate(), restaurantChosen);
+                    Map<String, String> attendees = FirestoreMapper.toAttendees(transaction.get(table).get(LUNCH_CARD_ATTENDEES_FIELD));
 
-        getLunchCollection().add(lunch)
+                    transaction.set(lunchDocument, lunch);
+                    joinLunchCard(transaction, table, lunch, attendees);
+                    return null;
+                }))
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         Log.i(TAG, "Lunch successfully created for workmate: " + workmate.getName() + " at restaurant: " + restaurantChosen.getName());
                     } else {
                         Log.e(TAG, "Error creating lunch for workmate: " + workmate.getName() + " at restaurant: " + restaurantChosen.getName(), task.getException());
+                        AppExecutors.diskIo().execute(() -> database.lunchDao().delete(entity.documentId));
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failure in creating lunch for workmate: " + workmate.getName() + " at restaurant: " + restaurantChosen.getName() + ". Exception: " + e.getMessage(), e);
                 });
     }
 
     /**
-     * Get the today lunch for a given workmate, if it exists. As LiveData
+     * Get the today lunch for a given workmate, if it exists. As LiveData, from the local database
      */
     public LiveData<Lunch> getTodayLunch(String uid) {
-        MutableLiveData<Lunch> todayLunch = new MutableLiveData<>();
+        syncTodayLunchesIfStale();
 
-        Task<QuerySnapshot> task = getLunchCollection()
-                .whereEqualTo(LUNCH_WORKMATE_ID_FIELD, uid)
-                .whereEqualTo(LUNCH_DATE_FIELD, toDay())
-                .get();
-
-        task.addOnCompleteListener(result -> {
-            if (result.isSuccessful()) {
-                QuerySnapshot querySnapshot = result.getResult();
-                if (querySnapshot.size() != 0) {
-                    todayLunch.setValue(querySnapshot.toObjects(Lunch.class).get(0));
-                    Log.i(TAG, "SUCCESS GetTodayLunch result : " + todayLunch.getValue());
-                } else {
-                    todayLunch.setValue(null);
-                    Log.i(TAG, "NULL GetTodayLunch result : " + todayLunch.getValue());
-                }
-            } else {
-                Log.d(TAG, "Error in GetTodayLunch onComplete: " + result.getException());
-            }
-        });
-
-        task.addOnFailureListener(e -> {
-            Log.e(TAG, "FAILURE in GetTodayLunch: " + e.getMessage(), e);
-        });
-
-        return todayLunch;
+        return Transformations.map(database.lunchDao().observeWorkmateLunch(toDay(), uid),
+                entity -> entity != null ? toLunch(entity) : null);
     }
 
     /**
-     * Get ALL the today lunch for a given restaurant, if it exists
+     * Get ALL the today lunch for a given restaurant, null if there is none. From the local database
      */
     public LiveData<List<Workmate>> fetchTodayWorkmatesAtRestaurant(Restaurant restaurant) {
-        MutableLiveData<List<Workmate>> workmates = new MutableLiveData<>();
-
-        Task<QuerySnapshot> task = getLunchCollection()
-                .whereEqualTo(RESTAURANT_CHOSEN_NAME, restaurant.getName())
-                .whereEqualTo(LUNCH_DATE_FIELD, toDay())
-                .get();
-
-        task.addOnCompleteListener(result -> {
-            if (result.isSuccessful()) {
-                if (!result.getResult().isEmpty()) {
-                    QuerySnapshot querySnapshot = result.getResult();
-                    List<Workmate> workmateList = new ArrayList<>();
-
-                    for (QueryDocumentSnapshot document : querySnapshot) {
+        syncTodayLunchesIfStale();
 
-                        Lunch lunch = document.toObject(Lunch.class);
-
-                        Workmate workmateFound = lunch.getWorkmate();
-                        workmateList.add(workmateFound);
-                    }
-
-                    Log.i(TAG, "Results found for the chosen restaurant: " + restaurant.getName() + ". Workmates count: " + workmateList.size());
-                    workmates.setValue(workmateList);
-                } else {
-                    Log.i(TAG, "No workmates found for the chosen restaurant: " + restaurant.getName() + " today.");
-                    workmates.setValue(null);
-                }
-
-            } else {
-                Log.e(TAG, "Error getting workmates for chosen restaurant : ", result.getException());
-                workmates.setValue(null);
+        return Transformations.map(database.lunchDao().observeRestaurantLunches(toDay(), restaurant.getId(), restaurant.getName()), entities -> {
+            if (entities.isEmpty()) {
+                return null;
             }
+            List<Workmate> workmateList = new ArrayList<>(entities.size());
+            for (LunchEntity entity : entities) {
+                workmateList.add(entity.toWorkmate());
+            }
+            return workmateList;
         });
-
-        task.addOnFailureListener(e -> {
-            Log.e(TAG, "Failure in retrieving workmates for chosen restaurant: " + restaurant.getName() + ". Exception: " + e.getMessage(), e);
-            workmates.setValue(null);
-        });
-
-        return workmates;
     }
 
-    ;
-
     /**
-     * Check if the current workmates has chosen a particular Restaurant for today
+     * Check if the current workmates has chosen a particular Restaurant for today, from the local database
      */
     public LiveData<Boolean> hasWorkmateChosenThisRestaurant(Restaurant restaurant, String user_uid) {
-        MutableLiveData<Boolean> hasChosen = new MutableLiveData<>();
-
-        Task<QuerySnapshot> task = getLunchCollection()
-                .whereEqualTo(RESTAURANT_CHOSEN_NAME, restaurant.getName())
-                .whereEqualTo(LUNCH_WORKMATE_ID_FIELD, user_uid)
-                .whereEqualTo(LUNCH_DATE_FIELD, toDay())
-                .get();
-
-        task.addOnCompleteListener(result -> {
-            if (result.isSuccessful()) {
-                if (!result.getResult().isEmpty()) {
-                    QuerySnapshot querySnapshot = result.getResult();
-
-                    boolean found = false;
-
-                    for (QueryDocumentSnapshot document : querySnapshot) {
-
-                        Lunch lunch = document.toObject(Lunch.class);
-
-                        Workmate workmateFound = lunch.getWorkmate();
+        syncTodayLunchesIfStale();
 
-                        if (Objects.equals(workmateFound.getUid(), user_uid)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    hasChosen.setValue(found);
-                    Log.i(TAG, "Check completed: Current workmate " + (found ? "has" : "has not") + " chosen the restaurant: " + restaurant.getName());
-
-                } else {
-                    Log.i(TAG, "No matching results found for user_id: " + user_uid + " and restaurant: " + restaurant.getName());
-                    hasChosen.setValue(null);
-                }
-            } else {
-                Log.e(TAG, "Error getting result : ", result.getException());
-                hasChosen.setValue(null);
-            }
-        });
-
-        task.addOnFailureListener(e -> {
-            Log.e(TAG, "Failure in task to check if current workmate chose the restaurant: " + restaurant.getName() + ". Exception: " + e.getMessage(), e);
-            hasChosen.setValue(null);
-        });
-
-        return hasChosen;
+        return database.lunchDao().observeHasChosen(toDay(), user_uid, restaurant.getId(), restaurant.getName());
     }
 
 
     /**
-     * Delete a lunch, by specifying the restaurant and the user_id
+     * Delete a lunch, by specifying the restaurant and the user_id.
+     * The lunches of the day are matched on the placeId, the name only matches the lunches saved without placeId.
      */
     public LiveData<Boolean> deleteLunch(Restaurant restaurant, String user_uid) {
 
         MutableLiveData<Boolean> isDeleted = new MutableLiveData<>();
 
-        Task<QuerySnapshot> task = getLunchCollection()
-                .whereEqualTo(RESTAURANT_CHOSEN_NAME, restaurant.getName())
+        Task<QuerySnapshot> task = FirestoreStats.track(getLunchCollection()
                 .whereEqualTo(LUNCH_WORKMATE_ID_FIELD, user_uid)
                 .whereEqualTo(LUNCH_DATE_FIELD, toDay())
-                .get();
+                .get());
 
         task.addOnCompleteListener(result -> {
             if (result.isSuccessful()) {
-                if (!result.getResult().isEmpty()) {
-                    for (QueryDocumentSnapshot document : result.getResult()) {
-
-
-                        document.getReference().delete()
+                List<QueryDocumentSnapshot> documents = new ArrayList<>();
+                for (QueryDocumentSnapshot document : result.getResult()) {
+                    if (isLunchAt(document, restaurant)) {
+                        documents.add(document);
+                    }
+                }
+                if (!documents.isEmpty()) {
+                    for (QueryDocumentSnapshot document : documents) {
+                        Lunch deletedLunch = toLunch(document);
+                        Restaurant deletedRestaurant = deletedLunch.getRestaurant() != null ? deletedLunch.getRestaurant() : restaurant;
+
+                        // The lunch and the lunch cards of the workmates at the same table, in one write
+                        FirestoreStats.track(FirebaseFirestore.getInstance().runTransaction(transaction -> {
+                                    DocumentReference table = getLunchTable(deletedLunch.getDate(), deletedRestaurant);
+                                    Map<String, String> attendees = FirestoreMapper.toAttendees(transaction.get(table).get(LUNCH_CARD_ATTENDEES_FIELD));
+                                    LunchCard lunchCard = FirestoreMapper.toLunchCard(transaction.get(getLunchCard(user_uid)).getData());
+
+                                    transaction.delete(document.getReference());
+                                    leaveLunchCard(transaction, table, user_uid, deletedLunch, lunchCard, attendees);
+                                    return null;
+                                }))
                                 .addOnSuccessListener(aVoid -> {
                                     Log.i(TAG, "Successfully deleted lunch for user_id: " + user_uid + " and restaurant: " + restaurant.getName());
+                                    AppExecutors.diskIo().execute(() -> database.lunchDao().delete(document.getId()));
                                     isDeleted.setValue(true);
                                 })
                                 .addOnFailureListener(e -> {
@@ -341,4 +370,74 @@ public class LunchRepository {
 
         return isDeleted;
     }
+
+    /**
+     * Whether a lunch document is at a restaurant, matched as in LunchDao :
+     * on the placeId, on the name for the lunches saved without placeId.
+     */
+    private boolean isLunchAt(DocumentSnapshot document, Restaurant restaurant) {
+        String restaurantId = document.getString(RESTAURANT_CHOSEN_ID);
+        if (restaurantId != null) {
+            return restaurantId.equals(restaurant.getId());
+        }
+        return Objects.equals(document.getString(RESTAURANT_CHOSEN_NAME), restaurant.getName());
+    }
+
+    /**
+     * Gets the lunch card of a workmate, as a Task for the background jobs waiting for the result.
+     * Read from the local cache when offline. Null if the workmate has no lunch today.
+     */
+    public Task<LunchCard> fetchTodayLunchCardTask(String uid) {
+        return FirestoreStats.track(getLunchCard(uid).get())
+                .continueWith(task -> {
+                    LunchCard lunchCard = FirestoreMapper.toLunchCard(task.getResult().getData());
+                    return lunchCard != null && toDay().equals(lunchCard.getDate()) ? lunchCard : null;
+                });
+    }
+
+    /**
+     * Adds a workmate to the table of their lunch, writes their lunch card with the workmates already
+     * at the table, and adds them to the cards of these workmates. Within the transaction of the lunch.
+     */
+    private void joinLunchCard(Transaction transaction, DocumentReference table, Lunch lunch, Map<String, String> attendees) {
+        Workmate workmate = lunch.getWorkmate();
+        Map<String, Object> attendee = Collections.singletonMap(workmate.getUid(), workmate.getName());
+
+        Map<String, Object> tableData = new HashMap<>();
+        tableData.put(LUNCH_DATE_FIELD, lunch.getDate());
+        tableData.put(LUNCH_CARD_ATTENDEES_FIELD, attendee);
+        transaction.set(table, tableData, SetOptions.merge());
+
+        for (String uid : attendees.keySet()) {
+            if (!uid.equals(workmate.getUid())) {
+                transaction.set(getLunchCard(uid), Collections.singletonMap(LUNCH_CARD_ATTENDEES_FIELD, attendee), SetOptions.merge());
+            }
+        }
+
+        Map<String, String> cardAttendees = new LinkedHashMap<>(attendees);
+        cardAttendees.put(workmate.getUid(), workmate.getName());
+        transaction.set(getLunchCard(workmate.getUid()), new LunchCard(lunch.getDate(), lunch.getRestaurant(), cardAttendees));
+    }
+
+    /**
+     * Removes a workmate from the table of their cancelled lunch and from the cards of the workmates still there,
+     * and deletes their lunch card if it is the one of this lunch. Within the transaction of the deletion.
+     */
+    private void leaveLunchCard(Transaction transaction, DocumentReference table, String uid, Lunch lunch,
+                                LunchCard lunchCard, Map<String, String> attendees) {
+        Map<String, Object> attendee = Collections.singletonMap(uid, FieldValue.delete());
+        transaction.set(table, Collections.singletonMap(LUNCH_CARD_ATTENDEES_FIELD, attendee), SetOptions.merge());
+
+        for (String attendeeUid : attendees.keySet()) {
+            if (!attendeeUid.equals(uid)) {
+                transaction.set(getLunchCard(attendeeUid), Collections.singletonMap(LUNCH_CARD_ATTENDEES_FIELD, attendee), SetOptions.merge());
+            }
+        }
+
+        // The card may already be the one of another restaurant chosen since
+        if (lunchCard != null && Objects.equals(lunch.getDate(), lunchCard.getDate())
+                && lunch.getRestaurant() != null && Objects.equals(lunch.getRestaurant().getId(), lunchCard.getRestaurantId())) {
+            transaction.delete(getLunchCard(uid));
+        }
+    }
 }
@@ -3,17 +3,24 @@ package com.julien.go4lunch.model.repository;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.MediatorLiveData;
 
 import com.julien.go4lunch.BuildConfig;
 import com.julien.go4lunch.model.bo.Restaurant;
 import com.julien.go4lunch.model.bo.place.ListRestaurant;
 import com.julien.go4lunch.model.bo.place.Result;
 import com.julien.go4lunch.model.bo.place.ResultDetails;
+import com.julien.go4lunch.model.db.AppDatabase;
+import com.julien.go4lunch.model.db.RestaurantEntity;
 import com.julien.go4lunch.model.service.RetrofitService;
+import com.julien.go4lunch.utils.AppExecutors;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -26,7 +33,7 @@ public class RestaurantRepository {
     private final String TAG = "RestaurantRepository";
 
     // RETROFIT Utils
-    private final String BASE_URL = "https://maps.googleapis.com/maps/api/place/";
+    private String baseUrl = BuildConfig.PLACES_BASE_URL;
     private final String API_KEY = BuildConfig.GOOGLE_MAPS_API_KEY;
     private final String RESTAURANT_DETAILS_FIELD = "place_id,name,rating,opening_hours,photo,vicinity,type,website,formatted_phone_number";
 
@@ -34,6 +41,18 @@ public class RestaurantRepository {
     private static RestaurantRepository instance = null;
     private static Retrofit retrofit = null;
 
+    // Details older than this are requested again, the stored ones are shown meanwhile
+    private static final long DETAILS_MAX_AGE_MILLIS = 60 * 60 * 1000;
+
+    // Details observed, by placeId, least recently used first (main thread only)
+    private static final int MAX_RESTAURANT_DETAILS = 50;
+    private final Map<String, LiveData<Restaurant>> restaurantDetails = new LinkedHashMap<String, LiveData<Restaurant>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LiveData<Restaurant>> eldest) {
+            return size() > MAX_RESTAURANT_DETAILS;
+        }
+    };
+
 
     // Private constructor to prevent direct instantiation
     private RestaurantRepository() {
@@ -44,17 +63,26 @@ public class RestaurantRepository {
      * Returns the unique instance of the RestaurantRepository.
      * Implements the Singleton pattern to ensure only one instance of the repository exists.
      */
-    public static RestaurantRepository getInstance() {
+    public static synchronized RestaurantRepository getInstance() {
         if (instance == null) {
             instance = new RestaurantRepository();
         }
         return instance;
     }
 
-    private RetrofitService getService() {
+    /**
+     * Points the Places calls at another server, e.g. the loadgen stand-in of the tests.
+     * @param baseUrl URL ending with the Places path, /maps/api/place/
+     */
+    public synchronized void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+        retrofit = null;
+    }
+
+    private synchronized RetrofitService getService() {
         if (retrofit == null) {
             retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
+                    .baseUrl(baseUrl)
                     .addConverterFactory(GsonConverterFactory.create())
                     .build();
         }
@@ -73,150 +101,242 @@ public class RestaurantRepository {
         return retrofitService.getRestaurantDetails(API_KEY, placeId, RESTAURANT_DETAILS_FIELD);
     }
 
+    /**
+     * Fetches the restaurants around a location.
+     * The request is only sent while the LiveData is observed, and cancelled if it stops being observed before the response.
+     */
     public LiveData<List<Restaurant>> getAllRestaurants(String location, Integer radius, String type) {
-        MutableLiveData<List<Restaurant>> restaurantsLiveData = new MutableLiveData<>();
-
-        getCallAllRestaurants(location, radius, type).enqueue(new Callback<ListRestaurant>() {
-            @Override
-            public void onResponse(Call<ListRestaurant> call, Response<ListRestaurant> response) {
-                if (response.isSuccessful()) {
-                    if (response.body() != null) {
-                        List<Result> resultList = response.body().getResults();
-                        List<Restaurant> restaurantsList = new ArrayList<>();
+        return getAllRestaurants(location, radius, type, null);
+    }
 
-                        Log.i(TAG, "Successful API call : ListRestaurant, restaurants founded : " + resultList.size());
+    /**
+     * Fetches the restaurants around a location, onError is called on the main thread if the request fails.
+     * The LiveData sends the request again when it becomes active again.
+     */
+    public LiveData<List<Restaurant>> getAllRestaurants(String location, Integer radius, String type, Runnable onError) {
+        return new CallLiveData<>(TAG, getCallAllRestaurants(location, radius, type), this::toRestaurants, onError);
+    }
 
-                        for (Result r : resultList) {
-                            Restaurant restaurant = new Restaurant();
+    private List<Restaurant> toRestaurants(ListRestaurant listRestaurant) {
+        List<Result> resultList = listRestaurant.getResults();
+        List<Restaurant> restaurantsList = new ArrayList<>();
 
-                            restaurant.setId(r.getPlaceId());
+        Log.i(TAG, "Successful API call : ListRestaurant, restaurants founded : " + resultList.size());
 
-                            restaurant.setName(r.getName());
-                            restaurant.setLocation(r.getGeometry().getLocation());
+        for (Result r : resultList) {
+            Restaurant restaurant = new Restaurant();
 
-                            if (r.getTypes() != null) {
-                                restaurant.setTypes(r.getTypes());
-                            }
+            restaurant.setId(r.getPlaceId());
 
-                            if (r.getOpeningHours() != null) {
-                                if (r.getOpeningHours().getOpenNow() != null){
-                                    restaurant.setOpened(r.getOpeningHours().getOpenNow());
-                                }
-                            }
+            restaurant.setName(r.getName());
+            if (r.getGeometry() != null) {
+                restaurant.setLocation(r.getGeometry().getLocation());
+            }
 
-                            if (r.getUserRatingsTotal() != null) {
-                                restaurant.setNumberOfReviews(r.getUserRatingsTotal());
-                            }
+            if (r.getTypes() != null) {
+                restaurant.setTypes(r.getTypes());
+            }
 
-                            if (r.getRating() != null) {
-                                restaurant.setRating(r.getRating());
-                            }
+            if (r.getOpeningHours() != null) {
+                if (r.getOpeningHours().getOpenNow() != null){
+                    restaurant.setOpened(r.getOpeningHours().getOpenNow());
+                }
+            }
 
-                            if (r.getPhotos() != null) {
-                                restaurant.setPhotos(r.getPhotos());
-                            }
+            if (r.getUserRatingsTotal() != null) {
+                restaurant.setNumberOfReviews(r.getUserRatingsTotal());
+            }
 
-                            if (r.getVicinity() != null) {
-                                restaurant.setAddress(r.getVicinity());
-                            }
+            if (r.getRating() != null) {
+                restaurant.setRating(r.getRating());
+            }
 
-                            restaurantsList.add(restaurant);
-                        }
+            if (r.getPhotos() != null) {
+                restaurant.setPhotos(r.getPhotos());
+            }
 
-                        restaurantsLiveData.setValue(restaurantsList);
-                    } else {
-                        Log.e(TAG, "ListRestaurant : API response body is null. Unable to retrieve restaurant data.");
-                    }
-                } else {
-                    Log.e(TAG, "ListRestaurant : API call was not successful. Response code: " + response.code() + ", Message: " + response.message());
-                }
+            if (r.getVicinity() != null) {
+                restaurant.setAddress(r.getVicinity());
             }
 
-            @Override
-            public void onFailure(Call<ListRestaurant> call, Throwable t) {
-                Log.i(TAG, "Failure API call : ListRestaurant, exception : " + t.getMessage());
+            restaurantsList.add(restaurant);
+        }
+
+        // Same instances as the previous searches and the details
+        List<Restaurant> restaurants = RestaurantStore.getInstance().canonical(restaurantsList);
+        saveRestaurants(restaurants, 0);
+        return restaurants;
+    }
+
+    /**
+     * Writes the restaurants to the local database, the details already stored are kept.
+     * @param detailsFetchedAt time of the details request, 0 for search results
+     */
+    private void saveRestaurants(List<Restaurant> restaurants, long detailsFetchedAt) {
+        long syncedAt = System.currentTimeMillis();
+        List<RestaurantEntity> entities = new ArrayList<>(restaurants.size());
+        for (Restaurant restaurant : restaurants) {
+            RestaurantEntity entity = RestaurantEntity.from(restaurant, syncedAt, detailsFetchedAt);
+            if (entity != null) {
+                entities.add(entity);
             }
-        });
+        }
+        AppExecutors.diskIo().execute(() -> getDatabase().restaurantDao().upsert(entities));
+    }
 
-        return restaurantsLiveData;
+    /**
+     * Local database, source of truth of the details. Opened on first use : the Places calls do not need it.
+     */
+    private AppDatabase getDatabase() {
+        return AppDatabase.getInstance();
     }
 
+    /**
+     * Gets the details of a restaurant, shared by every screen, from the local database :
+     * a restaurant prefetched by the list or already opened is not requested again.
+     * Details missing or older than {@link #DETAILS_MAX_AGE_MILLIS} are requested, and written to the database.
+     * Null is emitted if the request fails with no details stored, the next call sends it again.
+     */
     public LiveData<Restaurant> getRestaurantDetail(String placeId) {
-        MutableLiveData<Restaurant> restaurant = new MutableLiveData<>();
+        LiveData<Restaurant> detail = restaurantDetails.get(placeId);
+        if (detail == null) {
+            detail = observeRestaurantDetail(placeId);
+            restaurantDetails.put(placeId, detail);
+        }
+        return detail;
+    }
+
+    private LiveData<Restaurant> observeRestaurantDetail(String placeId) {
+        MediatorLiveData<Restaurant> restaurant = new MediatorLiveData<>();
+        restaurant.addSource(getDatabase().restaurantDao().observe(placeId), entity -> {
+            // A search result without details is not shown as the details.
+            // The row may be an hour old : it does not overwrite the fields of the live search
+            if (entity != null && entity.hasDetails()) {
+                restaurant.setValue(RestaurantStore.getInstance().fill(entity.toRestaurant()));
+            }
+        });
+
+        AppExecutors.diskIo().execute(() -> {
+            RestaurantEntity entity = getDatabase().restaurantDao().get(placeId);
+            if (entity == null || !entity.hasDetails() || System.currentTimeMillis() - entity.detailsFetchedAt > DETAILS_MAX_AGE_MILLIS) {
+                fetchRestaurantDetail(placeId, restaurant);
+            }
+        });
+
+        return restaurant;
+    }
 
+    private void fetchRestaurantDetail(String placeId, MediatorLiveData<Restaurant> restaurant) {
         Call<ResultDetails> call = getCallRestaurantDetails(placeId);
 
         call.enqueue(new Callback<ResultDetails>() {
             @Override
             public void onResponse(Call<ResultDetails> call, Response<ResultDetails> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    if (response.body() != null) {
-                        Result result = response.body().getResult();
+                if (response.isSuccessful() && response.body() != null && response.body().getResult() != null) {
+                    Result result = response.body().getResult();
 
-                        Log.i("DEBUG", "Restaurant detail : " + result);
+                    Log.i("DEBUG", "Restaurant detail : " + result);
 
-                        Restaurant newRestaurant = new Restaurant();
+                    saveRestaurants(Collections.singletonList(RestaurantStore.getInstance().canonical(toRestaurant(result))), System.currentTimeMillis());
+                } else {
+                    Log.e(TAG, "Restaurant detail : API call was not successful. Response code: " + response.code() + ", Message: " + response.message());
+                    onRestaurantDetailFailed(placeId, restaurant);
+                }
+            }
 
-                        if (result.getPlaceId() != null) {
-                            newRestaurant.setId(result.getPlaceId());
-                        }
+            @Override
+            public void onFailure(Call<ResultDetails> call, Throwable t) {
+                Log.i(TAG, "Failure API call : ResultDetails, exception : " + t.getMessage());
+                onRestaurantDetailFailed(placeId, restaurant);
+            }
+        });
+    }
 
-                        if (result.getWebsite() != null) {
-                            newRestaurant.setWebsite(result.getWebsite());
-                        }
+    /**
+     * Forgets a failed request, so that the next call sends it again.
+     * The observers still waiting for the details, with none stored, receive null.
+     */
+    private void onRestaurantDetailFailed(String placeId, MediatorLiveData<Restaurant> restaurant) {
+        restaurantDetails.remove(placeId);
+        if (restaurant.getValue() == null) {
+            restaurant.setValue(null);
+        }
+    }
 
-                        if (result.getFormattedPhoneNumber() != null) {
-                            newRestaurant.setformattedPhoneNumber(result.getFormattedPhoneNumber());
-                        }
+    private Restaurant toRestaurant(Result result) {
+        Restaurant restaurant = new Restaurant();
 
-                        if (result.getName() != null) {
-                            newRestaurant.setName(result.getName());
-                        }
+        if (result.getPlaceId() != null) {
+            restaurant.setId(result.getPlaceId());
+        }
 
-                        if (result.getVicinity() != null) {
-                            newRestaurant.setAddress(result.getVicinity());
-                        }
+        if (result.getWebsite() != null) {
+            restaurant.setWebsite(result.getWebsite());
+        }
 
-                        if (result.getOpeningHours() != null && result.getOpeningHours().getOpenNow() != null) {
-                            newRestaurant.setOpened(result.getOpeningHours().getOpenNow());
-                        }
+        if (result.getFormattedPhoneNumber() != null) {
+            restaurant.setformattedPhoneNumber(result.getFormattedPhoneNumber());
+        }
 
-                        if (result.getGeometry() != null && result.getGeometry().getLocation() != null) {
-                            newRestaurant.setLocation(result.getGeometry().getLocation());
-                        }
+        if (result.getName() != null) {
+            restaurant.setName(result.getName());
+        }
 
-                        if (result.getTypes() != null) {
-                            newRestaurant.setTypes(result.getTypes());
-                        }
+        if (result.getVicinity() != null) {
+            restaurant.setAddress(result.getVicinity());
+        }
 
-                        if (result.getUserRatingsTotal() != null) {
-                            newRestaurant.setNumberOfReviews(result.getUserRatingsTotal());
-                        }
+        if (result.getOpeningHours() != null && result.getOpeningHours().getOpenNow() != null) {
+            restaurant.setOpened(result.getOpeningHours().getOpenNow());
+        }
 
-                        if (result.getRating() != null) {
-                            newRestaurant.setRating(result.getRating());
-                        }
+        if (result.getGeometry() != null && result.getGeometry().getLocation() != null) {
+            restaurant.setLocation(result.getGeometry().getLocation());
+        }
 
-                        if (result.getPhotos() != null) {
-                            newRestaurant.setPhotos(result.getPhotos());
-                        }
+        if (result.getTypes() != null) {
+            restaurant.setTypes(result.getTypes());
+        }
 
-                        restaurant.setValue(newRestaurant);
+        if (result.getUserRatingsTotal() != null) {
+            restaurant.setNumberOfReviews(result.getUserRatingsTotal());
+        }
 
-                    } else {
-                        Log.e(TAG, "Restaurant detail : API response body is null. Unable to retrieve restaurant data.");
-                    }
-                } else {
-                    Log.e(TAG, "Restaurant detail : API call was not successful. Response code: " + response.code() + ", Message: " + response.message());
-                }
-            }
+        if (result.getRating() != null) {
+            restaurant.setRating(result.getRating());
+        }
 
-            @Override
-            public void onFailure(Call<ResultDetails> call, Throwable t) {
-                Log.i(TAG, "Failure API call : ResultDetails, exception : " + t.getMessage());
-            }
-        });
+        if (result.getPhotos() != null) {
+            restaurant.setPhotos(result.getPhotos());
+        }
 
         return restaurant;
     }
+
+    /**
+     * Fetches the restaurants around a location on the calling thread, for the background jobs.
+     * @throws IOException if the request fails or is not successful
+     */
+    public List<Restaurant> fetchRestaurantsNow(String location, Integer radius, String type) throws IOException {
+        Response<ListRestaurant> response = getCallAllRestaurants(location, radius, type).execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("ListRestaurant, response code : " + response.code());
+        }
+        return toRestaurants(response.body());
+    }
+
+    /**
+     * Fetches the details of a restaurant on the calling thread, for the background jobs.
+     * The details are written to the local database, read by {@link #getRestaurantDetail(String)}.
+     * @throws IOException if the request fails or is not successful
+     */
+    public Restaurant fetchRestaurantDetailNow(String placeId) throws IOException {
+        Response<ResultDetails> response = getCallRestaurantDetails(placeId).execute();
+        if (!response.isSuccessful() || response.body() == null || response.body().getResult() == null) {
+            throw new IOException("ResultDetails, response code : " + response.code());
+        }
+        Restaurant restaurant = RestaurantStore.getInstance().canonical(toRestaurant(response.body().getResult()));
+        saveRestaurants(Collections.singletonList(restaurant), System.currentTimeMillis());
+        return restaurant;
+    }
 }
@@ -0,0 +1,169 @@
+package com.julien.go4lunch.model.repository;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.RestaurantAndWorkmates;
+import com.julien.go4lunch.model.bo.place.Location;
+import com.julien.go4lunch.model.bo.place.Photo;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Last rendered nearby restaurants and the position they were searched around.
+ *
+ * The binary format only keeps what the list rows and the map markers need :
+ * a version, the position, then for each restaurant its id, name, address, location, opening,
+ * rating, reviews, types, first photo and the number of workmates having lunch there.
+ */
+public class RestaurantSnapshot {
+
+    private static final int MAGIC = 0x47344c53; // "G4LS"
+    private static final int VERSION = 1;
+
+    private final double latitude;
+    private final double longitude;
+    private final long savedAt;
+    private final List<RestaurantAndWorkmates> restaurants;
+
+    public RestaurantSnapshot(double latitude, double longitude, long savedAt, List<RestaurantAndWorkmates> restaurants) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.savedAt = savedAt;
+        this.restaurants = restaurants;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Gets the time the snapshot was saved, in milliseconds since the epoch.
+     */
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    public List<RestaurantAndWorkmates> getRestaurants() {
+        return restaurants;
+    }
+
+    /**
+     * Writes the snapshot, the stream is not closed.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeDouble(latitude);
+        out.writeDouble(longitude);
+        out.writeLong(savedAt);
+        out.writeInt(restaurants.size());
+
+        for (RestaurantAndWorkmates item : restaurants) {
+            Restaurant restaurant = item.getRestaurant();
+            writeString(out, restaurant.getId());
+            writeString(out, restaurant.getName());
+            writeString(out, restaurant.getAddress());
+
+            Location location = restaurant.getLocation();
+            out.writeDouble(location != null && location.getLat() != null ? location.getLat() : Double.NaN);
+            out.writeDouble(location != null && location.getLng() != null ? location.getLng() : Double.NaN);
+
+            // -1 unknown, 0 closed, 1 opened
+            Boolean opened = restaurant.getOpened();
+            out.writeByte(opened == null ? -1 : opened ? 1 : 0);
+            out.writeDouble(restaurant.getRating() != null ? restaurant.getRating() : Double.NaN);
+            out.writeInt(restaurant.getNumberOfReviews());
+
+            List<String> types = restaurant.getTypes() != null ? restaurant.getTypes() : Collections.emptyList();
+            out.writeShort(types.size());
+            for (String type : types) {
+                writeString(out, type);
+            }
+
+            List<Photo> photos = restaurant.getPhotos();
+            writeString(out, photos != null && !photos.isEmpty() ? photos.get(0).getPhotoReference() : null);
+
+            out.writeLong(item.getWorkmatesAtRestaurant() != null ? item.getWorkmatesAtRestaurant() : 0);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo(OutputStream)}, the stream is not closed.
+     * @throws IOException if the stream is not a snapshot of the current version
+     */
+    public static RestaurantSnapshot readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a restaurant snapshot, or an outdated one");
+        }
+        double latitude = in.readDouble();
+        double longitude = in.readDouble();
+        long savedAt = in.readLong();
+        int size = in.readInt();
+
+        List<RestaurantAndWorkmates> restaurants = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Restaurant restaurant = new Restaurant();
+            restaurant.setId(readString(in));
+            restaurant.setName(readString(in));
+            restaurant.setAddress(readString(in));
+
+            double lat = in.readDouble();
+            double lng = in.readDouble();
+            if (!Double.isNaN(lat) && !Double.isNaN(lng)) {
+                restaurant.setLocation(new Location(lat, lng));
+            }
+
+            byte opened = in.readByte();
+            if (opened >= 0) {
+                restaurant.setOpened(opened == 1);
+            }
+            double rating = in.readDouble();
+            if (!Double.isNaN(rating)) {
+                restaurant.setRating(rating);
+            }
+            restaurant.setNumberOfReviews(in.readInt());
+
+            int typeCount = in.readShort();
+            List<String> types = new ArrayList<>(typeCount);
+            for (int t = 0; t < typeCount; t++) {
+                types.add(readString(in));
+            }
+            restaurant.setTypes(types);
+
+            String photoReference = readString(in);
+            if (photoReference != null) {
+                Photo photo = new Photo();
+                photo.setPhotoReference(photoReference);
+                restaurant.setPhotos(Collections.singletonList(photo));
+            }
+
+            restaurants.add(new RestaurantAndWorkmates(in.readLong(), restaurant));
+        }
+
+        return new RestaurantSnapshot(latitude, longitude, savedAt, restaurants);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
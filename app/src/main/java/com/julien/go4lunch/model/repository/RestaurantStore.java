@@ -0,0 +1,122 @@
+package com.julien.go4lunch.model.repository;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canonical store of the restaurants already loaded, one instance per placeId.
+ *
+ * Nearby searches, place details and lunches all return their own record of a same place :
+ * they are merged with the canonical instance, and the merged record is returned instead.
+ * Screens are opened with a placeId and resolve the restaurant here, instead of passing it in the intent.
+ *
+ * A stored instance is never modified : a merge stores a new instance, swapped under the store lock,
+ * so the instances read by the ranker, the disk snapshot and the UI do not change under them.
+ */
+public class RestaurantStore {
+
+    private static final int MAX_SIZE = 200;
+
+    // SINGLETON
+    private static RestaurantStore instance;
+
+    // Least recently used first, filled from the main thread and the mapping executor
+    private final Map<String, Restaurant> restaurants = new LinkedHashMap<String, Restaurant>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Restaurant> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    // Private constructor to prevent direct instantiation
+    private RestaurantStore() {
+        // Keep Empty
+    }
+
+    /**
+     * Returns the unique instance of the RestaurantStore.
+     */
+    public static synchronized RestaurantStore getInstance() {
+        if (instance == null) {
+            instance = new RestaurantStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the restaurant of a placeId, null if it is not loaded (or not anymore, after a process death).
+     */
+    public synchronized Restaurant get(String placeId) {
+        return placeId != null ? restaurants.get(placeId) : null;
+    }
+
+    /**
+     * Returns the canonical instance of a restaurant, with the known fields of the given fresh record
+     * over the fields already known. Restaurants without placeId are returned as is.
+     */
+    public synchronized Restaurant canonical(Restaurant restaurant) {
+        if (restaurant == null || restaurant.getId() == null) {
+            return restaurant;
+        }
+        Restaurant canonical = restaurants.get(restaurant.getId());
+        Restaurant merged = canonical != null ? canonical.mergedWith(restaurant) : restaurant;
+        restaurants.put(restaurant.getId(), merged);
+        return merged;
+    }
+
+    /**
+     * Returns the canonical instance of a restaurant, only the fields it does not know yet are taken
+     * from the given record. Used for the records that may be older than the canonical one,
+     * such as the details read from the local database : they never overwrite the live search fields.
+     */
+    public synchronized Restaurant fill(Restaurant restaurant) {
+        if (restaurant == null || restaurant.getId() == null) {
+            return restaurant;
+        }
+        Restaurant canonical = restaurants.get(restaurant.getId());
+        Restaurant merged = canonical != null ? restaurant.mergedWith(canonical) : restaurant;
+        restaurants.put(restaurant.getId(), merged);
+        return merged;
+    }
+
+    /**
+     * Returns the canonical instance of a restaurant, without merging the given record.
+     * Used for the records that may be out of date, such as the restaurant saved with a lunch document.
+     */
+    public synchronized Restaurant intern(Restaurant restaurant) {
+        if (restaurant == null || restaurant.getId() == null) {
+            return restaurant;
+        }
+        Restaurant canonical = restaurants.get(restaurant.getId());
+        if (canonical == null) {
+            restaurants.put(restaurant.getId(), restaurant);
+            return restaurant;
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the canonical instance of a restaurant if it is loaded, else the given record, which is not stored.
+     * Used for the partial records, such as the lunch rows of the local database : they never become
+     * the canonical instance, the details screen and the list resolve complete restaurants only.
+     */
+    public synchronized Restaurant resolve(Restaurant restaurant) {
+        if (restaurant == null || restaurant.getId() == null) {
+            return restaurant;
+        }
+        Restaurant canonical = restaurants.get(restaurant.getId());
+        return canonical != null ? canonical : restaurant;
+    }
+
+    public synchronized List<Restaurant> canonical(List<Restaurant> restaurantList) {
+        List<Restaurant> canonicalList = new ArrayList<>(restaurantList.size());
+        for (Restaurant restaurant : restaurantList) {
+            canonicalList.add(canonical(restaurant));
+        }
+        return canonicalList;
+    }
+}
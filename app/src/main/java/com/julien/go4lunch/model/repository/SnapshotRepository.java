@@ -0,0 +1,95 @@
+package com.julien.go4lunch.model.repository;
+
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.julien.go4lunch.MainApplication;
+import com.julien.go4lunch.utils.AppExecutors;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Keeps the last rendered nearby restaurants on disk, so that a cold start can render them
+ * before Places and Firestore answer.
+ */
+public class SnapshotRepository {
+
+    private static final String TAG = "SnapshotRepository";
+    private static final String FILE_NAME = "restaurants.snapshot";
+
+    // SINGLETON
+    private static SnapshotRepository instance;
+
+    // Written atomically : a killed app leaves the previous snapshot, never a partial one
+    private final AtomicFile file;
+
+    // Private constructor to prevent direct instantiation
+    private SnapshotRepository(File file) {
+        this.file = new AtomicFile(file);
+    }
+
+    /**
+     * Returns the unique instance of the SnapshotRepository.
+     */
+    public static synchronized SnapshotRepository getInstance() {
+        if (instance == null) {
+            instance = new SnapshotRepository(new File(MainApplication.getApplication().getFilesDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    /**
+     * Reads the last snapshot on the disk executor.
+     * The LiveData receives null if there is no snapshot or if it can't be read.
+     */
+    public LiveData<RestaurantSnapshot> read() {
+        MutableLiveData<RestaurantSnapshot> snapshot = new MutableLiveData<>();
+
+        AppExecutors.diskIo().execute(() -> {
+            try (InputStream in = new BufferedInputStream(file.openRead())) {
+                RestaurantSnapshot result = RestaurantSnapshot.readFrom(in);
+                Log.i(TAG, "Snapshot read, restaurants : " + result.getRestaurants().size());
+                snapshot.postValue(result);
+            } catch (FileNotFoundException e) {
+                snapshot.postValue(null);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Snapshot can't be read : " + e.getMessage());
+                file.delete();
+                snapshot.postValue(null);
+            }
+        });
+
+        return snapshot;
+    }
+
+    /**
+     * Replaces the snapshot on the disk executor.
+     */
+    public void write(RestaurantSnapshot snapshot) {
+        AppExecutors.diskIo().execute(() -> {
+            FileOutputStream out = null;
+            try {
+                out = file.startWrite();
+                BufferedOutputStream buffered = new BufferedOutputStream(out);
+                snapshot.writeTo(buffered);
+                buffered.flush();
+                file.finishWrite(out);
+            } catch (IOException e) {
+                Log.e(TAG, "Snapshot can't be written : " + e.getMessage());
+                if (out != null) {
+                    file.failWrite(out);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.julien.go4lunch.model.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.julien.go4lunch.MainApplication;
+
+/**
+ * Persists the last position the restaurants were searched around, so that the next launch
+ * can start the restaurant pipeline immediately instead of waiting for a fresh GPS fix.
+ */
+public class ViewportRepository {
+
+    private static final String PREFERENCES_NAME = "viewport";
+    private static final String LATITUDE_KEY = "latitude";
+    private static final String LONGITUDE_KEY = "longitude";
+
+    // SINGLETON
+    private static ViewportRepository instance;
+
+    private final SharedPreferences preferences;
+
+    // Private constructor to prevent direct instantiation
+    private ViewportRepository(SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    /**
+     * Returns the unique instance of the ViewportRepository.
+     */
+    public static synchronized ViewportRepository getInstance() {
+        if (instance == null) {
+            instance = new ViewportRepository(
+                    MainApplication.getApplication().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE)
+            );
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the last saved viewport center, null if none was saved yet.
+     */
+    public LatLng getLastViewport() {
+        if (!preferences.contains(LATITUDE_KEY) || !preferences.contains(LONGITUDE_KEY)) {
+            return null;
+        }
+        return new LatLng(
+                Double.longBitsToDouble(preferences.getLong(LATITUDE_KEY, 0)),
+                Double.longBitsToDouble(preferences.getLong(LONGITUDE_KEY, 0))
+        );
+    }
+
+    /**
+     * Saves the viewport center, written asynchronously.
+     */
+    public void saveViewport(LatLng position) {
+        preferences.edit()
+                .putLong(LATITUDE_KEY, Double.doubleToRawLongBits(position.latitude))
+                .putLong(LONGITUDE_KEY, Double.doubleToRawLongBits(position.longitude))
+                .apply();
+    }
+}
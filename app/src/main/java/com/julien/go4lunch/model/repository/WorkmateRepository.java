@@ -6,17 +6,34 @@ import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 import com.julien.go4lunch.model.bo.Restaurant;
 import com.julien.go4lunch.model.bo.Workmate;
-
+import com.julien.go4lunch.model.db.AppDatabase;
+import com.julien.go4lunch.model.db.LikeEntity;
+import com.julien.go4lunch.model.db.SyncStateEntity;
+import com.julien.go4lunch.model.db.WorkmateEntity;
+import com.julien.go4lunch.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class WorkmateRepository {
     // TAG for logs
@@ -27,7 +44,15 @@ public class WorkmateRepository {
     public final String USER_ID_FIELD = "uid";
     public final String LIKED_SUB_COLLECTION = "likedRestaurant";
     public final String LIKED_RESTAURANT_NAME = "name";
+    public final String LIKED_RESTAURANT_ID = "id";
     public final String IS_NOTIFICATION_ENABLED_FIELD = "notificationEnabled";
+    public final String UPDATED_AT_FIELD = "updatedAt";
+
+    // LOCAL DATABASE, source of truth of the screens
+    private static final String WORKMATES_SYNC = "workmates";
+    private static final String LIKES_SYNC = "likes:";
+    private static final long LIKES_MAX_AGE_MILLIS = 60 * 60 * 1000;
+    private final AppDatabase database;
 
     // CURRENT USER ID
     private String currentWorkmateDocumentId = null;
@@ -38,14 +63,27 @@ public class WorkmateRepository {
 
     // Private constructor to prevent direct instantiation
     private WorkmateRepository() {
-        getOrCreateWorkmate();
+        database = AppDatabase.getInstance();
     }
 
     /**
      * Returns the unique instance of the WorkmateRepository.
      * Implements the Singleton pattern to ensure only one instance of the repository exists.
+     * The current workmate is looked up, and created in Firestore if missing, on the first call.
      */
-    public static WorkmateRepository getInstance() {
+    public static synchronized WorkmateRepository getInstance() {
+        WorkmateRepository repository = getBackgroundInstance();
+        if (repository.fireBaseUserUid == null) {
+            repository.getOrCreateWorkmate();
+        }
+        return repository;
+    }
+
+    /**
+     * Returns the same instance for the background jobs, without looking up nor creating the current workmate :
+     * only the methods that don't need it can be called.
+     */
+    public static synchronized WorkmateRepository getBackgroundInstance() {
         if (instance == null) {
             instance = new WorkmateRepository();
         }
@@ -70,9 +108,9 @@ public class WorkmateRepository {
         FirebaseUser user = getFirebaseUserAsWorkmate();
         fireBaseUserUid = user.getUid();
 
-        getWorkmateCollection()
+        FirestoreStats.track(getWorkmateCollection()
                 .whereEqualTo(USER_ID_FIELD, fireBaseUserUid)
-                .get()
+                .get())
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && !task.getResult().isEmpty()) {
                         currentWorkmateDocumentId = task.getResult()
@@ -134,9 +172,15 @@ public class WorkmateRepository {
 
         Workmate workmate = new Workmate(uid, name, email, urlPicture, false);
 
-        getWorkmateCollection().add(workmate)
+        // The workmate and its updatedAt in one write
+        DocumentReference workmateDocument = getWorkmateCollection().document();
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        batch.set(workmateDocument, workmate);
+        batch.update(workmateDocument, UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+
+        FirestoreStats.track(batch.commit())
                 .addOnSuccessListener(result -> {
-                    currentWorkmateDocumentId = result.getId();
+                    currentWorkmateDocumentId = workmateDocument.getId();
                     Log.i(TAG, "Workmate successfully added to FireStore, current workmate id : " + currentWorkmateDocumentId);
                 })
                 .addOnFailureListener(e -> {
@@ -152,8 +196,12 @@ public class WorkmateRepository {
     public void createOrUpdateWorkmate(Boolean isNotificationActive) {
         if (currentWorkmateDocumentId != null) {
             Log.i(TAG, "Update Workmate, is notification active : " + isNotificationActive);
-            getWorkmateCollection().document(currentWorkmateDocumentId)
-                    .update(IS_NOTIFICATION_ENABLED_FIELD, isNotificationActive)
+            String uid = fireBaseUserUid;
+            boolean notificationEnabled = Boolean.TRUE.equals(isNotificationActive);
+            AppExecutors.diskIo().execute(() -> database.workmateDao().updateNotificationEnabled(uid, notificationEnabled));
+
+            FirestoreStats.track(getWorkmateCollection().document(currentWorkmateDocumentId)
+                    .update(IS_NOTIFICATION_ENABLED_FIELD, isNotificationActive, UPDATED_AT_FIELD, FieldValue.serverTimestamp()))
                     .addOnSuccessListener(aVoid -> Log.i(TAG, "Workmate updated successfully"))
                     .addOnFailureListener(e -> Log.e(TAG, "Error updating workmate: " + e));
         } else {
@@ -168,9 +216,9 @@ public class WorkmateRepository {
     public LiveData<Boolean> getIsNotificationEnabled() {
         MutableLiveData<Boolean> isActive = new MutableLiveData<>();
 
-        getWorkmateCollection()
+        FirestoreStats.track(getWorkmateCollection()
                 .whereEqualTo(USER_ID_FIELD, fireBaseUserUid)
-                .get()
+                .get())
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && !task.getResult().isEmpty()) {
 
@@ -197,39 +245,173 @@ public class WorkmateRepository {
 
 
     /**
-     * Retrieves all workmates.
+     * Retrieves the notification activation status for the current workmate,
+     * as a Task for the background jobs waiting for the result. The Task fails if the query fails.
      */
-    public LiveData<List<Workmate>> getAllWorkmates() {
-        MutableLiveData<List<Workmate>> workmates = new MutableLiveData<>();
+    public Task<Boolean> fetchIsNotificationEnabledTask() {
+        return FirestoreStats.track(getWorkmateCollection()
+                .whereEqualTo(USER_ID_FIELD, fireBaseUserUid)
+                .get())
+                .continueWith(task -> {
+                    QuerySnapshot result = task.getResult();
+                    return !result.isEmpty()
+                            && Boolean.TRUE.equals(result.getDocuments().get(0).getBoolean(IS_NOTIFICATION_ENABLED_FIELD));
+                });
+    }
 
-        getWorkmateCollection()
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        List<Workmate> results = task.getResult().toObjects(Workmate.class);
-                        workmates.setValue(results);
-                    } else {
-                        Log.e(TAG, "Error getting workmates: ", task.getException());
-                        workmates.setValue(null);
+    /**
+     * Retrieves the notification activation status of a workmate from the local database, as a Task for the
+     * background jobs. Firestore is only queried if the workmate has not been synced yet.
+     */
+    public Task<Boolean> fetchLocalIsNotificationEnabledTask(String uid) {
+        return Tasks.call(AppExecutors.diskIo(), () -> database.workmateDao().getByUid(uid))
+                .continueWithTask(task -> {
+                    WorkmateEntity workmate = task.getResult();
+                    if (workmate != null) {
+                        return Tasks.forResult(workmate.notificationEnabled);
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failure in retrieving workmates. Exception: " + e.getMessage(), e);
-                    workmates.setValue(null);
+                    return FirestoreStats.track(getWorkmateCollection()
+                            .whereEqualTo(USER_ID_FIELD, uid)
+                            .get())
+                            .continueWith(query -> {
+                                QuerySnapshot result = query.getResult();
+                                return !result.isEmpty()
+                                        && Boolean.TRUE.equals(result.getDocuments().get(0).getBoolean(IS_NOTIFICATION_ENABLED_FIELD));
+                            });
                 });
+    }
 
+    /**
+     * Retrieves all workmates, as a Task for the background jobs waiting for the result.
+     * Only the workmates updated since the last sync are read, the Task fails if the query fails.
+     */
+    public Task<List<Workmate>> fetchAllWorkmatesTask() {
+        return syncWorkmates()
+                .continueWith(AppExecutors.diskIo(), task -> {
+                    task.getResult(); // fails as the sync failed
+                    return toWorkmates(database.workmateDao().getAll());
+                });
+    }
+
+    /**
+     * Retrieves all workmates, from the local database.
+     * Only the workmates updated since the last sync are read by this call.
+     */
+    public LiveData<List<Workmate>> getAllWorkmates() {
+        syncWorkmates().addOnFailureListener(e -> Log.e(TAG, "Failure in syncing workmates. Exception: " + e.getMessage(), e));
+
+        return Transformations.map(database.workmateDao().observeAll(), this::toWorkmates);
+    }
+
+    private List<Workmate> toWorkmates(List<WorkmateEntity> entities) {
+        List<Workmate> workmates = new ArrayList<>(entities.size());
+        for (WorkmateEntity entity : entities) {
+            workmates.add(entity.toWorkmate());
+        }
         return workmates;
     }
 
+    /**
+     * Reads the workmates updated after the watermark of the last sync, every workmate on the first sync,
+     * and writes them to the local database. Reads cost what changed, not the headcount.
+     * Workmates written before updatedAt existed are only read by the first sync.
+     */
+    private Task<Void> syncWorkmates() {
+        return Tasks.call(AppExecutors.diskIo(), () -> database.syncStateDao().get(WORKMATES_SYNC))
+                .continueWithTask(task -> {
+                    SyncStateEntity syncState = task.getResult();
+                    Query query = syncState != null && syncState.hasWatermark()
+                            ? getWorkmateCollection().whereGreaterThan(UPDATED_AT_FIELD, new Timestamp(syncState.watermarkSeconds, syncState.watermarkNanos))
+                            : getWorkmateCollection();
+                    return FirestoreStats.track(query.get());
+                })
+                .continueWith(AppExecutors.diskIo(), task -> {
+                    QuerySnapshot result = task.getResult();
+                    SyncStateEntity syncState = database.syncStateDao().get(WORKMATES_SYNC);
+                    if (syncState == null) {
+                        syncState = new SyncStateEntity(WORKMATES_SYNC);
+                    }
+
+                    List<WorkmateEntity> entities = new ArrayList<>(result.size());
+                    for (QueryDocumentSnapshot document : result) {
+                        entities.add(WorkmateEntity.from(document.getId(), FirestoreMapper.toWorkmate(document.getData())));
+
+                        // null while the server timestamp of a local write is pending
+                        Timestamp updatedAt = document.getTimestamp(UPDATED_AT_FIELD);
+                        if (updatedAt != null) {
+                            syncState.advanceWatermark(updatedAt.getSeconds(), updatedAt.getNanoseconds());
+                        }
+                    }
+                    syncState.syncedAt = System.currentTimeMillis();
+
+                    SyncStateEntity newSyncState = syncState;
+                    database.runInTransaction(() -> {
+                        database.workmateDao().upsert(entities);
+                        database.syncStateDao().save(newSyncState);
+                    });
+                    Log.i(TAG, "Workmates synced, changed : " + entities.size());
+                    return null;
+                });
+    }
+
+    /**
+     * Reads the likes of the current workmate and replaces them in the local database,
+     * if the last sync is older than {@link #LIKES_MAX_AGE_MILLIS}. Likes only change from this device.
+     */
+    private void syncLikesIfStale() {
+        String uid = fireBaseUserUid;
+        String workmateDocumentId = currentWorkmateDocumentId;
+        if (workmateDocumentId == null) {
+            Log.i(TAG, "Current workmate document id not found yet, likes not synced");
+            return;
+        }
+
+        Tasks.call(AppExecutors.diskIo(), () -> database.syncStateDao().get(LIKES_SYNC + uid))
+                .continueWithTask(task -> {
+                    SyncStateEntity syncState = task.getResult();
+                    if (syncState != null && System.currentTimeMillis() - syncState.syncedAt < LIKES_MAX_AGE_MILLIS) {
+                        return Tasks.forResult((QuerySnapshot) null);
+                    }
+                    return FirestoreStats.track(getWorkmateCollection().document(workmateDocumentId).collection(LIKED_SUB_COLLECTION).get());
+                })
+                .addOnCompleteListener(AppExecutors.diskIo(), task -> {
+                    if (!task.isSuccessful()) {
+                        Log.e(TAG, "Error syncing liked restaurants for user: " + workmateDocumentId, task.getException());
+                        return;
+                    }
+                    if (task.getResult() == null) {
+                        return;
+                    }
+
+                    List<LikeEntity> likes = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : task.getResult()) {
+                        String name = document.getString(LIKED_RESTAURANT_NAME);
+                        if (name != null) {
+                            likes.add(new LikeEntity(uid, name, document.getString(LIKED_RESTAURANT_ID)));
+                        }
+                    }
+                    SyncStateEntity syncState = new SyncStateEntity(LIKES_SYNC + uid);
+                    syncState.syncedAt = System.currentTimeMillis();
+
+                    database.runInTransaction(() -> {
+                        database.likeDao().replaceAll(uid, likes);
+                        database.syncStateDao().save(syncState);
+                    });
+                    Log.i(TAG, "Workmate " + workmateDocumentId + " likes " + likes.size() + " restaurant(s)");
+                });
+    }
+
     /**
      * Adds a like for a specific restaurant by the current workmate.
      */
     public void addLikeRestaurant(Restaurant restaurant) {
+        LikeEntity like = new LikeEntity(fireBaseUserUid, restaurant.getName(), restaurant.getId());
+        AppExecutors.diskIo().execute(() -> database.likeDao().insert(like));
 
-        getWorkmateCollection()
+        FirestoreStats.track(getWorkmateCollection()
                 .document(currentWorkmateDocumentId)
                 .collection(LIKED_SUB_COLLECTION)
-                .add(restaurant)
+                .add(restaurant))
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         Log.i(TAG, "Successfully added restaurant: " + restaurant.getName() + " to likes for user: " + currentWorkmateDocumentId);
@@ -245,18 +427,30 @@ public class WorkmateRepository {
 
     /**
      * Deletes the like for a specific restaurant by the current workmate.
+     * Likes are matched on the placeId, the name only matches the likes saved without placeId.
      */
     public void deleteLikeRestaurant(Restaurant restaurant) {
-        getWorkmateCollection()
+        String uid = fireBaseUserUid;
+        AppExecutors.diskIo().execute(() -> database.likeDao().delete(uid, restaurant.getId(), restaurant.getName()));
+
+        // Read by name, a like saved without placeId has no id to be found by
+        FirestoreStats.track(getWorkmateCollection()
                 .document(currentWorkmateDocumentId)
                 .collection(LIKED_SUB_COLLECTION)
                 .whereEqualTo(LIKED_RESTAURANT_NAME, restaurant.getName())
-                .get()
+                .get())
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
-                        if (!task.getResult().isEmpty()) {
-                            for (QueryDocumentSnapshot document : task.getResult()) {
-                                document.getReference().delete()
+                        List<QueryDocumentSnapshot> likes = new ArrayList<>();
+                        for (QueryDocumentSnapshot document : task.getResult()) {
+                            String placeId = document.getString(LIKED_RESTAURANT_ID);
+                            if (placeId == null || placeId.equals(restaurant.getId())) {
+                                likes.add(document);
+                            }
+                        }
+                        if (!likes.isEmpty()) {
+                            for (QueryDocumentSnapshot document : likes) {
+                                FirestoreStats.track(document.getReference().delete())
                                         .addOnSuccessListener(aVoid ->
                                                 Log.i(TAG, "Successfully deleted restaurant: " + restaurant.getName() + " for user: " + currentWorkmateDocumentId))
                                         .addOnFailureListener(e ->
@@ -275,51 +469,20 @@ public class WorkmateRepository {
     }
 
     /**
-     * Checks if the current workmate has liked the given restaurant.
+     * Checks if the current workmate has liked the given restaurant, from the local database.
      */
     public LiveData<Boolean> checkIfCurrentWorkmateLikeThisRestaurant(Restaurant restaurant) {
-        MutableLiveData<Boolean> isLiked = new MutableLiveData<>();
-
-        getWorkmateCollection()
-                .document(currentWorkmateDocumentId)
-                .collection(LIKED_SUB_COLLECTION)
-                .whereEqualTo(LIKED_RESTAURANT_NAME, restaurant.getName())
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        boolean isLikedResult = task.getResult().size() > 0;
-                        isLiked.postValue(isLikedResult);
-
-                        if (isLikedResult) {
-                            Log.i(TAG, "Workmate " + currentWorkmateDocumentId + " likes the restaurant: " + restaurant.getName());
-                        } else {
-                            Log.i(TAG, "Workmate " + currentWorkmateDocumentId + " has not liked the restaurant: " + restaurant.getName());
-                        }
-                    } else {
-                        isLiked.postValue(null);
-                        Log.e(TAG, "Error checking if workmate " + currentWorkmateDocumentId + " likes the restaurant: " + restaurant.getName(), task.getException());
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    isLiked.postValue(null);
-                    Log.e(TAG, "Failure checking if workmate " + currentWorkmateDocumentId + " likes the restaurant: " + restaurant.getName(), e);
-                });
+        syncLikesIfStale();
 
-        return isLiked;
+        return database.likeDao().observeIsLiked(fireBaseUserUid, restaurant.getId(), restaurant.getName());
     }
 
     /**
-     * ONLY FOR SEEDING
+     * Retrieves the placeIds of all the restaurants liked by the current workmate, from the local database.
      */
-    public void addWorkmateForSeeding(List<Workmate> newWorkmates) {
-        for (int i = 0; i < newWorkmates.size(); i++) {
-            getWorkmateCollection().add(newWorkmates.get(i))
-                    .addOnCompleteListener(task -> {
-                        Log.i(TAG, "Success");
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.i(TAG, "Failure");
-                    });
-        }
+    public LiveData<Set<String>> getLikedRestaurantIds() {
+        syncLikesIfStale();
+
+        return Transformations.map(database.likeDao().observeLikedPlaceIds(fireBaseUserUid), HashSet::new);
     }
 }
@@ -0,0 +1,53 @@
+package com.julien.go4lunch.model.seed;
+
+import java.util.Locale;
+
+/**
+ * Result of a bulk write : documents and batches committed, and the time it took.
+ */
+public class BulkWriteReport {
+
+    private final String collection;
+    private final int documents;
+    private final int batches;
+    private final long elapsedMillis;
+
+    public BulkWriteReport(String collection, int documents, int batches, long elapsedMillis) {
+        this.collection = collection;
+        this.documents = documents;
+        this.batches = batches;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Documents committed per second, 0 if nothing was written.
+     */
+    public double documentsPerSecond() {
+        if (documents == 0) {
+            return 0;
+        }
+        return documents * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s : %d documents in %d batches, %d ms, %.0f documents/s",
+                collection, documents, batches, elapsedMillis, documentsPerSecond());
+    }
+}
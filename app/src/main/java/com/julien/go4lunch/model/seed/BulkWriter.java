@@ -0,0 +1,124 @@
+package com.julien.go4lunch.model.seed;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Writes a large number of documents with WriteBatches of up to {@link #MAX_BATCH_SIZE} documents,
+ * a bounded number of batches being committed at the same time.
+ *
+ * Documents are built by index when their batch is built, so that only the batches in flight are in memory.
+ * The first failed batch stops the write : the batches already committed are kept.
+ */
+public class BulkWriter {
+
+    private static final String TAG = "BulkWriter";
+
+    /**
+     * Most writes a Firestore WriteBatch accepts
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Progress is logged every this number of batches
+     */
+    private static final int PROGRESS_EVERY_BATCHES = 20;
+
+    private final FirebaseFirestore firestore;
+    private final int batchSize;
+    private final int maxConcurrentBatches;
+
+    // Builds the batches and waits for the permits, never the main thread
+    private final ExecutorService producer = Executors.newSingleThreadExecutor();
+
+    /**
+     * Constructor.
+     * @param firestore Firestore instance the documents are written to.
+     * @param batchSize documents per batch, at most {@link #MAX_BATCH_SIZE}.
+     * @param maxConcurrentBatches batches committed at the same time.
+     */
+    public BulkWriter(FirebaseFirestore firestore, int batchSize, int maxConcurrentBatches) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE + " : " + batchSize);
+        }
+        if (maxConcurrentBatches < 1) {
+            throw new IllegalArgumentException("At least one batch must be committed at a time : " + maxConcurrentBatches);
+        }
+        this.firestore = firestore;
+        this.batchSize = batchSize;
+        this.maxConcurrentBatches = maxConcurrentBatches;
+    }
+
+    /**
+     * Writes `count` new documents to the collection, with generated ids.
+     * @param documentAt builds the document of an index, a POJO or a Map, called on the producer thread.
+     * @return a Task of the report, failed with the exception of the first failed batch.
+     */
+    public Task<BulkWriteReport> write(String collectionPath, int count, IntFunction<Object> documentAt) {
+        TaskCompletionSource<BulkWriteReport> result = new TaskCompletionSource<>();
+
+        producer.execute(() -> {
+            CollectionReference collection = firestore.collection(collectionPath);
+            Semaphore inFlight = new Semaphore(maxConcurrentBatches);
+            AtomicInteger written = new AtomicInteger();
+            AtomicInteger committedBatches = new AtomicInteger();
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            long startedAt = System.currentTimeMillis();
+
+            try {
+                for (int start = 0; start < count && failure.get() == null; start += batchSize) {
+                    int end = Math.min(start + batchSize, count);
+                    WriteBatch batch = firestore.batch();
+                    for (int i = start; i < end; i++) {
+                        batch.set(collection.document(), documentAt.apply(i));
+                    }
+
+                    inFlight.acquire();
+                    int size = end - start;
+                    batch.commit().addOnCompleteListener(Runnable::run, task -> {
+                        if (task.isSuccessful()) {
+                            int documents = written.addAndGet(size);
+                            if (committedBatches.incrementAndGet() % PROGRESS_EVERY_BATCHES == 0) {
+                                Log.i(TAG, new BulkWriteReport(collectionPath, documents, committedBatches.get(),
+                                        System.currentTimeMillis() - startedAt) + " (" + documents * 100L / count + " %)");
+                            }
+                        } else {
+                            failure.compareAndSet(null, task.getException());
+                        }
+                        inFlight.release();
+                    });
+                }
+
+                // Waits for the batches in flight
+                inFlight.acquire(maxConcurrentBatches);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            }
+
+            BulkWriteReport report = new BulkWriteReport(collectionPath, written.get(), committedBatches.get(),
+                    System.currentTimeMillis() - startedAt);
+            if (failure.get() != null) {
+                Log.e(TAG, "Bulk write stopped, " + report, failure.get());
+                result.setException(failure.get());
+            } else {
+                Log.i(TAG, "Bulk write done, " + report);
+                result.setResult(report);
+            }
+        });
+
+        return result.getTask();
+    }
+}
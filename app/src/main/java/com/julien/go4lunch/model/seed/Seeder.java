@@ -1,25 +1,42 @@
 package com.julien.go4lunch.model.seed;
 
+import android.content.Context;
 import android.util.Log;
 
-import androidx.lifecycle.LifecycleOwner;
-
-import com.github.javafaker.Faker;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+import com.julien.go4lunch.model.bo.Lunch;
 import com.julien.go4lunch.model.bo.Restaurant;
 import com.julien.go4lunch.model.bo.Workmate;
 import com.julien.go4lunch.model.repository.LunchRepository;
 import com.julien.go4lunch.model.repository.RestaurantRepository;
 import com.julien.go4lunch.model.repository.WorkmateRepository;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 public class Seeder {
 
     // UTILS
     private static final String TAG = "Seeder";
-    private static Faker faker = new Faker();
+    private static final Random random = new Random();
+
+    // Names of the seeded workmates, the realistic offices of the load tests come from the loadgen module
+    private static final String[] FIRST_NAMES = {"Julien", "Marie", "Hugo", "Léa", "Paul", "Camille", "Lucas", "Chloé", "Louis", "Emma"};
+    private static final String[] LAST_NAMES = {"Martin", "Bernard", "Dubois", "Durand", "Lefèvre", "Moreau", "Laurent", "Simon", "Michel", "Garcia"};
 
     // REPOSITORIES
     private static LunchRepository lunchRepository;
@@ -35,78 +52,168 @@ public class Seeder {
     private static List<Workmate> workmateList;
     private boolean enableDbSeeding = false;
 
+    // BULK WRITES
+    private static final int MAX_CONCURRENT_BATCHES = 4;
+    private static final Executor SEED_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // SCALE SEEDING, Firestore emulator only (10.0.2.2 is the host from the Android emulator)
+    public static final int SCALE_WORKMATES = 50_000;
+    public static final int SCALE_LUNCHES = 500_000;
+    private static final String EMULATOR_APP_NAME = "seeder";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+
 
-    public static void initDbSeeding(LifecycleOwner lifecycleOwner) {
+    /**
+     * Seeds 40 workmates if there are fewer, then 21 lunches of today at the restaurants around the seeder location.
+     * The workmates and the restaurants are read once, the returned Task completes when the lunches are sent.
+     */
+    public static Task<Void> initDbSeeding() {
         lunchRepository = LunchRepository.getInstance();
         restaurantRepository = RestaurantRepository.getInstance();
         workmateRepository = WorkmateRepository.getInstance();
 
-        workmateRepository.getAllWorkmates().observe(lifecycleOwner, workmates -> {
-            if (workmates.size() < 40) {
-                Log.i(TAG, "Create 20 workmates");
-                workmateList = generateRandomWorkmates();
-                workmateRepository.addWorkmateForSeeding(workmateList);
-            } else {
-                Log.i(TAG, "All workmates retreived : " + workmates.size());
-                workmateList = workmates;
-            }
-
-            // Chaining methods
-            restaurantRepository.getAllRestaurants(location, radius, type).observe(lifecycleOwner, restaurants -> {
-
-                // Restaurant 1 - 5 lunches
-                for (int i = 0; i < 5; i++) {
-                    Restaurant restaurant = restaurants.get(0);
-                    Workmate workmate = workmateList.get(i);
-                    Log.i(TAG, "Create a new lunch for : " + workmate.getName() + " at restaurant : " + restaurant.getName());
-                    lunchRepository.createLunch(restaurant, workmate);
-                }
-
-                // Restaurant 3 - 4 lunches
-                for (int i = 6; i < 9; i++) {
-                    Restaurant restaurant = restaurants.get(2);
-                    Workmate workmate = workmateList.get(i);
-                    Log.i(TAG, "Create a new lunch for : " + workmate.getName() + " at restaurant : " + restaurant.getName());
-                    lunchRepository.createLunch(restaurant, workmate);
-                }
-
-                // Restaurant 5 - 6 lunches
-                for (int i = 10; i < 15; i++) {
-                    Restaurant restaurant = restaurants.get(4);
-                    Workmate workmate = workmateList.get(i);
-                    Log.i(TAG, "Create a new lunch for : " + workmate.getName() + " at restaurant : " + restaurant.getName());
-                    lunchRepository.createLunch(restaurant, workmate);
-                }
-
-                // Restaurant 6 - 6 lunches
-                for (int i = 16; i < 21; i++) {
-                    Restaurant restaurant = restaurants.get(5);
-                    Workmate workmate = workmateList.get(i);
-                    Log.i(TAG, "Create a new lunch for : " + workmate.getName() + " at restaurant : " + restaurant.getName());
-                    lunchRepository.createLunch(restaurant, workmate);
-                }
-            });
-        });
+        return workmateRepository.fetchAllWorkmatesTask()
+                .onSuccessTask(SEED_EXECUTOR, workmates -> {
+                    if (workmates.size() < 40) {
+                        Log.i(TAG, "Create 40 workmates");
+                        workmateList = generateRandomWorkmates(40);
+                        return new BulkWriter(FirebaseFirestore.getInstance(), BulkWriter.MAX_BATCH_SIZE, MAX_CONCURRENT_BATCHES)
+                                .write(workmateRepository.COLLECTION_NAME, workmateList.size(), i -> toWorkmateDocument(workmateList.get(i)));
+                    }
+                    Log.i(TAG, "All workmates retreived : " + workmates.size());
+                    workmateList = workmates;
+                    return Tasks.forResult(null);
+                })
+                .onSuccessTask(SEED_EXECUTOR, ignored ->
+                        Tasks.forResult(restaurantRepository.fetchRestaurantsNow(location, radius, type)))
+                .onSuccessTask(SEED_EXECUTOR, restaurants -> {
+
+                    // Restaurant 1 - 5 lunches
+                    for (int i = 0; i < 5; i++) {
+                        createLunch(restaurants.get(0), workmateList.get(i));
+                    }
+
+                    // Restaurant 3 - 4 lunches
+                    for (int i = 6; i < 9; i++) {
+                        createLunch(restaurants.get(2), workmateList.get(i));
+                    }
+
+                    // Restaurant 5 - 6 lunches
+                    for (int i = 10; i < 15; i++) {
+                        createLunch(restaurants.get(4), workmateList.get(i));
+                    }
+
+                    // Restaurant 6 - 6 lunches
+                    for (int i = 16; i < 21; i++) {
+                        createLunch(restaurants.get(5), workmateList.get(i));
+                    }
+                    return Tasks.forResult(null);
+                });
+    }
+
+    private static void createLunch(Restaurant restaurant, Workmate workmate) {
+        Log.i(TAG, "Create a new lunch for : " + workmate.getName() + " at restaurant : " + restaurant.getName());
+        lunchRepository.createLunch(restaurant, workmate);
+    }
+
+    /**
+     * Seeds the Firestore emulator for scale testing : `workmateCount` workmates, then `lunchCount` lunches
+     * at the restaurants around the seeder location, one lunch per workmate and per day back from today.
+     * Lunch cards are not written, the lunch reminder of the seeded workmates is not tested.
+     * Runs in background, the returned Task completes when every document is committed.
+     */
+    public static Task<Void> seedForScale(Context context, int workmateCount, int lunchCount) {
+        FirebaseFirestore firestore = getEmulatorFirestore(context);
+        BulkWriter bulkWriter = new BulkWriter(firestore, BulkWriter.MAX_BATCH_SIZE, MAX_CONCURRENT_BATCHES);
+        workmateRepository = WorkmateRepository.getInstance();
+        lunchRepository = LunchRepository.getInstance();
+
+        List<Restaurant> restaurants = new ArrayList<>();
+        List<Workmate> workmates = new ArrayList<>();
+        long startedAt = System.currentTimeMillis();
+
+        return Tasks.call(SEED_EXECUTOR, () -> {
+                    restaurants.addAll(RestaurantRepository.getInstance().fetchRestaurantsNow(location, radius, type));
+                    if (restaurants.isEmpty()) {
+                        throw new IllegalStateException("No restaurant found around " + location);
+                    }
+                    workmates.addAll(generateRandomWorkmates(workmateCount));
+                    Log.i(TAG, "Seeding " + workmateCount + " workmates and " + lunchCount + " lunches at " + restaurants.size() + " restaurants");
+                    return null;
+                })
+                .onSuccessTask(SEED_EXECUTOR, ignored ->
+                        bulkWriter.write(workmateRepository.COLLECTION_NAME, workmateCount, i -> toWorkmateDocument(workmates.get(i))))
+                .onSuccessTask(SEED_EXECUTOR, workmatesReport -> {
+                    Log.i(TAG, "Workmates seeded, " + workmatesReport);
+                    Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+                    Random random = new Random(lunchCount);
+                    return bulkWriter.write(lunchRepository.LUNCH_COLLECTION, lunchCount, i -> new Lunch(
+                            workmates.get(i % workmateCount),
+                            restaurants.get(random.nextInt(restaurants.size())),
+                            today.minus(i / workmateCount, ChronoUnit.DAYS).toString()));
+                })
+                .onSuccessTask(SEED_EXECUTOR, lunchesReport -> {
+                    Log.i(TAG, "Lunches seeded, " + lunchesReport);
+                    Log.i(TAG, "Scale seeding done in " + (System.currentTimeMillis() - startedAt) + " ms");
+                    return Tasks.forResult(null);
+                });
+    }
+
+    /**
+     * Firestore of the emulator, on a second FirebaseApp so that the app instance is left as is.
+     * Seeded documents are only kept in memory until they are committed.
+     */
+    private static FirebaseFirestore getEmulatorFirestore(Context context) {
+        FirebaseApp app;
+        try {
+            app = FirebaseApp.getInstance(EMULATOR_APP_NAME);
+            return FirebaseFirestore.getInstance(app);
+        } catch (IllegalStateException e) {
+            app = FirebaseApp.initializeApp(context, FirebaseApp.getInstance().getOptions(), EMULATOR_APP_NAME);
+        }
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
+        firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        firestore.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(MemoryCacheSettings.newBuilder().build())
+                .build());
+        return firestore;
+    }
+
+    /**
+     * Workmate document with its `updatedAt`, so that the seeded workmates are read by the delta syncs.
+     */
+    private static Map<String, Object> toWorkmateDocument(Workmate workmate) {
+        Map<String, Object> document = new HashMap<>();
+        document.put("uid", workmate.getUid());
+        document.put("name", workmate.getName());
+        document.put("email", workmate.getEmail());
+        document.put("avatar", workmate.getAvatar());
+        document.put("notificationEnabled", workmate.isNotificationEnabled());
+        document.put(workmateRepository.UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+        return document;
     }
 
     /**
      * Generates a list of random Workmate objects.
      *
+     * @param count number of workmates
      * @return a list of Workmate objects
      */
-    private static List<Workmate> generateRandomWorkmates() {
-        List<Workmate> workmates = new ArrayList<>();
+    private static List<Workmate> generateRandomWorkmates(int count) {
+        List<Workmate> workmates = new ArrayList<>(count);
 
-        for (int i = 0; i < 40; i++) {
+        for (int i = 0; i < count; i++) {
             String userUid = String.valueOf(UUID.randomUUID());
 
-            String firstName = faker.name().firstName();
-            String lastName = faker.name().lastName();
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
 
             String name = firstName + " " + lastName;
-            String email = firstName + "." + lastName + "@mail.com";
+            String email = firstName + "." + lastName + "." + i + "@mail.com";
 
-            String avatar = faker.internet().image();
+            // The avatar is drawn from the name
+            String avatar = null;
 
             boolean isNotificationEnabled = false;
 
@@ -0,0 +1,45 @@
+package com.julien.go4lunch.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors shared by the whole application, so that background work does not
+ * create a new thread for each request.
+ */
+public class AppExecutors {
+
+    // Single thread, used for view projections (row models, sorting...)
+    private static final Executor BACKGROUND = Executors.newSingleThreadExecutor();
+
+    // Two threads, used to map Firestore documents to business objects off the main thread
+    private static final Executor MAPPING = Executors.newFixedThreadPool(2);
+
+    // Single thread, used for disk reads and writes, so that they are done in order
+    private static final Executor DISK_IO = Executors.newSingleThreadExecutor();
+
+    private AppExecutors() {
+        // Keep Empty
+    }
+
+    /**
+     * Returns the executor used for in-memory projections of the UI data.
+     */
+    public static Executor background() {
+        return BACKGROUND;
+    }
+
+    /**
+     * Returns the executor used to map query results, the results are posted to the LiveData.
+     */
+    public static Executor mapping() {
+        return MAPPING;
+    }
+
+    /**
+     * Returns the executor used for disk reads and writes.
+     */
+    public static Executor diskIo() {
+        return DISK_IO;
+    }
+}
@@ -0,0 +1,36 @@
+package com.julien.go4lunch.utils;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import java.util.function.BiFunction;
+
+/**
+ * Operators composing LiveData, to avoid nesting observe() calls in the views.
+ */
+public class LiveDataUtils {
+
+    private LiveDataUtils() {
+        // Keep Empty
+    }
+
+    /**
+     * Combines the latest values of two LiveData, the result is emitted once both have a non null value
+     * and again every time one of them changes.
+     */
+    public static <A, B, R> LiveData<R> combine(LiveData<A> first, LiveData<B> second, BiFunction<A, B, R> combiner) {
+        MediatorLiveData<R> result = new MediatorLiveData<>();
+
+        Runnable emit = () -> {
+            A a = first.getValue();
+            B b = second.getValue();
+            if (a != null && b != null) {
+                result.setValue(combiner.apply(a, b));
+            }
+        };
+
+        result.addSource(first, a -> emit.run());
+        result.addSource(second, b -> emit.run());
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+package com.julien.go4lunch.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.julien.go4lunch.view.tabviews.TabActivity;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the lunch reminder of today, only for a user with a lunch planned and notifications enabled.
+ *
+ * A single one-shot work is scheduled at 12:00 when a lunch is chosen or notifications are enabled,
+ * and cancelled when the lunch is cancelled or notifications are disabled : a user without lunch
+ * is never woken up, and the reminder sends no read for them.
+ */
+public class LunchReminderScheduler {
+
+    private static final String TAG = "LunchReminderScheduler";
+
+    /**
+     * Unique work of today's reminder, replaced when scheduled again
+     */
+    public static final String LUNCH_REMINDER_WORK = "lunch_reminder_today";
+
+    /**
+     * Daily work of the previous versions, sent to every user
+     */
+    public static final String LEGACY_DAILY_REMINDER_WORK = "lunch_reminder";
+
+    private static final int REMINDER_HOUR = 12;
+
+    @NonNull
+    private final WorkManager workManager;
+
+    /**
+     * Constructor.
+     * @param workManager WorkManager of the application.
+     */
+    public LunchReminderScheduler(@NonNull WorkManager workManager) {
+        this.workManager = workManager;
+    }
+
+    /**
+     * Schedules the reminder at 12:00 today, nothing is scheduled once noon is passed.
+     * Debug mode (`NOTIFICATION_DEBUG`) runs the reminder 10 seconds from the current time.
+     */
+    public void schedule() {
+        long delayMillis = TabActivity.NOTIFICATION_DEBUG ? TimeUnit.SECONDS.toMillis(10) : millisUntilNoon();
+        if (delayMillis < 0) {
+            Log.i(TAG, "Reminder not scheduled : noon is passed");
+            return;
+        }
+
+        workManager.enqueueUniqueWork(
+                LUNCH_REMINDER_WORK,
+                ExistingWorkPolicy.REPLACE,
+                new OneTimeWorkRequest.Builder(LunchReminderWorker.class)
+                        .setInitialDelay(delayMillis, TimeUnit.MILLISECONDS)
+                        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                        .build()
+        );
+        Log.i(TAG, "Reminder scheduled in " + delayMillis + " ms");
+    }
+
+    /**
+     * Cancels today's reminder, if any.
+     */
+    public void cancel() {
+        workManager.cancelUniqueWork(LUNCH_REMINDER_WORK);
+        Log.i(TAG, "Reminder cancelled");
+    }
+
+    private long millisUntilNoon() {
+        Calendar noon = Calendar.getInstance();
+        noon.set(Calendar.HOUR_OF_DAY, REMINDER_HOUR);
+        noon.set(Calendar.MINUTE, 0);
+        noon.set(Calendar.SECOND, 0);
+        noon.set(Calendar.MILLISECOND, 0);
+        return noon.getTimeInMillis() - System.currentTimeMillis();
+    }
+}
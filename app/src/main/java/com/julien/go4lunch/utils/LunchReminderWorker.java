@@ -0,0 +1,153 @@
+package com.julien.go4lunch.utils;
+
+import android.Manifest;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.ActivityCompat;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.julien.go4lunch.R;
+import com.julien.go4lunch.model.bo.LunchCard;
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.repository.LunchRepository;
+import com.julien.go4lunch.model.repository.WorkmateRepository;
+import com.julien.go4lunch.view.DetailsActivity;
+import com.julien.go4lunch.view.tabviews.TabActivity;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reminds the user where they have lunch today, and with whom.
+ *
+ * The notification setting, from the local workmate row, and the lunch card of the user are read in
+ * parallel and awaited together, within a hard deadline. The card already holds the restaurant and the workmates at the same lunch,
+ * it is kept up to date when a lunch is chosen or cancelled : the reminder does not read the lunches
+ * of everyone at noon, and renders from the local cache when offline.
+ * A read that fails or takes too long is retried by WorkManager, with backoff.
+ */
+public class LunchReminderWorker extends Worker {
+
+    private static final String TAG = "LunchReminderWorker";
+    private static final int NOTIFICATION_ID = 7;
+
+    /**
+     * Longest wait for the reads, the worker is retried after it
+     */
+    private static final long DEADLINE_SECONDS = 20;
+
+    /**
+     * Attempts before giving up the reminder of the day
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    public LunchReminderWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Log.i(TAG, "REMINDER NOT SENT : no user signed in");
+            return Result.success();
+        }
+
+        Task<Boolean> notificationEnabledTask = WorkmateRepository.getBackgroundInstance().fetchLocalIsNotificationEnabledTask(user.getUid());
+        Task<LunchCard> lunchCardTask = LunchRepository.getInstance().fetchTodayLunchCardTask(user.getUid());
+
+        try {
+            Tasks.await(Tasks.whenAll(notificationEnabledTask, lunchCardTask), DEADLINE_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return retryOrFail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return retryOrFail(e);
+        }
+
+        if (!Boolean.TRUE.equals(notificationEnabledTask.getResult())) {
+            Log.i(TAG, "REMINDER NOT SENT : Notification is not active");
+            return Result.success();
+        }
+
+        LunchCard lunchCard = lunchCardTask.getResult();
+        if (lunchCard == null) {
+            Log.i(TAG, "Current user does not have a lunch for today");
+            return Result.success();
+        }
+
+        // The workmates of the same lunch, the current user included as before
+        sendMessage(getApplicationContext(), lunchCard.toRestaurant(), lunchCard.getAttendeeNames());
+        return Result.success();
+    }
+
+    private Result retryOrFail(Exception e) {
+        if (getRunAttemptCount() + 1 < MAX_ATTEMPTS) {
+            Log.w(TAG, "Reminder reads failed, retry : " + e);
+            return Result.retry();
+        }
+        Log.e(TAG, "Reminder reads failed, no more retry : " + e);
+        return Result.failure();
+    }
+
+    /**
+     * Builds and sends a notification with the lunch details.
+     *
+     * @param context The application context.
+     * @param restaurant The restaurant chosen for lunch.
+     * @param userNames List of names of workmates joining the same restaurant.
+     */
+    private void sendMessage(Context context, Restaurant restaurant, List<String> userNames) {
+
+        // Build String
+        String userList = String.join(", ", userNames);
+        String notificationMessage = context.getString(
+                R.string.notification_message,
+                restaurant.getName(),
+                restaurant.getAddress(),
+                userList
+        );
+
+        // Create intent
+        Intent newIntent = DetailsActivity.newIntent(context, restaurant);
+        newIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+
+        // Create pending intent
+        PendingIntent pendingIntent = PendingIntent.getActivity(context, 0, newIntent, PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        // Create notification
+        NotificationCompat.Builder builder = new NotificationCompat
+                .Builder(context, TabActivity.CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_launcher_background)
+                .setContentTitle(TabActivity.CHANNEL_NAME)
+                .setContentText(notificationMessage)
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                // (it allows you to specify what should happen when the user interacts with the notification)
+                .setContentIntent(pendingIntent);
+
+        // The permission only exists from Android 13
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ActivityCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            Log.i(TAG, "REMINDER NOT SENT : notification permission not granted");
+            return;
+        }
+        NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, builder.build());
+    }
+}
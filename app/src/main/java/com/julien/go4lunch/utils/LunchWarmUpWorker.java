@@ -0,0 +1,169 @@
+package com.julien.go4lunch.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.FutureTarget;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.model.repository.LunchRepository;
+import com.julien.go4lunch.model.repository.RestaurantRepository;
+import com.julien.go4lunch.model.repository.RestaurantSnapshot;
+import com.julien.go4lunch.model.repository.SnapshotRepository;
+import com.julien.go4lunch.model.repository.ViewportRepository;
+import com.julien.go4lunch.model.repository.WorkmateRepository;
+import com.julien.go4lunch.viewmodel.MyViewModel;
+import com.julien.go4lunch.viewmodel.RestaurantRow;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the local caches before noon, so that the app opened for lunch renders from them.
+ *
+ * On workdays, it reads today's lunches and the workmates (kept by the Firestore local cache),
+ * searches the restaurants around the last searched position (the usual office) and saves them as
+ * the restaurants snapshot, then loads the details of the first ones and the photos of the list.
+ */
+public class LunchWarmUpWorker extends Worker {
+
+    private static final String TAG = "LunchWarmUpWorker";
+
+    /**
+     * Longest wait for the Firestore reads, and for each photo
+     */
+    private static final long DEADLINE_SECONDS = 20;
+
+    /**
+     * Restaurants whose details are loaded, the first ones of the search
+     */
+    private static final int WARM_DETAILS_MAX = 5;
+
+    /**
+     * Attempts before giving up the warm-up of the day
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    public LunchWarmUpWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        int dayOfWeek = Calendar.getInstance().get(Calendar.DAY_OF_WEEK);
+        if (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY) {
+            Log.i(TAG, "No warm-up during the weekend");
+            return Result.success();
+        }
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            Log.i(TAG, "No warm-up : no user signed in");
+            return Result.success();
+        }
+
+        long startedAt = System.currentTimeMillis();
+
+        // Firestore reads are sent first, they run while Places answers
+        Task<List<Lunch>> todayLunchesTask = LunchRepository.getInstance().fetchTodayLunchesTask();
+        Task<List<Workmate>> workmatesTask = WorkmateRepository.getBackgroundInstance().fetchAllWorkmatesTask();
+
+        LatLng office = ViewportRepository.getInstance().getLastViewport();
+        List<Restaurant> restaurants = new ArrayList<>();
+
+        try {
+            if (office != null) {
+                restaurants = RestaurantRepository.getInstance().fetchRestaurantsNow(
+                        office.latitude + "," + office.longitude, MyViewModel.NEARBY_RADIUS_METERS, MyViewModel.NEARBY_TYPE);
+            }
+            Tasks.await(Tasks.whenAll(todayLunchesTask, workmatesTask), DEADLINE_SECONDS, TimeUnit.SECONDS);
+        } catch (IOException | ExecutionException | TimeoutException e) {
+            return retryOrFail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return retryOrFail(e);
+        }
+
+        Log.i(TAG, "Warmed today's lunches : " + todayLunchesTask.getResult().size()
+                + ", workmates : " + workmatesTask.getResult().size());
+
+        if (office != null) {
+            SnapshotRepository.getInstance().write(new RestaurantSnapshot(office.latitude, office.longitude, System.currentTimeMillis(),
+                    MyViewModel.joinNearbyRestaurants(restaurants, todayLunchesTask.getResult())));
+            warmRestaurantDetails(restaurants);
+            warmRestaurantPhotos(restaurants);
+        }
+
+        Log.i(TAG, "Warm-up done in " + (System.currentTimeMillis() - startedAt) + " ms, restaurants : " + restaurants.size());
+        return Result.success();
+    }
+
+    private Result retryOrFail(Exception e) {
+        if (getRunAttemptCount() + 1 < MAX_ATTEMPTS) {
+            Log.w(TAG, "Warm-up failed, retry : " + e);
+            return Result.retry();
+        }
+        Log.e(TAG, "Warm-up failed, no more retry : " + e);
+        return Result.failure();
+    }
+
+    /**
+     * Details are optional for the warm-up, a failed one is requested again by the details screen.
+     */
+    private void warmRestaurantDetails(List<Restaurant> restaurants) {
+        for (int i = 0; i < restaurants.size() && i < WARM_DETAILS_MAX && !isStopped(); i++) {
+            String placeId = restaurants.get(i).getId();
+            if (placeId == null) {
+                continue;
+            }
+            try {
+                RestaurantRepository.getInstance().fetchRestaurantDetailNow(placeId);
+            } catch (IOException e) {
+                Log.w(TAG, "Details not warmed for " + placeId + " : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Photos are downloaded to the Glide disk cache with the URL of the list, so that the list hits them.
+     */
+    private void warmRestaurantPhotos(List<Restaurant> restaurants) {
+        List<FutureTarget<File>> targets = new ArrayList<>();
+        for (Restaurant restaurant : restaurants) {
+            String photoUrl = RestaurantRow.photoUrlOf(restaurant);
+            if (photoUrl != null) {
+                targets.add(Glide.with(getApplicationContext()).downloadOnly().load(photoUrl).submit());
+            }
+        }
+
+        for (FutureTarget<File> target : targets) {
+            try {
+                if (!isStopped()) {
+                    target.get(DEADLINE_SECONDS, TimeUnit.SECONDS);
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                Log.w(TAG, "Photo not warmed : " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                Glide.with(getApplicationContext()).clear(target);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.julien.go4lunch.utils;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps business keys (placeId, uid...) to stable RecyclerView item ids.
+ * The same key always gets the same id for the lifetime of the adapter.
+ */
+public class StableIds {
+
+    private final Map<String, Long> ids = new HashMap<>();
+
+    /**
+     * Returns the stable id for the given key, or RecyclerView.NO_ID if the key is null.
+     */
+    public long idFor(String key) {
+        if (key == null) {
+            return RecyclerView.NO_ID;
+        }
+
+        Long id = ids.get(key);
+        if (id == null) {
+            id = (long) ids.size();
+            ids.put(key, id);
+        }
+        return id;
+    }
+}
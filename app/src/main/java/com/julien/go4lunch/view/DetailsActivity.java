@@ -1,5 +1,6 @@
 package com.julien.go4lunch.view;
 
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
@@ -9,22 +10,33 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.RatingBar;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.julien.go4lunch.BuildConfig;
 import com.julien.go4lunch.R;
 import com.julien.go4lunch.model.bo.Restaurant;
-import com.julien.go4lunch.model.bo.place.Photo;
+import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.model.repository.RestaurantStore;
 import com.julien.go4lunch.viewmodel.MyViewModel;
+import com.julien.go4lunch.viewmodel.RestaurantRow;
 import com.julien.go4lunch.viewmodel.ViewModelFactory;
 
+import java.util.List;
+
 public class DetailsActivity extends AppCompatActivity {
 
+    // EXTRAS : the placeId, or the whole restaurant only when it has no placeId
+    private static final String EXTRA_PLACE_ID = "PLACE_ID";
+    private static final String EXTRA_RESTAURANT = "RESTAURANT";
+    private static final String STATE_RESTAURANT = "RESTAURANT";
+
     // VIEWS
     private ImageView rImage, rIsChoosenByUser;
     private TextView rName, rType, rAddress, emptyMessage;
@@ -68,51 +80,111 @@ public class DetailsActivity extends AppCompatActivity {
         websiteBtn = findViewById(R.id.websiteBtn);
 
         // RESTAURANT INTENT & CONFIGURATION METHODS
+        // Resolved from the saved state after a process death, else from the store with the placeId
         Intent rIntent = getIntent();
+        String placeId = rIntent.getStringExtra(EXTRA_PLACE_ID);
 
-        if (rIntent.getExtras() != null) {
-            restaurant = (Restaurant) rIntent.getSerializableExtra("RESTAURANT");
+        if (savedInstanceState != null) {
+            restaurant = savedInstanceState.getParcelable(STATE_RESTAURANT);
+        }
+        if (restaurant == null) {
+            restaurant = RestaurantStore.getInstance().get(placeId);
+        }
+        if (restaurant == null) {
+            restaurant = rIntent.getParcelableExtra(EXTRA_RESTAURANT);
+        }
 
-            configureRestaurantUiWithDetail();
-            configureIsChoosenBtn();
-            configureRecyclerView();
-            observeTodayWorkmatesAtRestaurant();
-            configureLikedBtn();
+        if (restaurant != null) {
+            configureRestaurant();
+        } else if (placeId != null) {
+            // Not loaded anymore (opened from a notification) : wait for the details
+            Log.i(TAG, "Restaurant not in store, waiting for details : " + placeId);
+            LiveData<Restaurant> detail = viewModel.getRestaurantDetail(placeId);
+            detail.observe(da, new Observer<Restaurant>() {
+                @Override
+                public void onChanged(Restaurant r) {
+                    detail.removeObserver(this);
+                    if (r != null) {
+                        restaurant = r;
+                        configureRestaurant();
+                    } else {
+                        // Nothing to show : the details request failed
+                        Log.e(TAG, "Restaurant details can't be loaded : " + placeId);
+                        Toast.makeText(da, R.string.details_loading_failed, Toast.LENGTH_LONG).show();
+                        finish();
+                    }
+                }
+            });
         }
     }
 
     /**
-     * Configures the like button to toggle the restaurant's like status.
-     * Observes the current user's like status for the restaurant.
+     * Creates the intent to open the details of a restaurant.
+     * Only the placeId is sent, the restaurant is kept in the RestaurantStore.
      */
-    private void configureLikedBtn() {
-        viewModel.checkIfCurrentWorkmateLikeThisRestaurant(restaurant).observe(da, b -> {
-            IS_LIKED = b;
-            likeBtn.setActivated(IS_LIKED);
-        });
+    public static Intent newIntent(Context context, Restaurant restaurant) {
+        Intent intent = new Intent(context, DetailsActivity.class);
+        if (restaurant.getId() != null) {
+            RestaurantStore.getInstance().intern(restaurant);
+            intent.putExtra(EXTRA_PLACE_ID, restaurant.getId());
+        } else {
+            intent.putExtra(EXTRA_RESTAURANT, restaurant);
+        }
+        return intent;
+    }
 
-        likeBtn.setOnClickListener(view -> {
-            viewModel.checkIfCurrentWorkmateLikeThisRestaurant(restaurant).observe(da, b -> {
-                IS_LIKED = !b;
-                viewModel.isRestaurantLikedByUser(restaurant, IS_LIKED);
-                likeBtn.setActivated(IS_LIKED);
-            });
-        });
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (restaurant != null) {
+            outState.putParcelable(STATE_RESTAURANT, restaurant);
+        }
+    }
+
+    private void configureRestaurant() {
+        // First phase : the restaurant of the launching screen, before any request
+        bindRestaurant(restaurant);
+        configureRecyclerView();
+        configureIsChoosenBtn();
+        configureLikedBtn();
+        observeRestaurantDetailsState();
     }
 
     /**
-     * Configures the button to indicate whether the current workmate
-     * has chosen this restaurant.
-     * Observes and updates the button's state accordingly.
+     * Second phase : the details, like, lunch and workmates requests run in parallel
+     * and are applied together, in a single layout pass.
      */
-    private void configureIsChoosenBtn() {
-        viewModel.hasWorkmateChosenThisRestaurant(restaurant).observe(da, b -> {
-            if (b != null) {
-                IS_CHOSEN = b;
+    private void observeRestaurantDetailsState() {
+        viewModel.getRestaurantDetailsState(restaurant).observe(da, state -> {
+            restaurant = state.getRestaurant();
+            bindRestaurant(restaurant);
+
+            if (state.isLiked() != null) {
+                IS_LIKED = state.isLiked();
+                likeBtn.setActivated(IS_LIKED);
+            }
+
+            if (state.isChosen() != null) {
+                IS_CHOSEN = state.isChosen();
                 rIsChoosenByUser.setActivated(IS_CHOSEN);
             }
+
+            bindWorkmates(state.getWorkmates());
         });
+    }
 
+    /**
+     * Configures the like button to toggle the restaurant's like status.
+     * The ViewModel updates the like status on every toggle, the new state is observed with the others.
+     */
+    private void configureLikedBtn() {
+        likeBtn.setOnClickListener(view -> viewModel.isRestaurantLikedByUser(restaurant, !IS_LIKED));
+    }
+
+    /**
+     * Configures the button to choose this restaurant for today's lunch, or to cancel it.
+     */
+    private void configureIsChoosenBtn() {
         rIsChoosenByUser.setOnClickListener(view -> {
             IS_CHOSEN = !IS_CHOSEN;
 
@@ -121,17 +193,13 @@ public class DetailsActivity extends AppCompatActivity {
             if (IS_CHOSEN){
                 Log.i(TAG, "User has chosen a restaurant " + restaurant.getName());
                 viewModel.createLunch(restaurant, viewModel.getCurrentWorkmate());
-
-                observeTodayWorkmatesAtRestaurant();
             }else{
                 Log.i(TAG, "User removed his lunch at " + restaurant.getName());
 
+                // The ViewModel sends the lunch requests again once deleted, the recycler view is refreshed by its observer
                 viewModel.deleteLunch(restaurant).observe(da, isDeleted -> {
-                    if (isDeleted != null){
-                        if (isDeleted){
-                            Log.i(TAG, "Get callback from delete action - Refresh recycler view");
-                            observeTodayWorkmatesAtRestaurant();
-                        }
+                    if (Boolean.TRUE.equals(isDeleted)) {
+                        Log.i(TAG, "Get callback from delete action - Refresh recycler view");
                     }
                 });
             }
@@ -141,8 +209,6 @@ public class DetailsActivity extends AppCompatActivity {
     /**
      * Configures the RecyclerView to display a list of workmates who are
      * currently at the restaurant.
-     * Observes the data for the workmates and updates the UI accordingly.
-     * If no workmates are found, displays a message indicating no workmates.
      */
     private void configureRecyclerView() {
         recyclerView = findViewById(R.id.workmateRecyclerView);
@@ -153,82 +219,76 @@ public class DetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Refresh Recycler View with wormakte list.
+     * Refresh Recycler View with workmate list.
+     * If no workmates are found, displays a message indicating no workmates.
      */
-    private void observeTodayWorkmatesAtRestaurant() {
-        viewModel.fetchTodayWorkmatesAtRestaurant(restaurant).observe(da, workmates -> {
-            if (workmates == null) {
-                recyclerView.setVisibility(View.INVISIBLE);
-                emptyMessage.setVisibility(View.VISIBLE);
-            } else {
-                recyclerView.setVisibility(View.VISIBLE);
-                emptyMessage.setVisibility(View.INVISIBLE);
-
-                adapter.updateWorkmatesList(workmates);
-            }
-        });
+    private void bindWorkmates(List<Workmate> workmates) {
+        if (workmates == null) {
+            recyclerView.setVisibility(View.INVISIBLE);
+            emptyMessage.setVisibility(View.VISIBLE);
+        } else {
+            recyclerView.setVisibility(View.VISIBLE);
+            emptyMessage.setVisibility(View.INVISIBLE);
+
+            adapter.updateWorkmatesList(workmates);
+        }
     }
 
     /**
      * Configures VIEWS with restaurant detail and set OnClickListener for
      * CALL action and BROWSER action
      */
-    private void configureRestaurantUiWithDetail() {
-        viewModel.getRestaurantDetail(restaurant.getId()).observe(da, r -> {
-
-            restaurant = r;
-
-            if (r.getName() != null) {
-                rName.setText(r.getName());
-            } else {
-                rName.setText("N/A");
-            }
+    private void bindRestaurant(Restaurant r) {
+        if (r.getName() != null) {
+            rName.setText(r.getName());
+        } else {
+            rName.setText("N/A");
+        }
 
-            if (r.getAddress() != null) {
-                rAddress.setText(r.getAddress());
-            } else {
-                rAddress.setText("N/A");
-            }
+        if (r.getAddress() != null) {
+            rAddress.setText(r.getAddress());
+        } else {
+            rAddress.setText("N/A");
+        }
 
-            if (r.getTypes() != null) {
-                rType.setText(r.getTypes().get(0));
-            } else {
-                rType.setText("N/A");
-            }
+        if (r.getTypes() != null && !r.getTypes().isEmpty()) {
+            rType.setText(r.getTypes().get(0));
+        } else {
+            rType.setText("N/A");
+        }
 
-            if (r.getRating() != null) {
-                double rating = r.getRating();
-                ratingBar.setRating((float) rating);
-            } else {
-                ratingBar.setRating(0f);
-            }
+        if (r.getRating() != null) {
+            double rating = r.getRating();
+            ratingBar.setRating((float) rating);
+        } else {
+            ratingBar.setRating(0f);
+        }
 
-            setImageView(r);
+        setImageView(r);
 
-            if (r.getFormattedPhoneNumber() != null) {
-                callBtn.setActivated(true);
-                callBtn.setOnClickListener(call -> {
-                    String phoneNumber = r.getFormattedPhoneNumber();
-                    Intent callIntent = new Intent(Intent.ACTION_DIAL);
-                    callIntent.setData(Uri.parse("tel:" + phoneNumber));
-                    da.startActivity(callIntent);
-                });
-            } else {
-                callBtn.setActivated(false);
-            }
+        if (r.getFormattedPhoneNumber() != null) {
+            callBtn.setActivated(true);
+            callBtn.setOnClickListener(call -> {
+                String phoneNumber = r.getFormattedPhoneNumber();
+                Intent callIntent = new Intent(Intent.ACTION_DIAL);
+                callIntent.setData(Uri.parse("tel:" + phoneNumber));
+                da.startActivity(callIntent);
+            });
+        } else {
+            callBtn.setActivated(false);
+        }
 
-            if (r.getWebsite() != null) {
-                websiteBtn.setActivated(true);
-                websiteBtn.setOnClickListener(web -> {
-                    String URL = r.getWebsite();
-                    Intent webIntent = new Intent(Intent.ACTION_VIEW);
-                    webIntent.setData(Uri.parse(URL));
-                    da.startActivity(webIntent);
-                });
-            } else {
-                websiteBtn.setActivated(false);
-            }
-        });
+        if (r.getWebsite() != null) {
+            websiteBtn.setActivated(true);
+            websiteBtn.setOnClickListener(web -> {
+                String URL = r.getWebsite();
+                Intent webIntent = new Intent(Intent.ACTION_VIEW);
+                webIntent.setData(Uri.parse(URL));
+                da.startActivity(webIntent);
+            });
+        } else {
+            websiteBtn.setActivated(false);
+        }
     }
 
     /**
@@ -237,11 +297,13 @@ public class DetailsActivity extends AppCompatActivity {
      * If the image cannot be loaded, a default "image not found" placeholder is displayed.
      */
     private void setImageView(Restaurant restaurant) {
-        Photo first_photo = restaurant.getPhotos().get(0);
-        String photoReference = first_photo.getPhotoReference();
+        if (restaurant.getPhotos() == null || restaurant.getPhotos().isEmpty()) {
+            rImage.setImageResource(R.drawable.imagenotfound);
+            return;
+        }
 
-        String apiKey = BuildConfig.GOOGLE_MAPS_API_KEY;
-        String photoUrl = "https://maps.googleapis.com/maps/api/place/photo?maxwidth=400&photoreference=" + photoReference + "&key=" + apiKey;
+        // Same URL as the list, the photo is already in the image cache
+        String photoUrl = RestaurantRow.photoUrlOf(restaurant);
 
         Glide.with(this)
                 .load(photoUrl)
@@ -8,13 +8,16 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.julien.go4lunch.R;
 import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.utils.StableIds;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * DetailsAdapter is a RecyclerView adapter that binds a list of workmates to a RecyclerView,
@@ -22,10 +25,16 @@ import java.util.List;
  * along with a message indicating that they are joining a specific lunch.
  */
  public class DetailsAdapter extends RecyclerView.Adapter<DetailsAdapter.DetailsViewHolder> {
-    private List<Workmate> workmates;
+    // PAYLOADS (bit flags of the parts of the row that changed)
+    static final int PAYLOAD_NAME = 1;
+    static final int PAYLOAD_AVATAR_LETTER = 1 << 1;
+
+    // UTILS
+    private final AsyncListDiffer<Workmate> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public DetailsAdapter() {
-        workmates = new ArrayList<>();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -36,9 +45,11 @@ import java.util.List;
         return new DetailsViewHolder(view);
     }
 
+    /**
+     * Submits a new workmate list, the diff is computed on a background thread.
+     */
     void updateWorkmatesList(List<Workmate> workmates) {
-        this.workmates = workmates;
-        notifyDataSetChanged();
+        differ.submitList(workmates);
     }
 
 
@@ -48,22 +59,85 @@ import java.util.List;
      */
     @Override
     public void onBindViewHolder(@NonNull DetailsViewHolder holder, int position) {
-        Workmate workmate = workmates.get(position);
+        Workmate workmate = differ.getCurrentList().get(position);
 
-        String text = holder.itemView.getContext().getString(R.string.workmate_joining_message, workmate.getName());
-        holder.wName.setText(text);
+        bindName(holder, workmate);
 
-        String firstLetter = workmate.getName().substring(0, 1);
-        holder.wAvatar.setText(firstLetter);
+        holder.wAvatar.setText(firstLetterOf(workmate));
         String hexColor = Workmate.getRandomHexColorFromPalette();
         holder.wAvatar.setBackgroundTintList(ColorStateList.valueOf(Color.parseColor(hexColor)));
     }
 
+    /**
+     * Partial bind : when the row only received payloads, the avatar color is kept.
+     * A change of a field the row does not show comes without any flag, nothing is bound again.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull DetailsViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        Workmate workmate = differ.getCurrentList().get(position);
+
+        for (Object payload : payloads) {
+            int changes = (Integer) payload;
+            if ((changes & PAYLOAD_NAME) != 0) {
+                bindName(holder, workmate);
+            }
+            if ((changes & PAYLOAD_AVATAR_LETTER) != 0) {
+                holder.wAvatar.setText(firstLetterOf(workmate));
+            }
+        }
+    }
+
+    private void bindName(DetailsViewHolder holder, Workmate workmate) {
+        String text = holder.itemView.getContext().getString(R.string.workmate_joining_message, workmate.getName());
+        holder.wName.setText(text);
+    }
+
+    private static String firstLetterOf(Workmate workmate) {
+        return workmate.getName().substring(0, 1);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(differ.getCurrentList().get(position).getUid());
+    }
+
     @Override
     public int getItemCount() {
-        return workmates.size();
+        return differ.getCurrentList().size();
     }
 
+    /**
+     * Rows are identified by workmate uid.
+     */
+    private static final DiffUtil.ItemCallback<Workmate> DIFF_CALLBACK = new DiffUtil.ItemCallback<Workmate>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Workmate oldItem, @NonNull Workmate newItem) {
+            return Objects.equals(oldItem.getUid(), newItem.getUid());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Workmate oldItem, @NonNull Workmate newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Workmate oldItem, @NonNull Workmate newItem) {
+            int changes = 0;
+            if (!Objects.equals(oldItem.getName(), newItem.getName())) {
+                changes |= PAYLOAD_NAME;
+                if (!firstLetterOf(oldItem).equals(firstLetterOf(newItem))) {
+                    changes |= PAYLOAD_AVATAR_LETTER;
+                }
+            }
+            return changes;
+        }
+    };
+
     static class DetailsViewHolder extends RecyclerView.ViewHolder {
         private final TextView wAvatar;
         private final TextView wName;
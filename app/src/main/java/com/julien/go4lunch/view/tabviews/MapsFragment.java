@@ -1,11 +1,9 @@
 package com.julien.go4lunch.view.tabviews;
 
-import android.content.Intent;
 import android.graphics.Color;
 import android.location.Address;
 import android.location.Geocoder;
 import android.os.Bundle;
-import android.os.Handler;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -35,6 +33,7 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.julien.go4lunch.BuildConfig;
 import com.julien.go4lunch.R;
 import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.RestaurantAndWorkmates;
 import com.julien.go4lunch.model.bo.place.Location;
 import com.julien.go4lunch.view.DetailsActivity;
 import com.julien.go4lunch.viewmodel.MyViewModel;
@@ -51,13 +50,13 @@ public class MapsFragment extends Fragment implements OnMapReadyCallback {
     private final String TAG = "MapsFragment";
     private MyViewModel viewModel;
     private TabActivity parentActivity;
-    private boolean isLookingForPlaces = false;
 
     // MAPS
     private Geocoder geocoder;
     private GoogleMap googleMap;
-    private LatLng currentPosition;
+    private final HashMap<Marker, Restaurant> markers = new HashMap<>();
     private final float mapZoom = 17;
+    private boolean movedByUser = false;
 
     // VIEWS
     private AutocompleteSupportFragment acsf;
@@ -74,9 +73,8 @@ public class MapsFragment extends Fragment implements OnMapReadyCallback {
         parentActivity = (TabActivity) getActivity();
         geocoder = new Geocoder(requireContext());
 
-        // ViewModel
-        viewModel = new ViewModelProvider(this, ViewModelFactory.getInstance()).get(MyViewModel.class);
-        observeGpsStatusToGetRestaurant();
+        // ViewModel, shared with the other tabs
+        viewModel = new ViewModelProvider(requireActivity(), ViewModelFactory.getInstance()).get(MyViewModel.class);
 
         // Views
         SupportMapFragment map = (SupportMapFragment) getChildFragmentManager().findFragmentById(R.id.map);
@@ -88,20 +86,19 @@ public class MapsFragment extends Fragment implements OnMapReadyCallback {
         return view;
     }
 
-    private void observeGpsStatusToGetRestaurant() {
-        viewModel.getGPSStatus().observe(getViewLifecycleOwner(), gpsStatus -> {
-            if (gpsStatus.isQuerying() || !gpsStatus.isHasGPSPermission()) {
-                Log.i(TAG, "GPS Status - waiting for current position");
-            } else {
-                double latitude = gpsStatus.getLatitude();
-                double longitude = gpsStatus.getLongitude();
-                LatLng latLng = new LatLng(latitude, longitude);
-
-                Log.i(TAG, "Current Position, Lat : " + latitude + " - Long : " + longitude);
-
-                if (googleMap != null) {
-                    googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(latLng, mapZoom));
-                }
+    /**
+     * Moves the camera to the search position, set by the GPS, a place search or the camera itself.
+     */
+    private void observeSearchPosition() {
+        viewModel.getSearchPosition().observe(getViewLifecycleOwner(), latLng -> {
+            LatLng target = googleMap.getCameraPosition().target;
+            float[] distance = new float[1];
+            android.location.Location.distanceBetween(target.latitude, target.longitude, latLng.latitude, latLng.longitude, distance);
+
+            // The camera is already there when the position comes from the camera itself
+            if (distance[0] > 1) {
+                Log.i(TAG, "Search Position, Lat : " + latLng.latitude + " - Long : " + latLng.longitude);
+                googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(latLng, mapZoom));
             }
         });
     }
@@ -137,23 +134,18 @@ public class MapsFragment extends Fragment implements OnMapReadyCallback {
                     throw new RuntimeException(e);
                 }
 
-                isLookingForPlaces = true;
-
                 double latitude = addresses.get(0).getLatitude();
                 double longitude = addresses.get(0).getLongitude();
 
                 Log.i(TAG, "Place Position, Lat : " + latitude + " - Long : " + longitude);
 
-                LatLng latLng = new LatLng(latitude, longitude);
-
-                googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(latLng, mapZoom));
+                viewModel.searchPlace(latitude, longitude);
                 parentActivity.resetTopBarViews();
             }
 
             @Override
             public void onError(Status status) {
                 parentActivity.resetTopBarViews();
-                isLookingForPlaces = false;
             }
         });
     }
@@ -172,64 +164,48 @@ public class MapsFragment extends Fragment implements OnMapReadyCallback {
 
     /**
      * Updates the Google Map with markers representing nearby restaurants.
-     * This method clears the map, fetches restaurants within a specified radius,
-     * and displays their locations as markers. It also sets up a click listener
-     * to handle marker interactions.
+     * The restaurants are fetched once by the shared ViewModel, this method only draws them.
      **/
-    private void updateMap(double latitude, double longitude) {
-        googleMap.clear();
-        HashMap<Marker, Restaurant> haspMap = new HashMap<>();
-
-        currentPosition = new LatLng(latitude, longitude);
-        String location = latitude + "," + longitude;
-
-        viewModel.getAllRestaurants(location, 500, "restaurant").observe(getViewLifecycleOwner(), restaurants -> {
+    private void observeNearbyRestaurants() {
+        viewModel.getNearbyRestaurants().observe(getViewLifecycleOwner(), restaurants -> {
             Log.i(TAG, "Found " + restaurants.size() + " restaurants within 500 meters.");
 
-            viewModel.fetchTodayLunchRestaurantNames().observe(getViewLifecycleOwner(), restaurantNameList -> {
+            googleMap.clear();
+            markers.clear();
 
-                for (Restaurant restaurant : restaurants) {
+            for (RestaurantAndWorkmates restaurantAndWorkmates : restaurants) {
+                Restaurant restaurant = restaurantAndWorkmates.getRestaurant();
 
-                    Location restaurantLocation = restaurant.getLocation();
-                    double lat = restaurantLocation.getLat();
-                    double lng = restaurantLocation.getLng();
-
-                    LatLng restaurantLatLng = new LatLng(lat, lng);
-                    int lunchIconId = R.drawable.ic_no_lunch;
-
-                    if (restaurantNameList != null) {
-                        if (restaurantNameList.contains(restaurant.getName())) {
-                            lunchIconId = R.drawable.ic_get_lunch;
-                        }
-                    }
+                // No marker for a restaurant without a location
+                Location restaurantLocation = restaurant.getLocation();
+                if (restaurantLocation == null || restaurantLocation.getLat() == null || restaurantLocation.getLng() == null) {
+                    continue;
+                }
+                LatLng restaurantLatLng = new LatLng(restaurantLocation.getLat(), restaurantLocation.getLng());
+                int lunchIconId = restaurantAndWorkmates.getWorkmatesAtRestaurant() > 0 ? R.drawable.ic_get_lunch : R.drawable.ic_no_lunch;
 
-                    Marker marker = googleMap.addMarker(new MarkerOptions()
-                            .position(restaurantLatLng)
-                            .icon(BitmapDescriptorFactory.fromResource(lunchIconId))
-                            .title(restaurant.getName())
-                    );
+                Marker marker = googleMap.addMarker(new MarkerOptions()
+                        .position(restaurantLatLng)
+                        .icon(BitmapDescriptorFactory.fromResource(lunchIconId))
+                        .title(restaurant.getName())
+                );
 
-                    haspMap.put(marker, restaurant);
-                }
-            });
+                markers.put(marker, restaurant);
+            }
         });
 
         googleMap.setOnMarkerClickListener(marker -> {
-            Restaurant restaurant = haspMap.get(marker);
+            Restaurant restaurant = markers.get(marker);
 
             if (restaurant != null) {
                 Log.i(TAG, "Marker is clicked - restaurant : " + restaurant.getName());
 
-                Intent intent = new Intent(getActivity(), DetailsActivity.class);
-                intent.putExtra("RESTAURANT", restaurant);
-                startActivity(intent);
+                startActivity(DetailsActivity.newIntent(requireContext(), restaurant));
             } else {
-                Log.i(TAG, "Marker is clicked - restaurant : " + restaurant.getId());
+                Log.i(TAG, "Marker is clicked - no restaurant");
             }
             return true;
         });
-
-        isLookingForPlaces = false;
     }
 
     /**
@@ -245,12 +221,19 @@ public class MapsFragment extends Fragment implements OnMapReadyCallback {
         Log.i(TAG, "OnMapReady is called");
 
         FloatingActionButton fab_center = getView().findViewById(R.id.fab_center);
-        fab_center.setOnClickListener(view -> {
-            googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(currentPosition, mapZoom));
-        });
+        fab_center.setOnClickListener(view -> viewModel.followGps());
+
+        // Only a move of the user is a new search position, the moves to the GPS position are not
+        googleMap.setOnCameraMoveStartedListener(reason -> movedByUser = reason == GoogleMap.OnCameraMoveStartedListener.REASON_GESTURE);
 
         googleMap.setOnCameraIdleListener(() -> {
-            Log.i(TAG, "Camera is moving");
+            Log.i(TAG, "Camera is idle, moved by user : " + movedByUser);
+
+            // Wait for a first position before searching around the camera
+            if (!movedByUser || viewModel.getSearchPosition().getValue() == null) {
+                return;
+            }
+            movedByUser = false;
 
             CameraPosition cameraPosition = googleMap.getCameraPosition();
             LatLng currentLatLng = cameraPosition.target;
@@ -259,22 +242,11 @@ public class MapsFragment extends Fragment implements OnMapReadyCallback {
 
             Log.i(TAG, "Update Map, New position, lat : " + latitude + " - long : " + longitude);
 
-            Handler handler = new Handler();
-            handler.postDelayed(() -> updateMap(latitude, longitude), 50);
+            // the search stops following the GPS, until the center button is clicked
+            viewModel.searchPlace(latitude, longitude);
         });
-    }
 
-    /**
-     * Lifecycle : VERY IMPORTANT FOR GPS TRACKING !
-     **/
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (viewModel != null) {
-            if (!isLookingForPlaces) {
-                Log.i(TAG, "On Resume called - GPS refresh"); // à tester
-                viewModel.refresh();
-            }
-        }
+        observeSearchPosition();
+        observeNearbyRestaurants();
     }
 }
\ No newline at end of file
@@ -9,131 +9,172 @@ import android.widget.RatingBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.google.android.gms.maps.model.LatLng;
-import com.google.maps.android.SphericalUtil;
-import com.julien.go4lunch.BuildConfig;
 import com.julien.go4lunch.R;
 import com.julien.go4lunch.model.bo.Restaurant;
-import com.julien.go4lunch.model.bo.place.Location;
-import com.julien.go4lunch.model.bo.place.Photo;
+import com.julien.go4lunch.utils.StableIds;
+import com.julien.go4lunch.viewmodel.RestaurantRow;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class RestaurantAdapter extends RecyclerView.Adapter<RestaurantAdapter.RestaurantViewholder> {
 
+    // PAYLOADS (bit flags of the parts of the row that changed)
+    static final int PAYLOAD_WORKMATES = 1;
+    static final int PAYLOAD_DISTANCE = 1 << 1;
+
     // UTILS
-    private List<RestaurantListFragment.RestaurantAndWorkmates> restaurantList;
-    private final String NON_ASSIGNED = "N/A";
+    private final AsyncListDiffer<RestaurantRow> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
     private Context context;
+    private String openedLabel, closedLabel;
 
     // CALLBACK
     private OnItemClickListener listener;
 
-    // POSITION
-    private LatLng currentUserPos;
-
     public RestaurantAdapter(OnItemClickListener listener) {
         this.listener = listener;
-        restaurantList = new ArrayList<>();
-    }
-
-    public void updateRestaurantList(List<RestaurantListFragment.RestaurantAndWorkmates> restaurantList){
-        this.restaurantList = restaurantList;
-        notifyDataSetChanged();
+        setHasStableIds(true);
     }
 
-    public void updateCurrentUserPos(double latitude, double longitude){
-        currentUserPos = new LatLng(latitude, longitude);
+    /**
+     * Submits new precomputed rows, the diff is computed on a background thread
+     * and only the rows that actually changed are rebound.
+     */
+    public void updateRestaurantList(List<RestaurantRow> restaurantList){
+        differ.submitList(restaurantList);
     }
 
     @NonNull
     @Override
     public RestaurantViewholder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        context = parent.getContext();
+        if (context == null) {
+            context = parent.getContext();
+            openedLabel = context.getString(R.string.restaurant_is_opened);
+            closedLabel = context.getString(R.string.restaurant_is_closed);
+        }
 
         View view = LayoutInflater.from(context)
                 .inflate(R.layout.restaurant_detail_item, parent, false);
-        return new RestaurantViewholder(view);
+        RestaurantViewholder holder = new RestaurantViewholder(view);
+
+        view.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                listener.onItemClick(differ.getCurrentList().get(position).getRestaurant());
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull RestaurantViewholder holder, int position) {
-        RestaurantListFragment.RestaurantAndWorkmates restaurantAndWorkmates = restaurantList.get(position);
-
-        Long workmateQuantity = restaurantAndWorkmates.getWorkmatesAtRestaurant();
-        Restaurant restaurant = restaurantAndWorkmates.getRestaurant();
-
-        String type;
-        String address;
-
-        if(restaurant.getTypes() != null){
-            type = restaurant.getTypes().get(0);
-        }else{
-            type = NON_ASSIGNED;
+        RestaurantRow row = differ.getCurrentList().get(position);
+
+        holder.rName.setText(row.getName());
+        holder.rTypeAddress.setText(row.getTypeAddress());
+        holder.rWorkmateQtt.setText(row.getWorkmatesLabel());
+        holder.rDistance.setText(row.getDistanceLabel());
+
+        if (row.getOpenedResId() == R.string.restaurant_is_opened) {
+            holder.rOpened.setText(openedLabel);
+        } else if (row.getOpenedResId() == R.string.restaurant_is_closed) {
+            holder.rOpened.setText(closedLabel);
+        } else {
+            holder.rOpened.setText(RestaurantRow.NON_ASSIGNED);
         }
 
-        if(restaurant.getAddress() != null){
-            address = restaurant.getAddress();
+        if (row.hasRating()){
+            holder.rRating.setVisibility(View.VISIBLE);
+            holder.rRating.setRating(row.getRating());
         }else{
-            address = NON_ASSIGNED;
+            holder.rRating.setVisibility(View.INVISIBLE);
         }
 
-        String rTypeAddressText = type + " - " + address;
-
-        holder.rName.setText(restaurant.getName());
-        holder.rTypeAddress.setText(rTypeAddressText);
-        holder.rWorkmateQtt.setText("(" + workmateQuantity + ")");
-
-        if (restaurant.getLocation() != null){
-            if (currentUserPos != null){
-                Location restaurantLoc = restaurant.getLocation();
-                LatLng restaurantPos = new LatLng(restaurantLoc.getLat(), restaurantLoc.getLng());
-                double distance = SphericalUtil.computeDistanceBetween(currentUserPos, restaurantPos);
-                int roundedDistance = (int) Math.round(distance);
-                holder.rDistance.setText(roundedDistance + "m");
-            }else{
-                holder.rDistance.setText(NON_ASSIGNED);
-            }
-        }else{
-            holder.rDistance.setText(NON_ASSIGNED);
-        }
+        setImageView(row, holder.rImage);
+    }
 
-        if(restaurant.getOpened() != null){
-            if (restaurant.getOpened()){
-                holder.rOpened.setText(context.getString(R.string.restaurant_is_opened));
-            }else{
-                holder.rOpened.setText(context.getString(R.string.restaurant_is_closed));
-            }
-        }else{
-            holder.rOpened.setText(NON_ASSIGNED);
+    /**
+     * Partial bind : when the row only received payloads, the photo and the static texts are kept.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull RestaurantViewholder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
         }
 
-        if (restaurant.getRating() != null){
-            holder.rRating.setRating(restaurant.getRating().floatValue());
-        }else{
-            holder.rRating.setVisibility(View.INVISIBLE);
+        RestaurantRow row = differ.getCurrentList().get(position);
+
+        for (Object payload : payloads) {
+            int changes = (Integer) payload;
+            if ((changes & PAYLOAD_WORKMATES) != 0) {
+                holder.rWorkmateQtt.setText(row.getWorkmatesLabel());
+            }
+            if ((changes & PAYLOAD_DISTANCE) != 0) {
+                holder.rDistance.setText(row.getDistanceLabel());
+            }
         }
+    }
 
-        setImageView(restaurant, holder.rImage);
+    /**
+     * Gets the placeId of the row at the given position.
+     */
+    public String getPlaceIdAt(int position) {
+        return differ.getCurrentList().get(position).getPlaceId();
+    }
 
-        holder.itemView.setOnClickListener(view -> {
-            listener.onItemClick(restaurant);
-        });
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(differ.getCurrentList().get(position).getPlaceId());
     }
 
     @Override
     public int getItemCount() {
-        return restaurantList.size();
+        return differ.getCurrentList().size();
     }
 
     public interface OnItemClickListener {
         void onItemClick(Restaurant restaurant);
     }
 
+    /**
+     * Rows are identified by placeId. When only the workmates count or the distance changed,
+     * a payload is emitted so the photo is not reloaded.
+     */
+    private static final DiffUtil.ItemCallback<RestaurantRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<RestaurantRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RestaurantRow oldItem, @NonNull RestaurantRow newItem) {
+            return Objects.equals(oldItem.getPlaceId(), newItem.getPlaceId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull RestaurantRow oldItem, @NonNull RestaurantRow newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull RestaurantRow oldItem, @NonNull RestaurantRow newItem) {
+            if (!oldItem.hasSameStaticContent(newItem)) {
+                return null;
+            }
+
+            int changes = 0;
+            if (!Objects.equals(oldItem.getWorkmatesLabel(), newItem.getWorkmatesLabel())) {
+                changes |= PAYLOAD_WORKMATES;
+            }
+            if (!Objects.equals(oldItem.getDistanceLabel(), newItem.getDistanceLabel())) {
+                changes |= PAYLOAD_DISTANCE;
+            }
+            return changes;
+        }
+    };
+
 
     static class RestaurantViewholder extends RecyclerView.ViewHolder{
         private final TextView rName, rTypeAddress, rDistance, rWorkmateQtt, rOpened;
@@ -158,24 +199,19 @@ public class RestaurantAdapter extends RecyclerView.Adapter<RestaurantAdapter.Re
     }
 
     /**
-     * Sets the restaurant's image in the ImageView using the first photo reference.
-     * The photo is loaded from the Google Places API using Glide.
-     * If the image cannot be loaded, a default "image not found" placeholder is displayed.
+     * Sets the restaurant's image in the ImageView using the precomputed photo URL.
+     * If the restaurant has no photo, a default placeholder is displayed.
      */
-    private void setImageView(Restaurant restaurant, ImageView imageView) {
-        String photoUrl = null;
-
-        if (restaurant.getPhotos() != null) {
-            Photo first_photo = restaurant.getPhotos().get(0);
-            String photoReference = first_photo.getPhotoReference();
-
-            String apiKey = BuildConfig.GOOGLE_MAPS_API_KEY;
-            photoUrl = "https://maps.googleapis.com/maps/api/place/photo?maxwidth=400&photoreference=" + photoReference + "&key=" + apiKey;
+    private void setImageView(RestaurantRow row, ImageView imageView) {
+        if (row.getPhotoUrl() != null) {
+            Glide.with(context)
+                    .load(row.getPhotoUrl())
+                    .into(imageView);
+        } else {
+            Glide.with(context)
+                    .load(R.drawable.restaurant_sample)
+                    .into(imageView);
         }
-
-        Glide.with(context)
-                .load(photoUrl != null ? photoUrl : R.drawable.restaurant_sample)
-                .into(imageView);
     }
 }
 
@@ -1,6 +1,5 @@
 package com.julien.go4lunch.view.tabviews;
 
-import android.content.Intent;
 import android.graphics.Color;
 import android.location.Address;
 import android.location.Geocoder;
@@ -10,6 +9,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
+import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -21,10 +21,13 @@ import com.google.android.libraries.places.api.model.Place;
 import com.google.android.libraries.places.api.net.PlacesClient;
 import com.google.android.libraries.places.widget.AutocompleteSupportFragment;
 import com.google.android.libraries.places.widget.listener.PlaceSelectionListener;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
 import com.julien.go4lunch.BuildConfig;
 import com.julien.go4lunch.R;
-import com.julien.go4lunch.model.bo.Lunch;
 import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.ranking.RankKey;
+import com.julien.go4lunch.model.ranking.RestaurantFilter;
 import com.julien.go4lunch.view.DetailsActivity;
 import com.julien.go4lunch.viewmodel.MyViewModel;
 import com.julien.go4lunch.viewmodel.ViewModelFactory;
@@ -32,9 +35,10 @@ import com.julien.go4lunch.viewmodel.ViewModelFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Set;
 
 public class RestaurantListFragment extends Fragment implements RestaurantAdapter.OnItemClickListener {
 
@@ -43,11 +47,12 @@ public class RestaurantListFragment extends Fragment implements RestaurantAdapte
     private MyViewModel viewModel;
     private Geocoder geocoder;
     private TabActivity parentActivity;
-    private boolean isLookingForPlaces = false;
 
     // VIEWS
     private AutocompleteSupportFragment acsf;
     private RestaurantAdapter adapter;
+    private RecyclerView recyclerView;
+    private LinearLayoutManager layoutManager;
 
     public RestaurantListFragment() {
         // Required empty public constructor
@@ -62,90 +67,167 @@ public class RestaurantListFragment extends Fragment implements RestaurantAdapte
         parentActivity = (TabActivity) getActivity();
         geocoder = new Geocoder(requireContext());
 
-        // Get ViewModel
-        viewModel = new ViewModelProvider(this, ViewModelFactory.getInstance()).get(MyViewModel.class);
+        // Get ViewModel, shared with the other tabs
+        viewModel = new ViewModelProvider(requireActivity(), ViewModelFactory.getInstance()).get(MyViewModel.class);
 
         // Initialize Recycler Views
-        RecyclerView recyclerView = view.findViewById(R.id.recyclerView);
+        recyclerView = view.findViewById(R.id.recyclerView);
         adapter = new RestaurantAdapter(this);
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(adapter);
+        configurePrefetchOnIdle();
 
         // Views
         acsf = parentActivity.acsf;
-
-        // Observe GPS Status & Configure places search bar
-        observeGpsStatus();
+        configureSortChipGroup(view.findViewById(R.id.sortChipGroup));
+        configureFilterChipGroup(view.findViewById(R.id.filterChipGroup));
+
+        // Observe precomputed rows & Configure places search bar
+        // The rows are projected from the nearby restaurants shared with the map, switching tab sends no request
+        viewModel.getRestaurantRows().observe(getViewLifecycleOwner(), rows -> {
+            adapter.updateRestaurantList(rows);
+            recyclerView.post(this::prefetchVisibleRestaurantDetails);
+        });
         configureAutocompleteSupportFragment();
 
         return view;
     }
 
     /**
-     * Observes the GPS status and updates the UI accordingly.
-     *
-     * If the GPS status is valid, it updates the current user's position and fetches
-     * the relevant restaurant and workmate data for the current location.
+     * The details of the visible rows are prefetched once the list stops scrolling,
+     * they are the restaurants most likely to be opened next.
      */
-    private void observeGpsStatus() {
-        viewModel.getGPSStatus().observe(getViewLifecycleOwner(), gpsStatus -> {
-            if (gpsStatus.isQuerying() || !gpsStatus.isHasGPSPermission()) {
-                Log.i(TAG, "GPS Status - waiting for current position");
-            } else {
-                double latitude = gpsStatus.getLatitude();
-                double longitude = gpsStatus.getLongitude();
+    private void configurePrefetchOnIdle() {
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    prefetchVisibleRestaurantDetails();
+                }
+            }
+        });
+    }
 
-                adapter.updateCurrentUserPos(latitude, longitude);
+    private void prefetchVisibleRestaurantDetails() {
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last >= adapter.getItemCount()) {
+            return;
+        }
+
+        List<String> placeIds = new ArrayList<>();
+        for (int position = first; position <= last; position++) {
+            placeIds.add(adapter.getPlaceIdAt(position));
+        }
+        viewModel.prefetchRestaurantDetails(placeIds);
+    }
 
-                fetchRestaurantAndWorkmatesAtRestaurant(latitude, longitude);
+    /**
+     * Configures the chips used to rank the restaurant list.
+     * The ranking is done by the ViewModel, no new request is sent when the key changes.
+     */
+    private void configureSortChipGroup(ChipGroup sortChipGroup) {
+        sortChipGroup.check(chipIdOf(viewModel.getRankKey()));
+
+        sortChipGroup.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (!checkedIds.isEmpty()) {
+                RankKey rankKey = rankKeyOf(checkedIds.get(0));
+                Log.i(TAG, "Restaurant list ranked by " + rankKey);
+                viewModel.setRankKey(rankKey);
             }
         });
     }
 
+    private RankKey rankKeyOf(int chipId) {
+        if (chipId == R.id.chipSortRating) {
+            return RankKey.RATING;
+        } else if (chipId == R.id.chipSortWorkmates) {
+            return RankKey.WORKMATES;
+        } else if (chipId == R.id.chipSortOpenNow) {
+            return RankKey.OPEN_NOW;
+        } else if (chipId == R.id.chipSortLiked) {
+            return RankKey.LIKED;
+        }
+        return RankKey.DISTANCE;
+    }
+
+    private int chipIdOf(RankKey rankKey) {
+        switch (rankKey) {
+            case RATING:
+                return R.id.chipSortRating;
+            case WORKMATES:
+                return R.id.chipSortWorkmates;
+            case OPEN_NOW:
+                return R.id.chipSortOpenNow;
+            case LIKED:
+                return R.id.chipSortLiked;
+            default:
+                return R.id.chipSortDistance;
+        }
+    }
+
     /**
-     * Fetches restaurants and workmates at a specific location (latitude, longitude).
-     * This method retrieves a list of restaurants within a 500-meter radius,
-     * and then associates each restaurant with the number of workmates who have selected it for lunch today.
-     * The result is updated in the adapter.
+     * Configures the chips used to filter the restaurant list, one chip is added per cuisine type
+     * of the current restaurants. Filtering is done on the current snapshot, without any new request.
      */
-    private void fetchRestaurantAndWorkmatesAtRestaurant(double latitude, double longitude) {
-        String location = latitude + "," + longitude;
-
-        viewModel.getAllRestaurants(location, 500, "restaurant").observe(getViewLifecycleOwner(), restaurants -> {
+    private void configureFilterChipGroup(ChipGroup filterChipGroup) {
+        RestaurantFilter filter = viewModel.getRestaurantFilter();
+        ((Chip) filterChipGroup.findViewById(R.id.chipFilterOpenNow)).setChecked(filter.isOpenNow());
+        ((Chip) filterChipGroup.findViewById(R.id.chipFilterTopRated)).setChecked(filter.isTopRated());
+        ((Chip) filterChipGroup.findViewById(R.id.chipFilterWorkmates)).setChecked(filter.isWithWorkmates());
 
-            viewModel.fetchTodayLunches().observe(getViewLifecycleOwner(), lunches -> {
+        filterChipGroup.setOnCheckedStateChangeListener((group, checkedIds) -> updateRestaurantFilter(group));
 
-                List<RestaurantAndWorkmates> workmatesAtRestaurant = new ArrayList<>();
-                List<String> restaurantNameList = new ArrayList<>();
+        viewModel.getRestaurantTypes().observe(getViewLifecycleOwner(), types -> {
+            Set<String> checkedTypes = viewModel.getRestaurantFilter().getTypes();
 
-                for (Lunch lunch : lunches){
-                    String restaurantName = lunch.getRestaurant().getName().trim().toLowerCase();
-                    restaurantNameList.add(restaurantName);
+            // Type chips are the only ones with a tag
+            for (int i = filterChipGroup.getChildCount() - 1; i >= 0; i--) {
+                if (filterChipGroup.getChildAt(i).getTag() != null) {
+                    filterChipGroup.removeViewAt(i);
                 }
+            }
 
-                Map<String, Long> rest = restaurantNameList.stream()
-                        .collect(Collectors.groupingBy(name -> name, Collectors.counting()));
-
-                // Set workmates quantity for each restaurant
-                for (Restaurant restaurant : restaurants) {
-                    String restaurantName = restaurant.getName().toLowerCase().trim();
-                    if (!rest.containsKey(restaurantName)) {
-                        RestaurantAndWorkmates restaurantWithoutWorkmates = new RestaurantAndWorkmates(0L, restaurant);
-                        workmatesAtRestaurant.add(restaurantWithoutWorkmates);
-                    } else {
-                        Long workmatesQuantity = rest.get(restaurantName);
-                        Log.i(TAG, "Workmate quantity at " + restaurantName + " -> " + workmatesQuantity);
-                        RestaurantAndWorkmates restaurantWithWorkmates = new RestaurantAndWorkmates(workmatesQuantity, restaurant);
-                        workmatesAtRestaurant.add(restaurantWithWorkmates);
-                    }
-                }
+            for (String type : types) {
+                Chip chip = (Chip) getLayoutInflater().inflate(R.layout.chip_filter_type, filterChipGroup, false);
+                chip.setTag(type);
+                chip.setText(typeLabelOf(type));
+                chip.setChecked(checkedTypes.contains(type));
+                filterChipGroup.addView(chip);
+            }
 
-                adapter.updateRestaurantList(workmatesAtRestaurant);
-                isLookingForPlaces = false;
-            });
+            // Types missing from the new restaurants are not filtered anymore
+            updateRestaurantFilter(filterChipGroup);
         });
     }
 
+    private void updateRestaurantFilter(ChipGroup filterChipGroup) {
+        Set<String> types = new HashSet<>();
+        for (int i = 0; i < filterChipGroup.getChildCount(); i++) {
+            Chip chip = (Chip) filterChipGroup.getChildAt(i);
+            if (chip.getTag() != null && chip.isChecked()) {
+                types.add((String) chip.getTag());
+            }
+        }
+
+        RestaurantFilter filter = new RestaurantFilter(
+                ((Chip) filterChipGroup.findViewById(R.id.chipFilterOpenNow)).isChecked(),
+                ((Chip) filterChipGroup.findViewById(R.id.chipFilterTopRated)).isChecked(),
+                ((Chip) filterChipGroup.findViewById(R.id.chipFilterWorkmates)).isChecked(),
+                types
+        );
+        viewModel.setRestaurantFilter(filter);
+    }
+
+    /**
+     * Turns a Places type such as "meal_takeaway" into "Meal takeaway"
+     */
+    private String typeLabelOf(String type) {
+        String label = type.replace('_', ' ');
+        return label.substring(0, 1).toUpperCase(Locale.getDefault()) + label.substring(1);
+    }
+
     /**
      * Configures the AutocompleteSupportFragment to allow users to search for restaurants.
      * This method initializes the Google Places API, sets up the AutocompleteSupportFragment's appearance,
@@ -175,74 +257,26 @@ public class RestaurantListFragment extends Fragment implements RestaurantAdapte
                     throw new RuntimeException(e);
                 }
 
-                isLookingForPlaces = true;
-
                 double latitude = addresses.get(0).getLatitude();
                 double longitude = addresses.get(0).getLongitude();
 
                 Log.i(TAG, "Place Position, Lat : " + latitude + " - Long : " + longitude);
 
-                adapter.updateCurrentUserPos(latitude, longitude);
-                fetchRestaurantAndWorkmatesAtRestaurant(latitude, longitude);
+                viewModel.searchPlace(latitude, longitude);
                 parentActivity.resetTopBarViews();
             }
 
             @Override
             public void onError(Status status) {
                 parentActivity.resetTopBarViews();
-                isLookingForPlaces = false;
             }
         });
     }
 
-    /**
-     * Lifecycle : VERY IMPORTANT FOR GPS TRACKING !
-     **/
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (viewModel != null) {
-            if (!isLookingForPlaces){
-                Log.i(TAG, "On Resume called - GPS refresh");
-                viewModel.refresh();
-            }
-        }
-    }
-
     @Override
     public void onItemClick(Restaurant restaurant) {
         Log.i(TAG, "Restaurant in list has been clicked - restaurant : " + restaurant.getName());
 
-        Intent intent = new Intent(getActivity(), DetailsActivity.class);
-        intent.putExtra("RESTAURANT", restaurant);
-        startActivity(intent);
-    }
-
-    /**
-     * A model that links the number of workmates present at a restaurant with the restaurant itself.
-     */
-    public static class RestaurantAndWorkmates {
-        private final Long workmatesAtRestaurant;
-        private final Restaurant restaurant;
-
-        public RestaurantAndWorkmates(Long workmatesAtRestaurant, Restaurant restaurant) {
-            this.workmatesAtRestaurant = workmatesAtRestaurant;
-            this.restaurant = restaurant;
-        }
-
-        /**
-         * Gets the number of workmates present at the restaurant.
-         */
-        public Long getWorkmatesAtRestaurant() {
-            return workmatesAtRestaurant;
-        }
-
-        /**
-         * Gets the restaurant instance.
-         */
-
-        public Restaurant getRestaurant() {
-            return restaurant;
-        }
+        startActivity(DetailsActivity.newIntent(requireContext(), restaurant));
     }
 }
\ No newline at end of file
@@ -1,11 +1,8 @@
 package com.julien.go4lunch.view.tabviews;
 
 import android.Manifest;
-import android.app.AlarmManager;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
-import android.app.PendingIntent;
-import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.res.ColorStateList;
@@ -27,7 +24,15 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.core.app.ActivityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
 
 import com.firebase.ui.auth.AuthUI;
 import com.google.android.libraries.places.widget.AutocompleteSupportFragment;
@@ -37,10 +42,12 @@ import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 import com.julien.go4lunch.R;
+import com.julien.go4lunch.model.bo.Lunch;
 import com.julien.go4lunch.model.bo.Restaurant;
 import com.julien.go4lunch.model.bo.Workmate;
 import com.julien.go4lunch.model.seed.Seeder;
-import com.julien.go4lunch.utils.AlarmReceiver;
+import com.julien.go4lunch.utils.LunchReminderScheduler;
+import com.julien.go4lunch.utils.LunchWarmUpWorker;
 import com.julien.go4lunch.view.AuthActivity;
 import com.julien.go4lunch.view.DetailsActivity;
 import com.julien.go4lunch.view.SettingsActivity;
@@ -48,6 +55,7 @@ import com.julien.go4lunch.viewmodel.MyViewModel;
 import com.julien.go4lunch.viewmodel.ViewModelFactory;
 
 import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This activity serves as the central hub of the Go4Lunch application, allowing users to search for
@@ -65,6 +73,9 @@ public class TabActivity extends AppCompatActivity {
     public static final String CHANNEL_ID = "1";
     public static boolean NOTIFICATION_DEBUG = true;
 
+    // CACHE WARM-UP
+    private static final String CACHE_WARM_UP_WORK = "cache_warm_up";
+
     // UTILS
     private TabActivity ta;
     private final String TAG = "TabActivity";
@@ -90,12 +101,13 @@ public class TabActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_tab);
 
-        // Seeder.initDbSeeding(this);
+        // Seeder.initDbSeeding();
+        // Seeder.seedForScale(this, Seeder.SCALE_WORKMATES, Seeder.SCALE_LUNCHES);
 
         // Initialize utility references and fragments
         ta = this;
         viewModel = new ViewModelProvider(this, ViewModelFactory.getInstance()).get(MyViewModel.class);
-        workmatesFragment = new WorkmatesFragment(viewModel);
+        workmatesFragment = new WorkmatesFragment();
         mapsFragment = new MapsFragment();
         restaurantListFragment = new RestaurantListFragment();
 
@@ -114,8 +126,31 @@ public class TabActivity extends AppCompatActivity {
         // GPS Location permissions
         askForPermission();
 
-        // Configure Alarm
-        configureAlarm();
+        // Configure Lunch Reminder
+        configureLunchReminder();
+
+        // Warm the caches before noon
+        configureCacheWarmUp();
+    }
+
+    /**
+     * Lifecycle : VERY IMPORTANT FOR GPS TRACKING !
+     * The ViewModel is shared by every tab, so the GPS is refreshed once here instead of in each fragment.
+     **/
+    @Override
+    protected void onResume() {
+        super.onResume();
+        Log.i(TAG, "On Resume called - GPS refresh");
+        viewModel.refresh();
+    }
+
+    /**
+     * The location keeps being sampled in background, but passively, until the activity resumes.
+     **/
+    @Override
+    protected void onStop() {
+        super.onStop();
+        viewModel.onBackground();
     }
 
     /**
@@ -220,15 +255,20 @@ public class TabActivity extends AppCompatActivity {
         // Set item click listener for drawer menu
         navigationView.setNavigationItemSelectedListener(item -> {
             if (item.getItemId() == R.id.nav_lunch) {
-                viewModel.getTodayLunch(viewModel.getCurrentWorkmate().getUid()).observe(ta, lunch -> {
-                    if (lunch != null) {
-                        Restaurant chosenRestaurant = lunch.getRestaurant();
-
-                        Intent intent = new Intent(ta, DetailsActivity.class);
-                        intent.putExtra("RESTAURANT", chosenRestaurant);
-                        startActivity(intent);
-                    } else {
-                        Toast.makeText(ta, "NO LUNCH PLANNED", Toast.LENGTH_LONG).show();
+                // The today lunch is cached by the ViewModel : only the first value is used for this click
+                LiveData<Lunch> todayLunch = viewModel.getTodayLunch(viewModel.getCurrentWorkmate().getUid());
+                todayLunch.observe(ta, new Observer<Lunch>() {
+                    @Override
+                    public void onChanged(Lunch lunch) {
+                        todayLunch.removeObserver(this);
+
+                        if (lunch != null) {
+                            Restaurant chosenRestaurant = lunch.getRestaurant();
+
+                            startActivity(DetailsActivity.newIntent(ta, chosenRestaurant));
+                        } else {
+                            Toast.makeText(ta, "NO LUNCH PLANNED", Toast.LENGTH_LONG).show();
+                        }
                     }
                 });
             } else if (item.getItemId() == R.id.nav_settings) {
@@ -324,20 +364,18 @@ public class TabActivity extends AppCompatActivity {
 
 
     /**
-     * Configures a daily alarm to trigger notifications using the AlarmManager.
-     *
-     * This method sets up a notification channel (required for Android O and above)
-     * and schedules an alarm that sends a broadcast to the `AlarmReceiver` at a specified time
-     * every day. The time is set to 12:00 PM by default but can be adjusted for debugging purposes.
+     * Configures the lunch reminder.
      *
-     * Debug mode (`NOTIFICATION_DEBUG`) can be used to trigger the alarm 10 seconds from the current time.
+     * This method sets up a notification channel (required for Android O and above).
+     * The reminder itself is scheduled by `LunchReminderScheduler` when a lunch is chosen,
+     * the daily reminder of the previous versions is cancelled.
      */
-    private void configureAlarm() {
+    private void configureLunchReminder() {
 
         // Create a notification channel
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
 
-            Log.d(TAG, "configureAlarm: Creating notification channel");
+            Log.d(TAG, "configureLunchReminder: Creating notification channel");
 
             // Create the NotificationChannel
             NotificationChannel channel = new NotificationChannel(
@@ -350,39 +388,38 @@ public class TabActivity extends AppCompatActivity {
             getSystemService(NotificationManager.class).createNotificationChannel(channel);
         }
 
-        // Get calendar instance to day
-        Calendar calendar = Calendar.getInstance();
-
-        if (!NOTIFICATION_DEBUG) {
-            // Set the alarm to start at 12:00
-            calendar.set(Calendar.HOUR_OF_DAY, 12);
-            calendar.set(Calendar.MINUTE, 0);
-            calendar.set(Calendar.SECOND, 0);
-            calendar.set(Calendar.MILLISECOND, 0);
-        }
-
-        // Create an Intent to broadcast to the AlarmReceiver
-        Intent intent = new Intent(this, AlarmReceiver.class);
+        WorkManager.getInstance(getApplicationContext()).cancelUniqueWork(LunchReminderScheduler.LEGACY_DAILY_REMINDER_WORK);
+    }
 
-        // Create a PendingIntent to be triggered when the alarm goes off
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                this, // context
-                0, // no need to request code
-                intent, // intent to be triggered
-                PendingIntent.FLAG_IMMUTABLE // PendingIntent flag
-        );
+    /**
+     * Schedules the `LunchWarmUpWorker` every day at 11:30, on an unmetered network,
+     * so that the caches are warm when the app is opened for lunch. The worker skips the weekend.
+     */
+    private void configureCacheWarmUp() {
 
-        // Get the AlarmManager service
-        AlarmManager alarmManager = (AlarmManager) getSystemService(Context.ALARM_SERVICE);
+        // Next 11:30, today or tomorrow
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 11);
+        calendar.set(Calendar.MINUTE, 30);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (calendar.getTimeInMillis() <= System.currentTimeMillis()) {
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
 
-        // Set the alarm to repeat every day
-        // Warning : the alarm is not exact, it can be delayed by the system up to few minutes
-        alarmManager.setRepeating(
-                AlarmManager.RTC_WAKEUP, // alarm type
-                NOTIFICATION_DEBUG ? System.currentTimeMillis() + 10000 : calendar.getTimeInMillis(), // time to start
-                AlarmManager.INTERVAL_DAY, // interval
-                pendingIntent // pending intent
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .build();
+
+        // Kept if already scheduled, so that the warm-up time does not drift on every launch
+        WorkManager.getInstance(getApplicationContext()).enqueueUniquePeriodicWork(
+                CACHE_WARM_UP_WORK,
+                ExistingPeriodicWorkPolicy.KEEP,
+                new PeriodicWorkRequest.Builder(LunchWarmUpWorker.class, 1, TimeUnit.DAYS)
+                        .setInitialDelay(calendar.getTimeInMillis() - System.currentTimeMillis(), TimeUnit.MILLISECONDS)
+                        .setConstraints(constraints)
+                        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                        .build()
         );
-
     }
-}
\ No newline at end of file
+}
@@ -9,13 +9,18 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.julien.go4lunch.R;
+import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.Restaurant;
 import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.utils.StableIds;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter class for managing and displaying a list of workmates and their selected lunch information
@@ -23,25 +28,33 @@ import java.util.List;
  */
 public class WorkmateAdapter extends RecyclerView.Adapter<WorkmateAdapter.WorkmateViewHolder> {
 
+    // PAYLOADS (bit flags of the parts of the row that changed)
+    static final int PAYLOAD_LUNCH = 1;
+    static final int PAYLOAD_AVATAR_LETTER = 1 << 1;
+
     /**
-     * List of pairs containing workmate information and their associated lunch (if any).
+     * List of pairs containing workmate information and their associated lunch (if any),
+     * diffed on a background thread.
      */
-    private List<WorkmatesFragment.WorkmateLunchPair> workmateLunchPair;
+    private final AsyncListDiffer<WorkmatesFragment.WorkmateLunchPair> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+
+    /**
+     * Stable item ids keyed by workmate uid.
+     */
+    private final StableIds stableIds = new StableIds();
 
     /**
      * Constructor for the WorkmateAdapter.
-     * Initializes the internal list of workmate-lunch pairs as an empty list.
      */
     public WorkmateAdapter() {
-        workmateLunchPair = new ArrayList<>();
+        setHasStableIds(true);
     }
 
     /**
-     * Updates the adapter's data set with a new list of workmate-lunch pairs and refreshes the RecyclerView.
+     * Submits a new list of workmate-lunch pairs, only the rows that changed are rebound.
      */
     void updateWorkmatesList(List<WorkmatesFragment.WorkmateLunchPair> workmateLunchPair) {
-        this.workmateLunchPair = workmateLunchPair;
-        notifyDataSetChanged();
+        differ.submitList(workmateLunchPair);
     }
 
 
@@ -62,12 +75,46 @@ public class WorkmateAdapter extends RecyclerView.Adapter<WorkmateAdapter.Workma
      */
     @Override
     public void onBindViewHolder(@NonNull WorkmateViewHolder holder, int position) {
-        WorkmatesFragment.WorkmateLunchPair pair = workmateLunchPair.get(position);
+        WorkmatesFragment.WorkmateLunchPair pair = differ.getCurrentList().get(position);
+
+        bindLunch(holder, pair);
+
+        holder.wAvatar.setText(firstLetterOf(pair));
+        String hexColor = Workmate.getRandomHexColorFromPalette();
+        holder.wAvatar.setBackgroundTintList(ColorStateList.valueOf(Color.parseColor(hexColor)));
+    }
+
+
+    /**
+     * Partial bind : when the row only received payloads, the avatar color is kept.
+     * A change of a field the row does not show comes without any flag, nothing is bound again.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull WorkmateViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        WorkmatesFragment.WorkmateLunchPair pair = differ.getCurrentList().get(position);
+
+        for (Object payload : payloads) {
+            int changes = (Integer) payload;
+            if ((changes & PAYLOAD_LUNCH) != 0) {
+                bindLunch(holder, pair);
+            }
+            if ((changes & PAYLOAD_AVATAR_LETTER) != 0) {
+                holder.wAvatar.setText(firstLetterOf(pair));
+            }
+        }
+    }
 
-        // Get workmate name
+    /**
+     * Set text based on whether the workmate has chosen a lunch or not.
+     */
+    private void bindLunch(WorkmateViewHolder holder, WorkmatesFragment.WorkmateLunchPair pair) {
         String workmateName = pair.getWorkmate().getName();
 
-        // Set text based on whether the workmate has chosen a lunch or not
         if (pair.getLunch() == null) {
             String text = holder.itemView.getContext().getString(R.string.workmate_undecided_message, workmateName);
             holder.wName.setText(text);
@@ -77,7 +124,8 @@ public class WorkmateAdapter extends RecyclerView.Adapter<WorkmateAdapter.Workma
             holder.wName.setTypeface(null, Typeface.ITALIC);
         } else {
             String restaurantName = pair.getLunch().getRestaurant().getName();
-            String restaurantType = pair.getLunch().getRestaurant().getTypes().get(0);
+            List<String> types = pair.getLunch().getRestaurant().getTypes();
+            String restaurantType = types != null && !types.isEmpty() ? types.get(0) : "N/A";
 
             String text = holder.itemView.getContext().getString(
                     R.string.workmate_eating_message,
@@ -86,23 +134,79 @@ public class WorkmateAdapter extends RecyclerView.Adapter<WorkmateAdapter.Workma
                     restaurantName
             );
             holder.wName.setText(text);
-        }
 
-        String firstLetter = workmateName.substring(0, 1);
-        holder.wAvatar.setText(firstLetter);
-        String hexColor = Workmate.getRandomHexColorFromPalette();
-        holder.wAvatar.setBackgroundTintList(ColorStateList.valueOf(Color.parseColor(hexColor)));
+            // Reset style, the view may have been recycled from an undecided workmate
+            holder.wName.setTextColor(holder.defaultTextColors);
+            holder.wName.setTypeface(null, Typeface.NORMAL);
+        }
     }
 
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(differ.getCurrentList().get(position).getWorkmate().getUid());
+    }
 
     /**
      * Returns the total number of items managed by the adapter.
      */
     @Override
     public int getItemCount() {
-        return workmateLunchPair.size();
+        return differ.getCurrentList().size();
+    }
+
+    private static String firstLetterOf(WorkmatesFragment.WorkmateLunchPair pair) {
+        return pair.getWorkmate().getName().substring(0, 1);
     }
 
+    /**
+     * Returns the restaurant of a lunch as LunchDao matches it : its placeId, else its name.
+     * Null if the workmate has no lunch.
+     */
+    private static String lunchRestaurantKey(WorkmatesFragment.WorkmateLunchPair pair) {
+        Lunch lunch = pair.getLunch();
+        if (lunch == null || lunch.getRestaurant() == null) {
+            return null;
+        }
+        Restaurant restaurant = lunch.getRestaurant();
+        return restaurant.getId() != null ? restaurant.getId() : "name:" + restaurant.getName();
+    }
+
+    /**
+     * Rows are identified by workmate uid, and compared on what they show : the workmate name and the lunch.
+     */
+    private static final DiffUtil.ItemCallback<WorkmatesFragment.WorkmateLunchPair> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<WorkmatesFragment.WorkmateLunchPair>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull WorkmatesFragment.WorkmateLunchPair oldItem,
+                                               @NonNull WorkmatesFragment.WorkmateLunchPair newItem) {
+                    return Objects.equals(oldItem.getWorkmate().getUid(), newItem.getWorkmate().getUid());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull WorkmatesFragment.WorkmateLunchPair oldItem,
+                                                  @NonNull WorkmatesFragment.WorkmateLunchPair newItem) {
+                    return Objects.equals(oldItem.getWorkmate().getName(), newItem.getWorkmate().getName())
+                            && Objects.equals(lunchRestaurantKey(oldItem), lunchRestaurantKey(newItem));
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull WorkmatesFragment.WorkmateLunchPair oldItem,
+                                               @NonNull WorkmatesFragment.WorkmateLunchPair newItem) {
+                    int changes = 0;
+                    // The workmate name is part of the lunch text
+                    if (!Objects.equals(oldItem.getWorkmate().getName(), newItem.getWorkmate().getName())) {
+                        changes |= PAYLOAD_LUNCH;
+                        if (!firstLetterOf(oldItem).equals(firstLetterOf(newItem))) {
+                            changes |= PAYLOAD_AVATAR_LETTER;
+                        }
+                    }
+                    if (!Objects.equals(lunchRestaurantKey(oldItem), lunchRestaurantKey(newItem))) {
+                        changes |= PAYLOAD_LUNCH;
+                    }
+                    return changes;
+                }
+            };
+
     /**
      * ViewHolder class for displaying workmate and lunch information in the RecyclerView.
      */
@@ -113,6 +217,9 @@ public class WorkmateAdapter extends RecyclerView.Adapter<WorkmateAdapter.Workma
         // Workmate Name
         private final TextView wName;
 
+        // Workmate Name default colors
+        private final ColorStateList defaultTextColors;
+
         /**
          * Constructor for WorkmateViewHolder.
          */
@@ -121,6 +228,7 @@ public class WorkmateAdapter extends RecyclerView.Adapter<WorkmateAdapter.Workma
 
             wAvatar = itemView.findViewById(R.id.wAvatar);
             wName = itemView.findViewById(R.id.wName);
+            defaultTextColors = wName.getTextColors();
         }
     }
 }
@@ -11,6 +11,7 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.Toast;
 
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -18,7 +19,9 @@ import com.google.android.material.textfield.TextInputEditText;
 import com.julien.go4lunch.R;
 import com.julien.go4lunch.model.bo.Lunch;
 import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.utils.LiveDataUtils;
 import com.julien.go4lunch.viewmodel.MyViewModel;
+import com.julien.go4lunch.viewmodel.ViewModelFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -37,16 +40,12 @@ public class WorkmatesFragment extends Fragment {
     private MyViewModel viewModel;
     private TabActivity parentActivity;
     private List<WorkmateLunchPair> currentWorkmatesList;
+    private boolean hasResumed = false;
 
     // VIEWS
     private WorkmateAdapter adapter;
     private TextInputEditText workmatesSearchInput;
 
-    // CONSTRUCTORS
-    public WorkmatesFragment(MyViewModel viewModel) {
-        this.viewModel = viewModel;
-    }
-
     public WorkmatesFragment() {
         // Required empty public constructor
     }
@@ -57,6 +56,7 @@ public class WorkmatesFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_workmates, container, false);
 
         parentActivity = (TabActivity) getActivity();
+        viewModel = new ViewModelProvider(requireActivity(), ViewModelFactory.getInstance()).get(MyViewModel.class);
         workmatesSearchInput = parentActivity.workmatesSearchInput;
 
         RecyclerView recyclerView = view.findViewById(R.id.recyclerView);
@@ -70,40 +70,59 @@ public class WorkmatesFragment extends Fragment {
         return view;
     }
 
+    /**
+     * Back to the tab, the workmates changed meanwhile are synced.
+     * The first resume follows the view creation, which already loads them.
+     */
+    @Override
+    public void onResume() {
+        super.onResume();
+        if (hasResumed) {
+            viewModel.refreshWorkmates();
+        }
+        hasResumed = true;
+    }
+
     /**
      * Refreshes the RecyclerView by observing data from the ViewModel.
-     * Combines each workmate with their corresponding lunch (if available) and updates the adapter.
+     * Workmates and lunches are combined once, each workmate with their lunch (if available), and the adapter
+     * is updated whenever one of them changes.
+     * Workmates and lunches are shared by the tabs, switching tab only syncs the workmates changed meanwhile.
      */
     private void refreshRecyclerView() {
-        viewModel.getAllWorkmates().observe(getViewLifecycleOwner(), workmates -> {
-
-            viewModel.fetchTodayLunches().observe(getViewLifecycleOwner(), lunches -> {
+        LiveDataUtils.combine(viewModel.getAllWorkmates(), viewModel.fetchTodayLunches(), this::toWorkmateLunchPairs)
+                .observe(getViewLifecycleOwner(), pairs -> {
+                    currentWorkmatesList = pairs;
 
-                Map<String, Lunch> lunchMap = new HashMap<>();
+                    adapter.updateWorkmatesList(pairs);
+                });
+    }
 
-                // Associate lunch & workmate
-                for (Lunch lunch : lunches) {
-                    String workmateName = lunch.getWorkmate().getName();
-                    lunchMap.put(workmateName, lunch);
-                }
+    /**
+     * Associates each workmate with their lunch of today, null if they have not chosen one.
+     */
+    private List<WorkmateLunchPair> toWorkmateLunchPairs(List<Workmate> workmates, List<Lunch> lunches) {
+        Map<String, Lunch> lunchMap = new HashMap<>();
 
-                Log.i(TAG, "Lunch map size " + lunchMap.size());
+        // Associate lunch & workmate
+        for (Lunch lunch : lunches) {
+            String workmateName = lunch.getWorkmate().getName();
+            lunchMap.put(workmateName, lunch);
+        }
 
-                List<WorkmateLunchPair> pairs = new ArrayList<>();
+        Log.i(TAG, "Lunch map size " + lunchMap.size());
 
-                // Check if workmate is associated to a lunch ? lunch : null;
-                for (Workmate workmate : workmates){
-                    String workmateName = workmate.getName();
-                    Lunch associatedLunch = lunchMap.get(workmateName);
-                    WorkmateLunchPair pair = new WorkmateLunchPair(workmate, associatedLunch);
-                    pairs.add(pair);
-                }
+        List<WorkmateLunchPair> pairs = new ArrayList<>();
 
-                currentWorkmatesList = pairs;
+        // Check if workmate is associated to a lunch ? lunch : null;
+        for (Workmate workmate : workmates){
+            String workmateName = workmate.getName();
+            Lunch associatedLunch = lunchMap.get(workmateName);
+            WorkmateLunchPair pair = new WorkmateLunchPair(workmate, associatedLunch);
+            pairs.add(pair);
+        }
 
-                adapter.updateWorkmatesList(pairs);
-            });
-        });
+        return pairs;
     }
 
     /**
@@ -0,0 +1,98 @@
+package com.julien.go4lunch.viewmodel;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Memoised LiveData holders, one per key, kept by the ViewModel so that a configuration change
+ * or a new subscription reuses the result in memory instead of sending the request again.
+ *
+ * A holder keeps the same instance when it is invalidated : the request is sent again and the new
+ * result reaches the current observers. The least recently used holders are dropped above maxEntries.
+ * Main thread only.
+ */
+class LiveDataCache<K, V> {
+
+    private static class Entry<K, V> {
+        final MediatorLiveData<V> holder = new MediatorLiveData<>();
+        final Function<K, LiveData<V>> loader;
+        LiveData<V> source;
+
+        Entry(Function<K, LiveData<V>> loader) {
+            this.loader = loader;
+        }
+    }
+
+    private final Map<K, Entry<K, V>> entries;
+
+    LiveDataCache(int maxEntries) {
+        entries = new LinkedHashMap<K, Entry<K, V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<K, V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the holder of the given key, the loader is only called the first time.
+     */
+    LiveData<V> get(K key, Function<K, LiveData<V>> loader) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(loader);
+            entries.put(key, entry);
+            load(key, entry);
+        }
+        return entry.holder;
+    }
+
+    /**
+     * Sends the request of the given key again, if it is cached.
+     */
+    void invalidate(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null) {
+            load(key, entry);
+        }
+    }
+
+    /**
+     * Sends the request of every cached key again.
+     */
+    void invalidateAll() {
+        for (Map.Entry<K, Entry<K, V>> entry : entries.entrySet()) {
+            load(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Drops the holder of the given key, the next {@link #get} sends the request again.
+     * The current observers keep the dropped holder.
+     */
+    void evict(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Sets the value of the given key without any request, e.g. after a local write.
+     */
+    void update(K key, V value) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null) {
+            entry.holder.setValue(value);
+        }
+    }
+
+    private void load(K key, Entry<K, V> entry) {
+        if (entry.source != null) {
+            entry.holder.removeSource(entry.source);
+        }
+        entry.source = entry.loader.apply(key);
+        entry.holder.addSource(entry.source, entry.holder::setValue);
+    }
+}
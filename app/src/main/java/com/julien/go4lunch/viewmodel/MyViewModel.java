@@ -13,22 +13,45 @@ import androidx.core.content.ContextCompat;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 
+import com.google.android.gms.maps.model.LatLng;
 import com.julien.go4lunch.MainApplication;
 import com.julien.go4lunch.model.bo.GPSStatus;
 import com.julien.go4lunch.model.bo.Lunch;
 import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.RestaurantAndWorkmates;
 import com.julien.go4lunch.model.bo.Workmate;
+import com.julien.go4lunch.model.ranking.RankKey;
+import com.julien.go4lunch.model.ranking.RestaurantFacets;
+import com.julien.go4lunch.model.ranking.RestaurantFilter;
+import com.julien.go4lunch.model.ranking.RestaurantIndex;
+import com.julien.go4lunch.model.ranking.RestaurantRanker;
 import com.julien.go4lunch.model.repository.LocationRepository;
 import com.julien.go4lunch.model.repository.LunchRepository;
 import com.julien.go4lunch.model.repository.RestaurantRepository;
+import com.julien.go4lunch.model.repository.RestaurantSnapshot;
+import com.julien.go4lunch.model.repository.SnapshotRepository;
+import com.julien.go4lunch.model.repository.ViewportRepository;
 import com.julien.go4lunch.model.repository.WorkmateRepository;
-
+import com.julien.go4lunch.utils.AppExecutors;
+import com.julien.go4lunch.utils.LiveDataUtils;
+import com.julien.go4lunch.utils.LunchReminderScheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
- * ViewModel that includes GPS LiveData
+ * ViewModel that includes GPS LiveData.
+ * Scoped to TabActivity : every tab shares the same location stream and the same nearby restaurants.
  */
 public class MyViewModel extends ViewModel {
 
@@ -53,6 +76,21 @@ public class MyViewModel extends ViewModel {
      */
     private final WorkmateRepository workmateRepository;
 
+    /**
+     * Last viewport, to start searching before the first GPS fix
+     */
+    private final ViewportRepository viewportRepository;
+
+    /**
+     * Last rendered nearby restaurants, to render before Places and Firestore answer
+     */
+    private final SnapshotRepository snapshotRepository;
+
+    /**
+     * Today's lunch reminder, scheduled only while a lunch is planned and notifications are enabled
+     */
+    private final LunchReminderScheduler lunchReminderScheduler;
+
     /**
      * LiveData that indicates if the app has GPS permission
      * MutableLiveData is a subclass of LiveData thats exposes the setValue and postValue methods
@@ -68,15 +106,128 @@ public class MyViewModel extends ViewModel {
      */
     private final MediatorLiveData<GPSStatus> gpsMessageLiveData = new MediatorLiveData<>();
 
+    /**
+     * Nearby restaurants search
+     */
+    public static final int NEARBY_RADIUS_METERS = 500;
+    public static final String NEARBY_TYPE = "restaurant";
+
+    /**
+     * Below this displacement, a new search position is ignored
+     */
+    private static final float SEARCH_POSITION_MIN_MOVE_METERS = 5;
+
+    /**
+     * Below this displacement from the search position, a GPS fix does not trigger a new search.
+     * The search radius is 500 meters, the nearby restaurants are still relevant.
+     */
+    private static final float GPS_SEARCH_MIN_MOVE_METERS = 100;
+
+    /**
+     * Below this displacement from the last ranking origin, a GPS fix does not re-rank the restaurant list.
+     * Above, the list is re-ranked from the fix : within 100 meters the ranker reuses its previous ranking.
+     */
+    private static final float GPS_RANK_MIN_MOVE_METERS = 10;
+
+    /**
+     * Position the nearby restaurants are searched around, set by the GPS, the map camera or a place search
+     */
+    private final MediatorLiveData<LatLng> searchPositionLiveData = new MediatorLiveData<>();
+    private boolean followingGps = true;
+
+    /**
+     * Nearby restaurants joined with the number of workmates having lunch there today, shared by the map and the list.
+     * Switched on every search position : the request of the previous position is cancelled and its result dropped.
+     * Until the first live result, the restaurants of the disk snapshot are emitted. The snapshot is read
+     * when the map or the list first observes, not by the ViewModels of the other screens.
+     */
+    private final MediatorLiveData<List<RestaurantAndWorkmates>> nearbyRestaurantsLiveData = new MediatorLiveData<List<RestaurantAndWorkmates>>() {
+        @Override
+        protected void onActive() {
+            super.onActive();
+            readSnapshotOnce();
+        }
+    };
+    private boolean snapshotRead = false;
+
+    /**
+     * Last snapshot written, the lunches joined to its restaurants do not make it outdated
+     */
+    private RestaurantSnapshot writtenSnapshot;
+
+    /**
+     * Memoised results, kept across configuration changes and shared by every observer of a same key.
+     * Restaurant results are keyed by placeId, by name for the restaurants without one, lunch results by workmate uid.
+     */
+    private static final String ALL = "all";
+    private final LiveDataCache<String, List<Lunch>> todayLunchesCache = new LiveDataCache<>(1);
+    private final LiveDataCache<String, Lunch> todayLunchByWorkmateCache = new LiveDataCache<>(10);
+    private final LiveDataCache<String, List<Workmate>> workmatesAtRestaurantCache = new LiveDataCache<>(20);
+    private final LiveDataCache<String, Boolean> hasChosenRestaurantCache = new LiveDataCache<>(20);
+    private final LiveDataCache<String, List<Workmate>> workmatesCache = new LiveDataCache<>(1);
+    private final LiveDataCache<String, Boolean> likedRestaurantCache = new LiveDataCache<>(20);
+    private final LiveDataCache<String, Boolean> notificationEnabledCache = new LiveDataCache<>(1);
+    private final LiveDataCache<String, List<Restaurant>> restaurantsCache = new LiveDataCache<>(20);
+    private final LiveDataCache<String, Restaurant> restaurantDetailCache = new LiveDataCache<>(50);
+
+    /**
+     * Longest wait for the requests of the details screen before its first state
+     */
+    private static final long DETAILS_DEADLINE_MILLIS = 1500;
+
+    /**
+     * Maximum number of restaurant details prefetched at once, the visible rows of the list
+     */
+    private static final int PREFETCH_DETAILS_MAX = 3;
+
+    /**
+     * Maximum number of restaurants displayed in the list
+     */
+    private static final int RESTAURANT_LIST_SIZE = 50;
+
+    /**
+     * Precomputed rows of the restaurant list, built off the main thread.
+     * The generation counter drops the result of a projection when a newer one was requested.
+     */
+    private final MediatorLiveData<List<RestaurantRow>> restaurantRowsLiveData = new MediatorLiveData<>();
+    private final AtomicInteger restaurantRowsGeneration = new AtomicInteger();
+
+    /**
+     * Cuisine types of the current restaurant list, most frequent first
+     */
+    private final MutableLiveData<List<String>> restaurantTypesLiveData = new MutableLiveData<>();
+
+    /**
+     * Last inputs of the restaurant list projection (main thread)
+     */
+    private List<RestaurantAndWorkmates> projectedRestaurants;
+    private double projectedLatitude, projectedLongitude;
+    private RankKey rankKey = RankKey.DISTANCE;
+    private RestaurantFilter restaurantFilter = RestaurantFilter.NONE;
+    private Set<String> likedRestaurantIds;
+    private LiveData<Set<String>> likedRestaurantIdsSource;
+
+    /**
+     * Ranker and facets of the current restaurant list, only accessed from the background executor
+     */
+    private RestaurantRanker restaurantRanker;
+    private RestaurantFacets restaurantFacets;
+
     /**
      * Constructor
      * @param locationRepository LocationRepository instance to get GPS location
+     * @param viewportRepository ViewportRepository instance to start from the last searched position
+     * @param snapshotRepository SnapshotRepository instance to start from the last rendered restaurants
+     * @param lunchReminderScheduler LunchReminderScheduler instance to schedule today's reminder
      */
-    public MyViewModel(@NonNull LocationRepository locationRepository, LunchRepository lunchRepository, RestaurantRepository restaurantRepository, WorkmateRepository workmateRepository) {
+    public MyViewModel(@NonNull LocationRepository locationRepository, LunchRepository lunchRepository, RestaurantRepository restaurantRepository, WorkmateRepository workmateRepository, ViewportRepository viewportRepository, SnapshotRepository snapshotRepository, LunchReminderScheduler lunchReminderScheduler) {
         this.locationRepository = locationRepository;
         this.lunchRepository = lunchRepository;
         this.restaurantRepository = restaurantRepository;
         this.workmateRepository = workmateRepository;
+        this.viewportRepository = viewportRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.lunchReminderScheduler = lunchReminderScheduler;
 
         // get the Location LiveData from the LocationRepository
         LiveData<Location> locationLiveData = locationRepository.getLocationLiveData();
@@ -88,12 +239,63 @@ public class MyViewModel extends ViewModel {
         gpsMessageLiveData.addSource(hasGpsPermissionLiveData, hasGpsPermission ->
                 combine(locationLiveData.getValue(), hasGpsPermission)
         );
+
+        // Start from the last viewport, the first GPS fix refines it if the user is elsewhere
+        LatLng lastViewport = viewportRepository.getLastViewport();
+        if (lastViewport != null) {
+            Log.i("SearchPosition", "Search position seeded from the last viewport : " + lastViewport);
+            searchPositionLiveData.setValue(lastViewport);
+        }
+
+        // GPS fixes move the search position,
+        // they are gated : distinct until the user really moved, so that a fix does not always mean a new fetch
+        searchPositionLiveData.addSource(gpsMessageLiveData, gpsStatus -> {
+            if (followingGps && hasGpsFix(gpsStatus)
+                    && hasMovedFromSearchPosition(gpsStatus.getLatitude(), gpsStatus.getLongitude(), GPS_SEARCH_MIN_MOVE_METERS)) {
+                setSearchPosition(gpsStatus.getLatitude(), gpsStatus.getLongitude());
+            }
+        });
+
+        // Latest position wins : switchMap drops the pipeline of the previous position,
+        // which cancels its Places request if the response did not arrive yet
+        LiveData<List<RestaurantAndWorkmates>> liveNearbyRestaurantsLiveData = Transformations.switchMap(searchPositionLiveData, position -> {
+            String location = position.latitude + "," + position.longitude;
+            return LiveDataUtils.combine(
+                    getAllRestaurants(location, NEARBY_RADIUS_METERS, NEARBY_TYPE),
+                    fetchTodayLunches(),
+                    MyViewModel::joinNearbyRestaurants
+            );
+        });
+
+        // Live results replace the snapshot, and are saved as the next one when the restaurants changed
+        nearbyRestaurantsLiveData.addSource(liveNearbyRestaurantsLiveData, restaurants -> {
+            nearbyRestaurantsLiveData.setValue(restaurants);
+            LatLng position = searchPositionLiveData.getValue();
+            if (isSnapshotOutdated(position, restaurants)) {
+                writtenSnapshot = new RestaurantSnapshot(position.latitude, position.longitude, System.currentTimeMillis(), restaurants);
+                snapshotRepository.write(writtenSnapshot);
+            }
+        });
+
+        // The restaurant list is projected from the shared nearby restaurants,
+        // ranked from the user's GPS fix, or from the search position until there is one
+        restaurantRowsLiveData.addSource(nearbyRestaurantsLiveData, restaurants -> {
+            LatLng origin = getRankingOrigin();
+            projectRestaurantRows(restaurants, origin.latitude, origin.longitude);
+        });
+
+        // Small moves of the user re-rank the current restaurants, without a new search
+        restaurantRowsLiveData.addSource(gpsMessageLiveData, gpsStatus -> {
+            if (projectedRestaurants != null && hasGpsFix(gpsStatus)
+                    && hasMovedFromProjectedPosition(gpsStatus.getLatitude(), gpsStatus.getLongitude(), GPS_RANK_MIN_MOVE_METERS)) {
+                projectRestaurantRows(projectedRestaurants, gpsStatus.getLatitude(), gpsStatus.getLongitude());
+            }
+        });
     }
 
     /**
-     * Refresh the GPS location
-     * This method is called when the user wants to refresh the GPS location
-     * or when the app has GPS permission
+     * Refresh the GPS location, and today lunches if they are out of date
+     * This method is called by TabActivity when it resumes, once for all the tabs sharing this ViewModel
      */
     @SuppressLint("MissingPermission")
     public void refresh() {
@@ -105,13 +307,25 @@ public class MyViewModel extends ViewModel {
 
         hasGpsPermissionLiveData.setValue(hasGpsPermission);
 
-        // if the app has GPS permission, start the location request
+        // if the app has GPS permission, start the location request, it is requested once in the foreground mode
         if (hasGpsPermission) {
             locationRepository.startLocationRequest();
         } else {
             // or else.. stop the location request
             locationRepository.stopLocationRequest();
+            locationRepository.setInBackground(false);
         }
+
+        // Lunch results are observed from the local database, they are only synced again when too old
+        lunchRepository.syncTodayLunchesIfStale();
+    }
+
+    /**
+     * Location is only sampled passively while the app is in background
+     * This method is called by TabActivity when it stops
+     */
+    public void onBackground() {
+        locationRepository.setInBackground(true);
     }
 
     /**
@@ -151,6 +365,274 @@ public class MyViewModel extends ViewModel {
         }
     }
 
+    //region SEARCH POSITION & NEARBY RESTAURANTS
+
+    /**
+     * Get the position the nearby restaurants are searched around
+     */
+    public LiveData<LatLng> getSearchPosition() {
+        return searchPositionLiveData;
+    }
+
+    /**
+     * Get the nearby restaurants with the number of workmates having lunch there today
+     */
+    public LiveData<List<RestaurantAndWorkmates>> getNearbyRestaurants() {
+        return nearbyRestaurantsLiveData;
+    }
+
+    /**
+     * Searches around a place picked by the user, GPS fixes are ignored until {@link #followGps()} is called.
+     */
+    public void searchPlace(double latitude, double longitude) {
+        followingGps = false;
+        setSearchPosition(latitude, longitude);
+    }
+
+    /**
+     * Searches around the GPS position again.
+     */
+    public void followGps() {
+        followingGps = true;
+
+        GPSStatus gpsStatus = gpsMessageLiveData.getValue();
+        if (hasGpsFix(gpsStatus)) {
+            setSearchPosition(gpsStatus.getLatitude(), gpsStatus.getLongitude());
+        }
+    }
+
+    /**
+     * Moves the search position, the nearby restaurants are only fetched again if it really moved.
+     */
+    public void setSearchPosition(double latitude, double longitude) {
+        if (!hasMovedFromSearchPosition(latitude, longitude, SEARCH_POSITION_MIN_MOVE_METERS)) {
+            return;
+        }
+
+        Log.i("SearchPosition", "New search position, Lat : " + latitude + " - Long : " + longitude);
+        LatLng position = new LatLng(latitude, longitude);
+        searchPositionLiveData.setValue(position);
+        viewportRepository.saveViewport(position);
+    }
+
+    private boolean hasMovedFromSearchPosition(double latitude, double longitude, float minMoveMeters) {
+        LatLng current = searchPositionLiveData.getValue();
+        if (current == null) {
+            return true;
+        }
+        float[] distance = new float[1];
+        Location.distanceBetween(current.latitude, current.longitude, latitude, longitude, distance);
+        return distance[0] >= minMoveMeters;
+    }
+
+    /**
+     * Reads the disk snapshot the first time the nearby restaurants are observed.
+     * It is only rendered if nothing live arrived yet, and if it was taken around the search position.
+     */
+    private void readSnapshotOnce() {
+        if (snapshotRead) {
+            return;
+        }
+        snapshotRead = true;
+
+        LiveData<RestaurantSnapshot> snapshotLiveData = snapshotRepository.read();
+        nearbyRestaurantsLiveData.addSource(snapshotLiveData, snapshot -> {
+            nearbyRestaurantsLiveData.removeSource(snapshotLiveData);
+            if (snapshot != null && nearbyRestaurantsLiveData.getValue() == null && searchPositionLiveData.getValue() != null
+                    && !hasMovedFromSearchPosition(snapshot.getLatitude(), snapshot.getLongitude(), GPS_SEARCH_MIN_MOVE_METERS)) {
+                Log.i("SearchPosition", "Nearby restaurants rendered from the snapshot : " + snapshot.getRestaurants().size());
+                nearbyRestaurantsLiveData.setValue(snapshot.getRestaurants());
+            }
+        });
+    }
+
+    /**
+     * The snapshot is written again when the search position or its restaurants changed,
+     * a lunch chosen or cancelled only changes the workmates counts.
+     */
+    private boolean isSnapshotOutdated(LatLng position, List<RestaurantAndWorkmates> restaurants) {
+        RestaurantSnapshot written = writtenSnapshot;
+        if (written == null || written.getLatitude() != position.latitude || written.getLongitude() != position.longitude
+                || written.getRestaurants().size() != restaurants.size()) {
+            return true;
+        }
+        for (int i = 0; i < restaurants.size(); i++) {
+            if (!joinKeyOf(written.getRestaurants().get(i).getRestaurant()).equals(joinKeyOf(restaurants.get(i).getRestaurant()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Associates each nearby restaurant with the number of workmates who have selected it for lunch today.
+     */
+    public static List<RestaurantAndWorkmates> joinNearbyRestaurants(List<Restaurant> nearbyPlaces, List<Lunch> lunches) {
+        Map<String, Long> workmatesByRestaurantKey = lunches.stream()
+                .collect(Collectors.groupingBy(lunch -> joinKeyOf(lunch.getRestaurant()), Collectors.counting()));
+
+        List<RestaurantAndWorkmates> restaurants = new ArrayList<>(nearbyPlaces.size());
+        for (Restaurant restaurant : nearbyPlaces) {
+            Long workmatesQuantity = workmatesByRestaurantKey.get(joinKeyOf(restaurant));
+            restaurants.add(new RestaurantAndWorkmates(workmatesQuantity != null ? workmatesQuantity : 0L, restaurant));
+        }
+        return restaurants;
+    }
+
+    /**
+     * Lunches and nearby restaurants are joined on the placeId, and the restaurant results are cached by it.
+     * The name is only used for the restaurants and the lunches saved without placeId.
+     */
+    private static String joinKeyOf(Restaurant restaurant) {
+        if (restaurant.getId() != null) {
+            return restaurant.getId();
+        }
+        return restaurant.getName() != null ? "name:" + restaurant.getName().trim().toLowerCase() : "";
+    }
+    //endregion
+
+    //region RESTAURANT LIST PROJECTION
+
+    private static boolean hasGpsFix(@Nullable GPSStatus gpsStatus) {
+        return gpsStatus != null && !gpsStatus.isQuerying() && gpsStatus.isHasGPSPermission();
+    }
+
+    /**
+     * Distances of the restaurant list are measured from the user, not from the panned map or the last viewport.
+     */
+    private LatLng getRankingOrigin() {
+        GPSStatus gpsStatus = gpsMessageLiveData.getValue();
+        if (hasGpsFix(gpsStatus)) {
+            return new LatLng(gpsStatus.getLatitude(), gpsStatus.getLongitude());
+        }
+        return searchPositionLiveData.getValue();
+    }
+
+    private boolean hasMovedFromProjectedPosition(double latitude, double longitude, float minMoveMeters) {
+        float[] distance = new float[1];
+        Location.distanceBetween(projectedLatitude, projectedLongitude, latitude, longitude, distance);
+        return distance[0] >= minMoveMeters;
+    }
+
+    /**
+     * Get the precomputed rows of the restaurant list
+     */
+    public LiveData<List<RestaurantRow>> getRestaurantRows() {
+        return restaurantRowsLiveData;
+    }
+
+    /**
+     * Gets the key the restaurant list is currently ranked by
+     */
+    public RankKey getRankKey() {
+        return rankKey;
+    }
+
+    /**
+     * Ranks the restaurant list by the given key, ties are broken by distance.
+     */
+    public void setRankKey(RankKey rankKey) {
+        if (this.rankKey == rankKey) {
+            return;
+        }
+        this.rankKey = rankKey;
+
+        if (rankKey == RankKey.LIKED) {
+            refreshLikedRestaurantIds();
+        }
+        reprojectRestaurantRows();
+    }
+
+    /**
+     * Get the cuisine types the restaurant list can be filtered by
+     */
+    public LiveData<List<String>> getRestaurantTypes() {
+        return restaurantTypesLiveData;
+    }
+
+    /**
+     * Gets the filter currently applied to the restaurant list
+     */
+    public RestaurantFilter getRestaurantFilter() {
+        return restaurantFilter;
+    }
+
+    /**
+     * Filters the restaurant list, the current snapshot is filtered again without any new request.
+     */
+    public void setRestaurantFilter(RestaurantFilter restaurantFilter) {
+        if (this.restaurantFilter.equals(restaurantFilter)) {
+            return;
+        }
+        this.restaurantFilter = restaurantFilter;
+        reprojectRestaurantRows();
+    }
+
+    /**
+     * Loads the restaurants liked by the current workmate, the list is re-ranked when they arrive.
+     */
+    private void refreshLikedRestaurantIds() {
+        if (likedRestaurantIdsSource != null) {
+            restaurantRowsLiveData.removeSource(likedRestaurantIdsSource);
+        }
+        likedRestaurantIdsSource = workmateRepository.getLikedRestaurantIds();
+        restaurantRowsLiveData.addSource(likedRestaurantIdsSource, ids -> {
+            likedRestaurantIds = ids;
+            reprojectRestaurantRows();
+        });
+    }
+
+    /**
+     * Ranks the restaurants from the given position and builds the rows of the restaurant list
+     * on a background thread. Only the latest projection reaches the view.
+     * The same restaurants from a close position are re-ranked incrementally by the ranker.
+     */
+    private void projectRestaurantRows(List<RestaurantAndWorkmates> restaurants, double latitude, double longitude) {
+        projectedRestaurants = restaurants;
+        projectedLatitude = latitude;
+        projectedLongitude = longitude;
+        reprojectRestaurantRows();
+    }
+
+    private void reprojectRestaurantRows() {
+        if (projectedRestaurants == null) {
+            return;
+        }
+
+        int generation = restaurantRowsGeneration.incrementAndGet();
+
+        List<RestaurantAndWorkmates> restaurants = projectedRestaurants;
+        double latitude = projectedLatitude;
+        double longitude = projectedLongitude;
+        Set<String> likedIds = likedRestaurantIds != null ? likedRestaurantIds : Collections.emptySet();
+        RestaurantFilter filter = restaurantFilter;
+        List<RankKey> rankKeys = rankKey == RankKey.DISTANCE
+                ? Collections.singletonList(RankKey.DISTANCE)
+                : Arrays.asList(rankKey, RankKey.DISTANCE);
+
+        AppExecutors.background().execute(() -> {
+            // A new index is only built when the restaurants or the liked ones changed,
+            // otherwise the ranker reuses its previous ranking when the position moved a little
+            if (restaurantRanker == null
+                    || restaurantRanker.getIndex().getItems() != restaurants
+                    || restaurantRanker.getIndex().getLikedPlaceIds() != likedIds) {
+                RestaurantIndex index = new RestaurantIndex(restaurants, likedIds);
+                restaurantRanker = new RestaurantRanker(index);
+                restaurantFacets = new RestaurantFacets(index);
+                restaurantTypesLiveData.postValue(restaurantFacets.getTypes());
+            }
+
+            BitSet candidates = filter.isEmpty() ? null : restaurantFacets.filter(filter);
+            int[] order = restaurantRanker.rank(latitude, longitude, rankKeys, RESTAURANT_LIST_SIZE, candidates);
+            List<RestaurantRow> rows = RestaurantRow.from(restaurantRanker, order);
+
+            if (generation == restaurantRowsGeneration.get()) {
+                restaurantRowsLiveData.postValue(rows);
+            }
+        });
+    }
+    //endregion
+
     //region LUNCH REPOSITORY METHODS
 
     /**
@@ -161,27 +643,39 @@ public class MyViewModel extends ViewModel {
     }
 
     /**
-     * Fetches today's lunches and returns a list of lunch.
+     * Fetches today's lunches and returns a list of lunch, shared by every tab.
      * **/
     public LiveData<List<Lunch>> fetchTodayLunches(){
-        return lunchRepository.fetchTodayLunches();
+        return todayLunchesCache.get(ALL, key -> lunchRepository.fetchTodayLunches());
     }
 
 
     /**
      * Creates a lunch for a given workmate at the specified restaurant.
+     * Today's reminder is scheduled if notifications are enabled.
      */
     public void createLunch(Restaurant restaurant, Workmate workmate) {
         lunchRepository.createLunch(restaurant, workmate);
+
+        workmateRepository.fetchIsNotificationEnabledTask().addOnSuccessListener(isNotificationEnabled -> {
+            if (Boolean.TRUE.equals(isNotificationEnabled)) {
+                lunchReminderScheduler.schedule();
+            }
+        });
     }
 
     /**
-     * Deletes the lunch of a given workmate at the specified restaurant.
+     * Deletes the lunch of a given workmate at the specified restaurant, and today's reminder with it.
      */
     public LiveData<Boolean> deleteLunch(Restaurant restaurant) {
         String uid = workmateRepository.getCurrentWorkmate().getUid();
 
-        return lunchRepository.deleteLunch(restaurant, uid);
+        return Transformations.map(lunchRepository.deleteLunch(restaurant, uid), isDeleted -> {
+            if (Boolean.TRUE.equals(isDeleted)) {
+                lunchReminderScheduler.cancel();
+            }
+            return isDeleted;
+        });
     }
 
     /**
@@ -190,46 +684,82 @@ public class MyViewModel extends ViewModel {
     public LiveData<Boolean> hasWorkmateChosenThisRestaurant(Restaurant restaurant) {
         String uid = workmateRepository.getCurrentWorkmate().getUid();
 
-        return lunchRepository.hasWorkmateChosenThisRestaurant(restaurant, uid);
+        return hasChosenRestaurantCache.get(joinKeyOf(restaurant), key -> lunchRepository.hasWorkmateChosenThisRestaurant(restaurant, uid));
     }
 
     /**
      * Get today lunch
      */
     public LiveData<Lunch> getTodayLunch(String uid) {
-        return lunchRepository.getTodayLunch(uid);
+        return todayLunchByWorkmateCache.get(uid, lunchRepository::getTodayLunch);
     }
 
     /**
      * Retrieves a list of workmates who have chosen the specified restaurant for lunch today.
      */
     public LiveData<List<Workmate>> fetchTodayWorkmatesAtRestaurant(Restaurant restaurant) {
-        return lunchRepository.fetchTodayWorkmatesAtRestaurant(restaurant);
+        return workmatesAtRestaurantCache.get(joinKeyOf(restaurant), key -> lunchRepository.fetchTodayWorkmatesAtRestaurant(restaurant));
     }
     //endregion
 
     //region RESTAURANT REPOSITORY METHODS
     /**
      * Fetches a list of restaurants based on location, radius, and type.
+     * A failed search is not kept : it is sent again by the next call, or when its observers become active again.
      */
     public LiveData<List<Restaurant>> getAllRestaurants(String location, Integer radius, String type) {
-        return restaurantRepository.getAllRestaurants(location, radius, type);
+        return restaurantsCache.get(location + "|" + radius + "|" + type,
+                key -> restaurantRepository.getAllRestaurants(location, radius, type, () -> restaurantsCache.evict(key)));
     }
 
     /**
-     * Fetches the details of a restaurant by its placeId..
+     * Fetches the details of a restaurant by its placeId, null if they can't be loaded.
      */
     public LiveData<Restaurant> getRestaurantDetail(String placeId) {
-        return restaurantRepository.getRestaurantDetail(placeId);
+        return restaurantDetailCache.get(placeId, restaurantRepository::getRestaurantDetail);
+    }
+
+    /**
+     * Loads everything the details screen shows in parallel, emitted as one state :
+     * once every request answered, or after {@link #DETAILS_DEADLINE_MILLIS} with what is known.
+     */
+    public LiveData<RestaurantDetailsState> getRestaurantDetailsState(Restaurant restaurant) {
+        return new RestaurantDetailsLoader(
+                restaurant,
+                restaurant.getId() != null ? getRestaurantDetail(restaurant.getId()) : null,
+                checkIfCurrentWorkmateLikeThisRestaurant(restaurant),
+                hasWorkmateChosenThisRestaurant(restaurant),
+                fetchTodayWorkmatesAtRestaurant(restaurant),
+                DETAILS_DEADLINE_MILLIS
+        );
+    }
+
+    /**
+     * Speculatively loads the details of the restaurants likely to be opened next,
+     * so that their details screen is complete at once. At most {@link #PREFETCH_DETAILS_MAX} per call.
+     */
+    public void prefetchRestaurantDetails(List<String> placeIds) {
+        for (int i = 0; i < placeIds.size() && i < PREFETCH_DETAILS_MAX; i++) {
+            if (placeIds.get(i) != null) {
+                getRestaurantDetail(placeIds.get(i));
+            }
+        }
     }
     //endregion
 
     //region WORKMATE REPOSITORY METHODS
     /**
-     * LiveData to retrieve all workmates
+     * LiveData to retrieve all workmates, shared by every tab
      */
     public LiveData<List<Workmate>> getAllWorkmates() {
-        return workmateRepository.getAllWorkmates();
+        return workmatesCache.get(ALL, key -> workmateRepository.getAllWorkmates());
+    }
+
+    /**
+     * Syncs the workmates again, only the ones updated since the last sync are read
+     */
+    public void refreshWorkmates() {
+        workmatesCache.invalidate(ALL);
     }
 
 
@@ -237,14 +767,29 @@ public class MyViewModel extends ViewModel {
      * Check if notifications are enabled for a specific workmate
      */
     public LiveData<Boolean> getIsNotificationEnabled() {
-        return workmateRepository.getIsNotificationEnabled();
+        return notificationEnabledCache.get(ALL, key -> workmateRepository.getIsNotificationEnabled());
     }
 
     /**
-     * Create or update a workmate based on notification status
+     * Create or update a workmate based on notification status.
+     * Today's reminder is scheduled if a lunch is planned, or cancelled.
      */
     public void createOrUpdateWorkmate(Boolean isNotificationActive) {
         workmateRepository.createOrUpdateWorkmate(isNotificationActive);
+        notificationEnabledCache.update(ALL, isNotificationActive);
+
+        if (!Boolean.TRUE.equals(isNotificationActive)) {
+            lunchReminderScheduler.cancel();
+            return;
+        }
+        Workmate workmate = workmateRepository.getCurrentWorkmate();
+        if (workmate != null) {
+            lunchRepository.fetchTodayLunchCardTask(workmate.getUid()).addOnSuccessListener(lunchCard -> {
+                if (lunchCard != null) {
+                    lunchReminderScheduler.schedule();
+                }
+            });
+        }
     }
 
     /**
@@ -256,13 +801,14 @@ public class MyViewModel extends ViewModel {
         }else{
             workmateRepository.deleteLikeRestaurant(restaurant);
         }
+        likedRestaurantCache.update(joinKeyOf(restaurant), liked);
     }
 
     /**
      * Check if the current workmate has liked a specific restaurant
      */
     public LiveData<Boolean> checkIfCurrentWorkmateLikeThisRestaurant(Restaurant restaurant) {
-        return workmateRepository.checkIfCurrentWorkmateLikeThisRestaurant(restaurant);
+        return likedRestaurantCache.get(joinKeyOf(restaurant), key -> workmateRepository.checkIfCurrentWorkmateLikeThisRestaurant(restaurant));
     }
     //endregion
 
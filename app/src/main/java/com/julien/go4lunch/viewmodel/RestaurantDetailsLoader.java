@@ -0,0 +1,117 @@
+package com.julien.go4lunch.viewmodel;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.Workmate;
+
+import java.util.List;
+
+/**
+ * Combines the requests of the details screen into a single state.
+ *
+ * The requests are already sent when the loader is created, they run in parallel. The first state is
+ * emitted once every request answered, or when the deadline is reached with what is known by then.
+ * After that, every change (a like, a lunch created or deleted) emits a new state.
+ * Main thread only.
+ */
+class RestaurantDetailsLoader extends MediatorLiveData<RestaurantDetailsState> {
+
+    private static final String TAG = "RestaurantDetailsLoader";
+
+    private static final int DETAIL = 1;
+    private static final int LIKED = 1 << 1;
+    private static final int CHOSEN = 1 << 2;
+    private static final int WORKMATES = 1 << 3;
+    private static final int ALL = DETAIL | LIKED | CHOSEN | WORKMATES;
+
+    private final long deadlineMillis;
+    private final long createdAt = SystemClock.elapsedRealtime();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable deadline = this::onDeadline;
+
+    private int answered;
+    private boolean emitted;
+
+    private Restaurant restaurant;
+    private Boolean liked;
+    private Boolean chosen;
+    private List<Workmate> workmates;
+
+    /**
+     * @param restaurant the restaurant of the launching screen
+     * @param detail the details request, null if the restaurant has no placeId
+     */
+    RestaurantDetailsLoader(Restaurant restaurant, LiveData<Restaurant> detail, LiveData<Boolean> liked,
+                            LiveData<Boolean> chosen, LiveData<List<Workmate>> workmates, long deadlineMillis) {
+        this.restaurant = restaurant;
+        this.deadlineMillis = deadlineMillis;
+
+        if (detail != null) {
+            addSource(detail, value -> {
+                if (value != null) {
+                    this.restaurant = value;
+                }
+                onAnswer(DETAIL);
+            });
+        } else {
+            answered |= DETAIL;
+        }
+        addSource(liked, value -> {
+            this.liked = value;
+            onAnswer(LIKED);
+        });
+        addSource(chosen, value -> {
+            this.chosen = value;
+            onAnswer(CHOSEN);
+        });
+        addSource(workmates, value -> {
+            this.workmates = value;
+            onAnswer(WORKMATES);
+        });
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        if (!emitted) {
+            long remaining = deadlineMillis - (SystemClock.elapsedRealtime() - createdAt);
+            handler.postDelayed(deadline, Math.max(0, remaining));
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        super.onInactive();
+        handler.removeCallbacks(deadline);
+    }
+
+    private void onAnswer(int request) {
+        answered |= request;
+        if (emitted || answered == ALL) {
+            emit();
+        }
+    }
+
+    private void onDeadline() {
+        if (!emitted) {
+            Log.i(TAG, "Deadline reached, missing requests : " + Integer.toBinaryString(ALL & ~answered));
+            emit();
+        }
+    }
+
+    private void emit() {
+        if (!emitted) {
+            emitted = true;
+            handler.removeCallbacks(deadline);
+            Log.i(TAG, "First details state after " + (SystemClock.elapsedRealtime() - createdAt) + " ms");
+        }
+        setValue(new RestaurantDetailsState(restaurant, liked, chosen, workmates));
+    }
+}
@@ -0,0 +1,53 @@
+package com.julien.go4lunch.viewmodel;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.Workmate;
+
+import java.util.List;
+
+/**
+ * Everything the details screen shows about a restaurant, emitted at once by the ViewModel.
+ * A null field is not known yet, or its request failed before the deadline.
+ */
+public class RestaurantDetailsState {
+
+    private final Restaurant restaurant;
+    private final Boolean liked;
+    private final Boolean chosen;
+    private final List<Workmate> workmates;
+
+    public RestaurantDetailsState(Restaurant restaurant, Boolean liked, Boolean chosen, List<Workmate> workmates) {
+        this.restaurant = restaurant;
+        this.liked = liked;
+        this.chosen = chosen;
+        this.workmates = workmates;
+    }
+
+    /**
+     * Gets the restaurant, with its details if they arrived.
+     */
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    /**
+     * Gets if the current workmate likes the restaurant.
+     */
+    public Boolean isLiked() {
+        return liked;
+    }
+
+    /**
+     * Gets if the current workmate has chosen the restaurant for today.
+     */
+    public Boolean isChosen() {
+        return chosen;
+    }
+
+    /**
+     * Gets the workmates having lunch at the restaurant today, null if there are none.
+     */
+    public List<Workmate> getWorkmates() {
+        return workmates;
+    }
+}
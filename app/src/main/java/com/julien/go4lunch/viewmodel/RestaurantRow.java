@@ -0,0 +1,174 @@
+package com.julien.go4lunch.viewmodel;
+
+import androidx.annotation.StringRes;
+
+import com.julien.go4lunch.BuildConfig;
+import com.julien.go4lunch.R;
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.RestaurantAndWorkmates;
+import com.julien.go4lunch.model.ranking.RestaurantRanker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable row of the restaurant list.
+ * Every label is computed once, off the main thread, so binding a row is pure field assignment.
+ */
+public class RestaurantRow {
+
+    public static final String NON_ASSIGNED = "N/A";
+    private static final String PHOTO_URL = BuildConfig.PLACES_BASE_URL + "photo?maxwidth=400&photoreference=";
+
+    private final String placeId;
+    private final String name;
+    private final String typeAddress;
+    private final String distanceLabel;
+    private final String workmatesLabel;
+    @StringRes
+    private final int openedResId;
+    private final float rating;
+    private final String photoUrl;
+    private final Restaurant restaurant;
+
+    public RestaurantRow(String placeId, String name, String typeAddress, String distanceLabel, String workmatesLabel,
+                         @StringRes int openedResId, float rating, String photoUrl, Restaurant restaurant) {
+        this.placeId = placeId;
+        this.name = name;
+        this.typeAddress = typeAddress;
+        this.distanceLabel = distanceLabel;
+        this.workmatesLabel = workmatesLabel;
+        this.openedResId = openedResId;
+        this.rating = rating;
+        this.photoUrl = photoUrl;
+        this.restaurant = restaurant;
+    }
+
+    /**
+     * Builds the rows of the ranked restaurants, best first.
+     *
+     * @param ranker ranker that computed the distances of the last ranking
+     * @param order  index positions returned by the last ranking
+     */
+    public static List<RestaurantRow> from(RestaurantRanker ranker, int[] order) {
+        List<RestaurantRow> rows = new ArrayList<>(order.length);
+
+        for (int i : order) {
+            rows.add(from(ranker.getIndex().get(i), ranker.distanceAt(i)));
+        }
+        return rows;
+    }
+
+    private static RestaurantRow from(RestaurantAndWorkmates restaurantAndWorkmates, double distanceMeters) {
+        Restaurant restaurant = restaurantAndWorkmates.getRestaurant();
+
+        String type = restaurant.getTypes() != null && !restaurant.getTypes().isEmpty() ? restaurant.getTypes().get(0) : NON_ASSIGNED;
+        String address = restaurant.getAddress() != null ? restaurant.getAddress() : NON_ASSIGNED;
+
+        String distance = Double.isInfinite(distanceMeters) ? NON_ASSIGNED : Math.round(distanceMeters) + "m";
+
+        int openedResId = 0;
+        if (restaurant.getOpened() != null) {
+            openedResId = restaurant.getOpened() ? R.string.restaurant_is_opened : R.string.restaurant_is_closed;
+        }
+
+        float rating = restaurant.getRating() != null ? restaurant.getRating().floatValue() : Float.NaN;
+
+        return new RestaurantRow(
+                restaurant.getId(),
+                restaurant.getName(),
+                type + " - " + address,
+                distance,
+                "(" + restaurantAndWorkmates.getWorkmatesAtRestaurant() + ")",
+                openedResId,
+                rating,
+                photoUrlOf(restaurant),
+                restaurant
+        );
+    }
+
+    /**
+     * URL of the first photo of a restaurant as loaded by the list, null if the restaurant has no photo.
+     * The same URL hits the same image cache entry.
+     */
+    public static String photoUrlOf(Restaurant restaurant) {
+        if (restaurant.getPhotos() == null || restaurant.getPhotos().isEmpty()) {
+            return null;
+        }
+        return PHOTO_URL + restaurant.getPhotos().get(0).getPhotoReference() + "&key=" + BuildConfig.GOOGLE_MAPS_API_KEY;
+    }
+
+    public String getPlaceId() {
+        return placeId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTypeAddress() {
+        return typeAddress;
+    }
+
+    public String getDistanceLabel() {
+        return distanceLabel;
+    }
+
+    public String getWorkmatesLabel() {
+        return workmatesLabel;
+    }
+
+    /**
+     * Gets the string resource of the open state, 0 if the state is unknown.
+     */
+    @StringRes
+    public int getOpenedResId() {
+        return openedResId;
+    }
+
+    /**
+     * Gets the rating, NaN if the restaurant has no rating.
+     */
+    public float getRating() {
+        return rating;
+    }
+
+    public boolean hasRating() {
+        return !Float.isNaN(rating);
+    }
+
+    /**
+     * Gets the URL of the first photo, null if the restaurant has no photo.
+     */
+    public String getPhotoUrl() {
+        return photoUrl;
+    }
+
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    /**
+     * Returns true if both rows display the same texts and photo, regardless of the
+     * workmates count and the distance.
+     */
+    public boolean hasSameStaticContent(RestaurantRow other) {
+        return Objects.equals(placeId, other.placeId) && Objects.equals(name, other.name)
+                && Objects.equals(typeAddress, other.typeAddress) && openedResId == other.openedResId
+                && Float.compare(rating, other.rating) == 0 && Objects.equals(photoUrl, other.photoUrl);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RestaurantRow that = (RestaurantRow) o;
+        return hasSameStaticContent(that) && Objects.equals(distanceLabel, that.distanceLabel) && Objects.equals(workmatesLabel, that.workmatesLabel);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(placeId, name, typeAddress, distanceLabel, workmatesLabel, openedResId, rating, photoUrl);
+    }
+}
@@ -3,13 +3,17 @@ package com.julien.go4lunch.viewmodel;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.work.WorkManager;
 
 import com.google.android.gms.location.LocationServices;
 import com.julien.go4lunch.MainApplication;
 import com.julien.go4lunch.model.repository.LocationRepository;
 import com.julien.go4lunch.model.repository.LunchRepository;
 import com.julien.go4lunch.model.repository.RestaurantRepository;
+import com.julien.go4lunch.model.repository.SnapshotRepository;
+import com.julien.go4lunch.model.repository.ViewportRepository;
 import com.julien.go4lunch.model.repository.WorkmateRepository;
+import com.julien.go4lunch.utils.LunchReminderScheduler;
 
 public class ViewModelFactory implements ViewModelProvider.Factory {
     // Singleton instance of the ViewModelFactory
@@ -20,16 +24,24 @@ public class ViewModelFactory implements ViewModelProvider.Factory {
     private final LunchRepository lunchRepository;
     private final RestaurantRepository restaurantRepository;
     private final WorkmateRepository workmateRepository;
+    private final ViewportRepository viewportRepository;
+    private final SnapshotRepository snapshotRepository;
+    private final LunchReminderScheduler lunchReminderScheduler;
 
     /**
      * Private constructor to prevent direct instantiation.
      */
     private ViewModelFactory(LocationRepository locationRepository, LunchRepository lunchRepository,
-                             RestaurantRepository restaurantRepository, WorkmateRepository workmateRepository) {
+                             RestaurantRepository restaurantRepository, WorkmateRepository workmateRepository,
+                             ViewportRepository viewportRepository, SnapshotRepository snapshotRepository,
+                             LunchReminderScheduler lunchReminderScheduler) {
         this.locationRepository = locationRepository;
         this.lunchRepository = lunchRepository;
         this.restaurantRepository = restaurantRepository;
         this.workmateRepository = workmateRepository;
+        this.viewportRepository = viewportRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.lunchReminderScheduler = lunchReminderScheduler;
     }
 
     /**
@@ -45,9 +57,14 @@ public class ViewModelFactory implements ViewModelProvider.Factory {
             LunchRepository lunchRepository = LunchRepository.getInstance();
             RestaurantRepository restaurantRepository = RestaurantRepository.getInstance();
             WorkmateRepository workmateRepository = WorkmateRepository.getInstance();
+            ViewportRepository viewportRepository = ViewportRepository.getInstance();
+            SnapshotRepository snapshotRepository = SnapshotRepository.getInstance();
+            LunchReminderScheduler lunchReminderScheduler = new LunchReminderScheduler(
+                    WorkManager.getInstance(MainApplication.getApplication())
+            );
 
             // Create the singleton instance of ViewModelFactory
-            instance = new ViewModelFactory(locationRepository, lunchRepository, restaurantRepository, workmateRepository);
+            instance = new ViewModelFactory(locationRepository, lunchRepository, restaurantRepository, workmateRepository, viewportRepository, snapshotRepository, lunchReminderScheduler);
         }
         return instance;
     }
@@ -59,7 +76,7 @@ public class ViewModelFactory implements ViewModelProvider.Factory {
     @Override
     public <T extends ViewModel> T create(@NonNull Class<T> aClass) {
         if (aClass.isAssignableFrom(MyViewModel.class)) {
-            return (T) new MyViewModel(locationRepository, lunchRepository, restaurantRepository, workmateRepository);
+            return (T) new MyViewModel(locationRepository, lunchRepository, restaurantRepository, workmateRepository, viewportRepository, snapshotRepository, lunchReminderScheduler);
         }
         throw new IllegalArgumentException("Unknown ViewModel class");
     }
@@ -0,0 +1,28 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertEquals;
+
+import com.julien.go4lunch.model.seed.BulkWriteReport;
+
+import org.junit.Test;
+
+public class BulkWriteReportUnitTest {
+
+    @Test
+    public void documentsPerSecond() {
+        BulkWriteReport report = new BulkWriteReport("lunches", 50_000, 100, 12_500);
+
+        assertEquals(4000, report.documentsPerSecond(), 0.001);
+        assertEquals("lunches : 50000 documents in 100 batches, 12500 ms, 4000 documents/s", report.toString());
+    }
+
+    @Test
+    public void instantWriteIsNotInfinite() {
+        assertEquals(500_000, new BulkWriteReport("workmates", 500, 1, 0).documentsPerSecond(), 0.001);
+    }
+
+    @Test
+    public void nothingWritten() {
+        assertEquals(0, new BulkWriteReport("workmates", 0, 0, 0).documentsPerSecond(), 0.001);
+    }
+}
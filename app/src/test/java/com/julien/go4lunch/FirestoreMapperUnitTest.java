@@ -0,0 +1,108 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.julien.go4lunch.model.bo.Lunch;
+import com.julien.go4lunch.model.bo.LunchCard;
+import com.julien.go4lunch.model.repository.FirestoreMapper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class FirestoreMapperUnitTest {
+
+    @Test
+    public void mapLunchDocument() {
+        Map<String, Object> workmate = new HashMap<>();
+        workmate.put("uid", "uid-1");
+        workmate.put("name", "Julien");
+        workmate.put("notificationEnabled", true);
+
+        Map<String, Object> location = new HashMap<>();
+        location.put("lat", 48.8566);
+        location.put("lng", 2.3522);
+
+        Map<String, Object> photo = new HashMap<>();
+        photo.put("photoReference", "photo-ref");
+        photo.put("width", 1920L);
+
+        // Firestore returns integers as Long, and a rating of 4 as a Long too
+        Map<String, Object> restaurant = new HashMap<>();
+        restaurant.put("id", "place-1");
+        restaurant.put("name", "Chez Julien");
+        restaurant.put("location", location);
+        restaurant.put("types", Arrays.asList("restaurant", "bar"));
+        restaurant.put("opened", false);
+        restaurant.put("numberOfReviews", 120L);
+        restaurant.put("rating", 4L);
+        restaurant.put("photos", Collections.singletonList(photo));
+
+        Map<String, Object> document = new HashMap<>();
+        document.put("workmate", workmate);
+        document.put("restaurant", restaurant);
+        document.put("date", "2024-01-01T00:00:00Z");
+
+        Lunch lunch = FirestoreMapper.toLunch(document);
+
+        assertEquals("uid-1", lunch.getWorkmate().getUid());
+        assertEquals("Julien", lunch.getWorkmate().getName());
+        assertNull(lunch.getWorkmate().getEmail());
+        assertTrue(lunch.getWorkmate().isNotificationEnabled());
+        assertEquals("place-1", lunch.getRestaurant().getId());
+        assertEquals(2.3522, lunch.getRestaurant().getLocation().getLng(), 0);
+        assertEquals(Arrays.asList("restaurant", "bar"), lunch.getRestaurant().getTypes());
+        assertFalse(lunch.getRestaurant().getOpened());
+        assertEquals(120, lunch.getRestaurant().getNumberOfReviews());
+        assertEquals(4.0, lunch.getRestaurant().getRating(), 0);
+        assertEquals(Integer.valueOf(1920), lunch.getRestaurant().getPhotos().get(0).getWidth());
+        assertEquals("2024-01-01T00:00:00Z", lunch.getDate());
+    }
+
+    @Test
+    public void mapMissingFields() {
+        Lunch lunch = FirestoreMapper.toLunch(new HashMap<>());
+
+        assertNull(lunch.getWorkmate());
+        assertNull(lunch.getRestaurant());
+        assertNull(lunch.getDate());
+    }
+
+    @Test
+    public void mapLunchCardDocument() {
+        Map<String, Object> document = new HashMap<>();
+        document.put("date", "2024-01-01T00:00:00Z");
+        document.put("restaurantId", "place-1");
+        document.put("restaurantName", "Chez Julien");
+        document.put("restaurantAddress", "1 rue de Paris");
+        Map<String, Object> attendees = new LinkedHashMap<>();
+        attendees.put("uid-1", "Julien");
+        attendees.put("uid-2", "Julien");
+        document.put("attendees", attendees);
+
+        LunchCard lunchCard = FirestoreMapper.toLunchCard(document);
+
+        assertEquals("2024-01-01T00:00:00Z", lunchCard.getDate());
+        // Homonyms are kept apart by uid
+        assertEquals(2, lunchCard.getAttendees().size());
+        assertEquals(Arrays.asList("Julien", "Julien"), lunchCard.getAttendeeNames());
+        assertEquals("place-1", lunchCard.toRestaurant().getId());
+        assertEquals("Chez Julien", lunchCard.toRestaurant().getName());
+        assertEquals("1 rue de Paris", lunchCard.toRestaurant().getAddress());
+        assertNull(FirestoreMapper.toLunchCard(null));
+    }
+
+    @Test
+    public void ignoreFormerLunchCardAttendees() {
+        // Names only, as written by the former cards
+        assertTrue(FirestoreMapper.toAttendees(Arrays.asList("Julien", "Marie")).isEmpty());
+        assertTrue(FirestoreMapper.toAttendees(null).isEmpty());
+    }
+}
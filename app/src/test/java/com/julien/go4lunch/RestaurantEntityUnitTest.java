@@ -0,0 +1,70 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.place.Location;
+import com.julien.go4lunch.model.bo.place.Photo;
+import com.julien.go4lunch.model.db.RestaurantEntity;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class RestaurantEntityUnitTest {
+
+    private Restaurant searchResult() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId("place-1");
+        restaurant.setName("Chez Julien");
+        restaurant.setAddress("1 rue de la Paix");
+        restaurant.setLocation(new Location(48.85, 2.35));
+        restaurant.setRating(4.5);
+        restaurant.setNumberOfReviews(12);
+        restaurant.setTypes(Arrays.asList("restaurant", "food"));
+        Photo photo = new Photo();
+        photo.setPhotoReference("photo-ref");
+        photo.setHeight(400);
+        photo.setWidth(600);
+        restaurant.setPhotos(Collections.singletonList(photo));
+        return restaurant;
+    }
+
+    @Test
+    public void restaurantRoundTrip() {
+        Restaurant restaurant = RestaurantEntity.from(searchResult(), 1000, 0).toRestaurant();
+
+        assertEquals("place-1", restaurant.getId());
+        assertEquals("Chez Julien", restaurant.getName());
+        assertEquals(48.85, restaurant.getLocation().getLat(), 0);
+        assertEquals(Arrays.asList("restaurant", "food"), restaurant.getTypes());
+        assertEquals("photo-ref", restaurant.getPhotos().get(0).getPhotoReference());
+        assertEquals(12, restaurant.getNumberOfReviews());
+    }
+
+    @Test
+    public void searchResultKeepsStoredDetails() {
+        Restaurant details = searchResult();
+        details.setWebsite("https://chez-julien.fr");
+        details.setformattedPhoneNumber("01 02 03 04 05");
+        RestaurantEntity stored = RestaurantEntity.from(details, 1000, 1000);
+
+        RestaurantEntity searched = RestaurantEntity.from(searchResult(), 2000, 0);
+        assertFalse(searched.hasDetails());
+        searched.keepDetailsOf(stored);
+
+        assertTrue(searched.hasDetails());
+        assertEquals(1000, searched.detailsFetchedAt);
+        assertEquals("https://chez-julien.fr", searched.website);
+        assertEquals("01 02 03 04 05", searched.phoneNumber);
+    }
+
+    @Test
+    public void restaurantWithoutPlaceIdIsNotStored() {
+        assertNull(RestaurantEntity.from(new Restaurant(), 1000, 0));
+    }
+}
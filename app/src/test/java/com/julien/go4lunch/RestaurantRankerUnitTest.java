@@ -0,0 +1,109 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.RestaurantAndWorkmates;
+import com.julien.go4lunch.model.bo.place.Location;
+import com.julien.go4lunch.model.ranking.RankKey;
+import com.julien.go4lunch.model.ranking.RestaurantFacets;
+import com.julien.go4lunch.model.ranking.RestaurantFilter;
+import com.julien.go4lunch.model.ranking.RestaurantIndex;
+import com.julien.go4lunch.model.ranking.RestaurantRanker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class RestaurantRankerUnitTest {
+
+    // Paris, Hotel de Ville
+    private static final double LAT = 48.8566;
+    private static final double LNG = 2.3522;
+
+    private RestaurantAndWorkmates restaurant(String id, double lat, double lng, Double rating, long workmates, Boolean opened) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setName(id);
+        restaurant.setLocation(new Location(lat, lng));
+        restaurant.setRating(rating);
+        restaurant.setOpened(opened);
+        return new RestaurantAndWorkmates(workmates, restaurant);
+    }
+
+    private List<RestaurantAndWorkmates> restaurants() {
+        List<RestaurantAndWorkmates> restaurants = new ArrayList<>();
+        restaurants.add(restaurant("far", LAT + 0.004, LNG, 4.8, 0, false));
+        restaurants.add(restaurant("close", LAT + 0.001, LNG, 3.0, 2, true));
+        restaurants.add(restaurant("middle", LAT + 0.002, LNG, 4.1, 5, null));
+        restaurants.add(restaurant("closest", LAT + 0.0005, LNG, null, 0, true));
+        return restaurants;
+    }
+
+    @Test
+    public void rankByDistance() {
+        RestaurantRanker ranker = new RestaurantRanker(new RestaurantIndex(restaurants(), null));
+
+        int[] order = ranker.rank(LAT, LNG, Collections.singletonList(RankKey.DISTANCE), 10);
+
+        assertArrayEquals(new int[]{3, 1, 2, 0}, order);
+        // 0.001 degree of latitude is about 111 meters
+        assertEquals(111, ranker.distanceAt(1), 1);
+    }
+
+    @Test
+    public void rankByKeysThenDistance() {
+        RestaurantIndex index = new RestaurantIndex(restaurants(), new HashSet<>(Collections.singletonList("far")));
+
+        assertArrayEquals(new int[]{0, 2, 1, 3}, new RestaurantRanker(index).rank(LAT, LNG, Arrays.asList(RankKey.RATING, RankKey.DISTANCE), 10));
+        assertArrayEquals(new int[]{2, 1, 3, 0}, new RestaurantRanker(index).rank(LAT, LNG, Arrays.asList(RankKey.WORKMATES, RankKey.DISTANCE), 10));
+        assertArrayEquals(new int[]{3, 1, 2, 0}, new RestaurantRanker(index).rank(LAT, LNG, Arrays.asList(RankKey.OPEN_NOW, RankKey.DISTANCE), 10));
+        assertArrayEquals(new int[]{0, 3, 1, 2}, new RestaurantRanker(index).rank(LAT, LNG, Arrays.asList(RankKey.LIKED, RankKey.DISTANCE), 10));
+    }
+
+    @Test
+    public void selectOnlyTopK() {
+        RestaurantRanker ranker = new RestaurantRanker(new RestaurantIndex(restaurants(), null));
+
+        assertArrayEquals(new int[]{3, 1}, ranker.rank(LAT, LNG, Collections.singletonList(RankKey.DISTANCE), 2));
+    }
+
+    @Test
+    public void reRankWhenPositionMovesALittle() {
+        RestaurantRanker ranker = new RestaurantRanker(new RestaurantIndex(restaurants(), null));
+        List<RankKey> keys = Collections.singletonList(RankKey.DISTANCE);
+
+        assertArrayEquals(new int[]{3, 1}, ranker.rank(LAT, LNG, keys, 2));
+
+        // Move about 90 meters north : "close" becomes the closest one
+        assertArrayEquals(new int[]{1, 3}, ranker.rank(LAT + 0.0008, LNG, keys, 2));
+
+        // Move about 90 meters further : "middle" enters the top 2
+        assertArrayEquals(new int[]{2, 1}, ranker.rank(LAT + 0.0016, LNG, keys, 2));
+    }
+
+    @Test
+    public void rankFilteredCandidates() {
+        List<RestaurantAndWorkmates> restaurants = restaurants();
+        restaurants.get(0).getRestaurant().setTypes(Arrays.asList("restaurant", "bar"));
+        restaurants.get(1).getRestaurant().setTypes(Arrays.asList("cafe", "food"));
+        restaurants.get(2).getRestaurant().setTypes(Arrays.asList("bar", "cafe"));
+
+        RestaurantIndex index = new RestaurantIndex(restaurants, null);
+        RestaurantFacets facets = new RestaurantFacets(index);
+        RestaurantRanker ranker = new RestaurantRanker(index);
+        List<RankKey> keys = Collections.singletonList(RankKey.DISTANCE);
+
+        assertEquals(Arrays.asList("bar", "cafe"), facets.getTypes());
+        assertArrayEquals(new int[]{3, 1}, ranker.rank(LAT, LNG, keys, 10, facets.filter(new RestaurantFilter(true, false, false, null))));
+        assertArrayEquals(new int[]{2, 0}, ranker.rank(LAT, LNG, keys, 10, facets.filter(new RestaurantFilter(false, true, false, null))));
+        assertArrayEquals(new int[]{2}, ranker.rank(LAT, LNG, keys, 10, facets.filter(new RestaurantFilter(false, true, true, null))));
+        assertArrayEquals(new int[]{1, 2, 0}, ranker.rank(LAT, LNG, keys, 10, facets.filter(new RestaurantFilter(false, false, false, new HashSet<>(Arrays.asList("bar", "cafe"))))));
+        assertArrayEquals(new int[]{1}, ranker.rank(LAT, LNG, keys, 10, facets.filter(new RestaurantFilter(true, false, false, Collections.singleton("cafe")))));
+    }
+}
@@ -0,0 +1,79 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.bo.RestaurantAndWorkmates;
+import com.julien.go4lunch.model.bo.place.Location;
+import com.julien.go4lunch.model.bo.place.Photo;
+import com.julien.go4lunch.model.repository.RestaurantSnapshot;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class RestaurantSnapshotUnitTest {
+
+    @Test
+    public void snapshotRoundTrip() throws IOException {
+        Photo photo = new Photo();
+        photo.setPhotoReference("photo-ref");
+
+        Restaurant full = new Restaurant();
+        full.setId("a");
+        full.setName("Chez Julien");
+        full.setAddress("1 rue du Temple");
+        full.setLocation(new Location(48.8566, 2.3522));
+        full.setOpened(false);
+        full.setRating(4.5);
+        full.setNumberOfReviews(120);
+        full.setTypes(Arrays.asList("restaurant", "bar"));
+        full.setPhotos(Collections.singletonList(photo));
+
+        Restaurant empty = new Restaurant();
+        empty.setId("b");
+
+        RestaurantSnapshot snapshot = new RestaurantSnapshot(48.85, 2.35, 1234L, Arrays.asList(
+                new RestaurantAndWorkmates(3L, full),
+                new RestaurantAndWorkmates(0L, empty)
+        ));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.writeTo(out);
+        RestaurantSnapshot read = RestaurantSnapshot.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(48.85, read.getLatitude(), 0);
+        assertEquals(2.35, read.getLongitude(), 0);
+        assertEquals(1234L, read.getSavedAt());
+        assertEquals(2, read.getRestaurants().size());
+
+        RestaurantAndWorkmates first = read.getRestaurants().get(0);
+        assertEquals(Long.valueOf(3), first.getWorkmatesAtRestaurant());
+        assertEquals("Chez Julien", first.getRestaurant().getName());
+        assertEquals("1 rue du Temple", first.getRestaurant().getAddress());
+        assertEquals(2.3522, first.getRestaurant().getLocation().getLng(), 0);
+        assertEquals(Boolean.FALSE, first.getRestaurant().getOpened());
+        assertEquals(4.5, first.getRestaurant().getRating(), 0);
+        assertEquals(120, first.getRestaurant().getNumberOfReviews());
+        assertEquals(Arrays.asList("restaurant", "bar"), first.getRestaurant().getTypes());
+        assertEquals("photo-ref", first.getRestaurant().getPhotos().get(0).getPhotoReference());
+
+        Restaurant second = read.getRestaurants().get(1).getRestaurant();
+        assertEquals("b", second.getId());
+        assertNull(second.getName());
+        assertNull(second.getLocation());
+        assertNull(second.getOpened());
+        assertNull(second.getRating());
+        assertNull(second.getPhotos());
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownFormatIsRejected() throws IOException {
+        RestaurantSnapshot.readFrom(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
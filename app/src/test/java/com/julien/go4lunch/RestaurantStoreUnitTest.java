@@ -0,0 +1,88 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.model.repository.RestaurantStore;
+
+import org.junit.Test;
+
+public class RestaurantStoreUnitTest {
+
+    private Restaurant restaurant(String id, String name, Boolean opened) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setName(name);
+        restaurant.setOpened(opened);
+        return restaurant;
+    }
+
+    @Test
+    public void mergeRecordsOfTheSamePlace() {
+        RestaurantStore store = RestaurantStore.getInstance();
+
+        Restaurant details = restaurant("store-merge", "Chez Julien", false);
+        details.setWebsite("https://chez-julien.fr");
+        Restaurant canonical = store.canonical(details);
+
+        // A nearby search record, without the details-level fields
+        Restaurant canonicalAgain = store.canonical(restaurant("store-merge", "Chez Julien", true));
+
+        assertSame(canonicalAgain, store.get("store-merge"));
+        assertEquals(Boolean.TRUE, canonicalAgain.getOpened());
+        assertEquals("https://chez-julien.fr", canonicalAgain.getWebsite());
+        // The instance already handed out is not modified
+        assertNotSame(canonical, canonicalAgain);
+        assertEquals(Boolean.FALSE, canonical.getOpened());
+    }
+
+    @Test
+    public void fillDoesNotOverwriteLiveFields() {
+        RestaurantStore store = RestaurantStore.getInstance();
+        store.canonical(restaurant("store-fill", "Chez Julien", true));
+
+        // Details stored an hour ago, closed at that time
+        Restaurant stored = restaurant("store-fill", "Chez Julien", false);
+        stored.setWebsite("https://chez-julien.fr");
+        Restaurant filled = store.fill(stored);
+
+        assertSame(filled, store.get("store-fill"));
+        assertEquals(Boolean.TRUE, filled.getOpened());
+        assertEquals("https://chez-julien.fr", filled.getWebsite());
+    }
+
+    @Test
+    public void internDoesNotMergeOutOfDateRecords() {
+        RestaurantStore store = RestaurantStore.getInstance();
+        Restaurant canonical = store.canonical(restaurant("store-intern", "Chez Julien", true));
+
+        // The restaurant saved with a lunch this morning
+        Restaurant interned = store.intern(restaurant("store-intern", "Chez Julien", false));
+
+        assertSame(canonical, interned);
+        assertEquals(Boolean.TRUE, canonical.getOpened());
+    }
+
+    @Test
+    public void resolveDoesNotStorePartialRecords() {
+        RestaurantStore store = RestaurantStore.getInstance();
+
+        // A lunch row of the local database, the place is not loaded
+        Restaurant row = restaurant("store-resolve", "Chez Julien", null);
+        assertSame(row, store.resolve(row));
+        assertNull(store.get("store-resolve"));
+
+        Restaurant canonical = store.canonical(restaurant("store-resolve", "Chez Julien", true));
+        assertSame(canonical, store.resolve(row));
+    }
+
+    @Test
+    public void equalityIsThePlaceId() {
+        assertEquals(restaurant("a", "Old name", true), restaurant("a", "New name", false));
+        assertEquals(restaurant("a", "Old name", true).hashCode(), restaurant("a", "New name", false).hashCode());
+        assertEquals(restaurant(null, "Same name", true), restaurant(null, "Same name", false));
+    }
+}
@@ -1,104 +1,121 @@
 package com.julien.go4lunch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
-import androidx.lifecycle.LiveData;
-import androidx.lifecycle.Observer;
-
-import com.julien.go4lunch.model.bo.Restaurant;
+import com.julien.go4lunch.loadgen.Office;
+import com.julien.go4lunch.loadgen.OfficeGenerator;
+import com.julien.go4lunch.loadgen.PlacesFixtures;
+import com.julien.go4lunch.loadgen.PlacesStandIn;
 import com.julien.go4lunch.model.bo.place.ListRestaurant;
-import com.julien.go4lunch.model.bo.place.Location;
 import com.julien.go4lunch.model.bo.place.Result;
 import com.julien.go4lunch.model.bo.place.ResultDetails;
 import com.julien.go4lunch.model.repository.RestaurantRepository;
 
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicInteger;
 
-import retrofit2.Call;
-import retrofit2.Callback;
 import retrofit2.Response;
 
-import static org.junit.Assert.assertEquals;
-
-import org.junit.Test;
-
+/**
+ * Places calls of the RestaurantRepository, against the loadgen stand-in serving a generated Paris office :
+ * no network and no key needed.
+ */
 public class RetrofitUnitTest {
-    private final String MAPS_RESTAURANT_TYPE = "restaurant";
-    private String placeId = null;
-    private String restaurantName = null;
-    private String restaurantAddress = null;
-    private Location location = null;
-
-    @Test
-    public void checkRestaurantNearByAsynchronously() throws InterruptedException {
-
-        CountDownLatch latch = new CountDownLatch(1);
-
-        AtomicInteger restaurantCount = new AtomicInteger(0);
-
-        RestaurantRepository restaurantRepository = RestaurantRepository.getInstance();
-
-        Call<ListRestaurant> listRestaurantCall = restaurantRepository.getCallAllRestaurants("48.1159843,-1.7296427", 1000, MAPS_RESTAURANT_TYPE);
-
-        listRestaurantCall.enqueue(new Callback<ListRestaurant>() {
-            @Override
-            public void onResponse(Call<ListRestaurant> call, Response<ListRestaurant> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Result> result = response.body().getResults();
-                    restaurantCount.set(result.size());
+    private static final String MAPS_RESTAURANT_TYPE = "restaurant";
+    private static final String OFFICE_LOCATION = "48.8572,2.3473";
+    private static final int RADIUS = 1000;
+
+    private static File fixtures;
+    private static PlacesStandIn placesStandIn;
+
+    @BeforeClass
+    public static void startPlacesStandIn() throws IOException {
+        OfficeGenerator.Config office = new OfficeGenerator.Config();
+        office.workmates = 1;
+        office.restaurants = 200;
+        office.days = 1;
+        Office generated = new OfficeGenerator(office).generate();
+
+        fixtures = Files.createTempDirectory("places").toFile();
+        new PlacesFixtures().write(generated, fixtures);
+
+        PlacesStandIn.Config config = new PlacesStandIn.Config();
+        config.port = 0;
+        placesStandIn = new PlacesStandIn(fixtures, config);
+        placesStandIn.start();
+
+        RestaurantRepository.getInstance().setBaseUrl(placesStandIn.getBaseUrl());
+    }
 
-                    placeId = result.get(0).getPlaceId();
-                }
-                latch.countDown();
-            }
+    @AfterClass
+    public static void stopPlacesStandIn() {
+        placesStandIn.stop();
+        deleteRecursively(fixtures);
+    }
 
-            @Override
-            public void onFailure(Call<ListRestaurant> call, Throwable t) {
-                latch.countDown();
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
             }
-        });
+        }
+        file.delete();
+    }
 
-        latch.await();
+    private List<Result> searchNearby() throws IOException {
+        Response<ListRestaurant> response = RestaurantRepository.getInstance()
+                .getCallAllRestaurants(OFFICE_LOCATION, RADIUS, MAPS_RESTAURANT_TYPE)
+                .execute();
 
-        assertTrue(restaurantCount.get() > 0);
+        assertTrue(response.isSuccessful());
+        assertNotNull(response.body());
+        return response.body().getResults();
     }
 
     @Test
-    public void checkRestaurantDetails() throws InterruptedException {
-
-
-        RestaurantRepository restaurantRepository = RestaurantRepository.getInstance();
-
-        Call<ResultDetails> restaurantDetails = restaurantRepository.getCallRestaurantDetails(placeId);
-
-        restaurantDetails.enqueue(new Callback<ResultDetails>() {
-            @Override
-            public void onResponse(Call<ResultDetails> call, Response<ResultDetails> response) {
-
-                Result result = response.body().getResult();
+    public void checkRestaurantNearBy() throws IOException {
+        List<Result> restaurants = searchNearby();
+
+        assertFalse(restaurants.isEmpty());
+        // A page of results, as the Places API
+        assertTrue(restaurants.size() <= 20);
+        for (Result restaurant : restaurants) {
+            assertNotNull(restaurant.getPlaceId());
+            assertNotNull(restaurant.getGeometry().getLocation().getLat());
+        }
+    }
 
-                restaurantName = result.getName();
-                restaurantAddress = result.getVicinity();
-                location = result.getGeometry().getLocation();
+    @Test
+    public void checkRestaurantDetails() throws IOException {
+        String placeId = searchNearby().get(0).getPlaceId();
+
+        Response<ResultDetails> response = RestaurantRepository.getInstance().getCallRestaurantDetails(placeId).execute();
+
+        assertTrue(response.isSuccessful());
+        Result result = response.body().getResult();
+        assertEquals(placeId, result.getPlaceId());
+        assertNotNull("Restaurant name should not be null", result.getName());
+        assertNotNull("Restaurant address should not be null", result.getVicinity());
+        assertNotNull("Restaurant location should not be null", result.getGeometry().getLocation());
+        assertNotNull("Restaurant website should not be null", result.getWebsite());
+    }
 
-                assertNotNull("Restaurant name should not be null", restaurantName);
-                assertNotNull("Restaurant address should not be null", restaurantAddress);
-                assertNotNull("Restaurant location should not be null", location);
-            }
+    @Test
+    public void unknownRestaurantHasNoDetails() throws IOException {
+        Response<ResultDetails> response = RestaurantRepository.getInstance().getCallRestaurantDetails("unknown-place").execute();
 
-            @Override
-            public void onFailure(Call<ResultDetails> call, Throwable t) {
-                assertNotNull("Restaurant name should not be null", restaurantName);
-                assertNotNull("Restaurant address should not be null", restaurantAddress);
-                assertNotNull("Restaurant location should not be null", location);
-            }
-        });
+        assertTrue(response.isSuccessful());
+        assertNull(response.body().getResult());
     }
 }
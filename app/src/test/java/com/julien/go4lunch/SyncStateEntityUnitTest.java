@@ -0,0 +1,35 @@
+package com.julien.go4lunch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.julien.go4lunch.model.db.SyncStateEntity;
+
+import org.junit.Test;
+
+public class SyncStateEntityUnitTest {
+
+    @Test
+    public void watermarkOnlyMovesForward() {
+        SyncStateEntity syncState = new SyncStateEntity("workmates");
+        assertFalse(syncState.hasWatermark());
+
+        syncState.advanceWatermark(100, 500);
+        syncState.advanceWatermark(100, 200);
+        syncState.advanceWatermark(99, 900);
+
+        assertTrue(syncState.hasWatermark());
+        assertEquals(100, syncState.watermarkSeconds);
+        assertEquals(500, syncState.watermarkNanos);
+    }
+
+    @Test
+    public void firstTimestampIsAWatermark() {
+        SyncStateEntity syncState = new SyncStateEntity("workmates");
+
+        syncState.advanceWatermark(0, 0);
+
+        assertTrue(syncState.hasWatermark());
+    }
+}
@@ -0,0 +1,45 @@
+#!/bin/sh
+# Repository benchmark on every dataset : 100, 1k and 10k workmates, with 1k, 10k and 100k lunches.
+# Each dataset is generated by loadgen and imported to an emptied Firestore emulator, then
+# RepositoryBenchmark runs on the connected device against it.
+#
+# Needs the emulators (firebase emulators:start --only firestore,auth) and a device or an Android emulator.
+# Results of the revision : build/benchmarks/repositories-<revision>.csv
+#
+# PROJECT, EMULATOR and ITERATIONS can be set in the environment.
+set -e
+cd "$(dirname "$0")/.."
+
+PROJECT=${PROJECT:-$(sed -n 's/.*"project_id": *"\([^"]*\)".*/\1/p' app/google-services.json)}
+EMULATOR=${EMULATOR:-localhost:8080}
+ITERATIONS=${ITERATIONS:-20}
+REVISION=$(git rev-parse --short HEAD)$(git diff --quiet HEAD || echo "-dirty")
+RESULTS=build/benchmarks/repositories-$REVISION.csv
+
+mkdir -p build/benchmarks
+rm -f "$RESULTS"
+
+for WORKMATES in 100 1000 10000; do
+    for LUNCHES in 1000 10000 100000; do
+        DATASET=$WORKMATES-$LUNCHES
+        echo "Dataset $DATASET"
+
+        ./gradlew -q :loadgen:run --args="--workmates $WORKMATES --restaurants 500 --lunches $LUNCHES \
+            --out build/benchmarks/office-$DATASET --emulator $EMULATOR --project $PROJECT --clear"
+
+        ./gradlew -q :app:connectedDebugAndroidTest \
+            -Pandroid.testInstrumentationRunnerArguments.class=com.julien.go4lunch.RepositoryBenchmark \
+            -Pandroid.testInstrumentationRunnerArguments.dataset="$DATASET" \
+            -Pandroid.testInstrumentationRunnerArguments.revision="$REVISION" \
+            -Pandroid.testInstrumentationRunnerArguments.iterations="$ITERATIONS"
+
+        for FILE in $(find app/build/outputs/connected_android_test_additional_output -name "repositories-$DATASET-*.csv"); do
+            if [ ! -f "$RESULTS" ]; then
+                head -n 1 "$FILE" > "$RESULTS"
+            fi
+            tail -n +2 "$FILE" >> "$RESULTS"
+        done
+    done
+done
+
+echo "Results in $RESULTS"
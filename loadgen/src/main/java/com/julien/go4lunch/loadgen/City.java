@@ -0,0 +1,124 @@
+package com.julien.go4lunch.loadgen;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A city as a mixture of restaurant districts : each district draws restaurants around its center,
+ * with a gaussian spread, in proportion to its weight. The office is in the first district.
+ */
+public class City {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    /**
+     * Paris, office near Châtelet (the location of the app seeder)
+     */
+    public static final City PARIS = new City("paris", new Locale("fr"), Arrays.asList(
+            new District(48.8572, 2.3473, 400, 3),  // Châtelet, Les Halles
+            new District(48.8708, 2.3317, 500, 2),  // Opéra
+            new District(48.8532, 2.3691, 450, 2),  // Bastille
+            new District(48.8539, 2.3338, 400, 2),  // Saint-Germain
+            new District(48.8918, 2.2380, 600, 1)   // La Défense
+    ));
+
+    /**
+     * Lyon, office at Part-Dieu
+     */
+    public static final City LYON = new City("lyon", new Locale("fr"), Arrays.asList(
+            new District(45.7606, 4.8590, 450, 3),  // Part-Dieu
+            new District(45.7640, 4.8357, 500, 3),  // Presqu'île
+            new District(45.7622, 4.8270, 300, 1)   // Vieux Lyon
+    ));
+
+    private final String name;
+    private final Locale locale;
+    private final List<District> districts;
+    private final double totalWeight;
+
+    public City(String name, Locale locale, List<District> districts) {
+        this.name = name;
+        this.locale = locale;
+        this.districts = districts;
+        double weight = 0;
+        for (District district : districts) {
+            weight += district.weight;
+        }
+        this.totalWeight = weight;
+    }
+
+    /**
+     * Gets a city by name, paris or lyon.
+     * @throws IllegalArgumentException for an unknown city
+     */
+    public static City named(String name) {
+        for (City city : Arrays.asList(PARIS, LYON)) {
+            if (city.name.equalsIgnoreCase(name)) {
+                return city;
+            }
+        }
+        throw new IllegalArgumentException("Unknown city : " + name + ", expected paris or lyon");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Locale of the generated names and addresses
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public double[] getOffice() {
+        District office = districts.get(0);
+        return new double[]{office.latitude, office.longitude};
+    }
+
+    /**
+     * Draws a restaurant position, {latitude, longitude}.
+     */
+    public double[] samplePosition(Random random) {
+        double pick = random.nextDouble() * totalWeight;
+        District district = districts.get(districts.size() - 1);
+        for (District candidate : districts) {
+            pick -= candidate.weight;
+            if (pick < 0) {
+                district = candidate;
+                break;
+            }
+        }
+
+        double northMeters = random.nextGaussian() * district.spreadMeters;
+        double eastMeters = random.nextGaussian() * district.spreadMeters;
+        double latitude = district.latitude + northMeters / METERS_PER_DEGREE;
+        double longitude = district.longitude + eastMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(district.latitude)));
+        return new double[]{latitude, longitude};
+    }
+
+    /**
+     * Distance in meters between two positions, equirectangular : exact enough inside a city.
+     */
+    public static double distanceMeters(double[] from, double[] to) {
+        double x = Math.toRadians(to[1] - from[1]) * Math.cos(Math.toRadians((from[0] + to[0]) / 2));
+        double y = Math.toRadians(to[0] - from[0]);
+        return Math.sqrt(x * x + y * y) * 6_371_000;
+    }
+
+    public static class District {
+        final double latitude;
+        final double longitude;
+        final double spreadMeters;
+        final double weight;
+
+        public District(double latitude, double longitude, double spreadMeters, double weight) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.spreadMeters = spreadMeters;
+            this.weight = weight;
+        }
+    }
+}
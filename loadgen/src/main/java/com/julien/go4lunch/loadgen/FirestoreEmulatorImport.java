@@ -0,0 +1,171 @@
+package com.julien.go4lunch.loadgen;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sends the documents written by {@link FirestoreExport} to a Firestore emulator, with the REST commit
+ * of up to 500 writes, a few commits at the same time. The emulator export format is internal to the
+ * emulator, the documents are loaded through its API instead.
+ *
+ * Documents keep their ids, so an import can be run again over the same data.
+ */
+public class FirestoreEmulatorImport {
+
+    private static final int MAX_WRITES_PER_COMMIT = 500;
+
+    private final Gson gson = new Gson();
+    private final String commitUrl;
+    private final String clearUrl;
+    private final String documentsPath;
+    private final int concurrentCommits;
+
+    /**
+     * @param host emulator host and port, e.g. localhost:8080
+     * @param projectId Firebase project id of the app
+     */
+    public FirestoreEmulatorImport(String host, String projectId, int concurrentCommits) {
+        this.documentsPath = "projects/" + projectId + "/databases/(default)/documents";
+        this.commitUrl = "http://" + host + "/v1/" + documentsPath + ":commit";
+        this.clearUrl = "http://" + host + "/emulator/v1/" + documentsPath;
+        this.concurrentCommits = concurrentCommits;
+    }
+
+    /**
+     * Imports a collection file, e.g. workmates.ndjson, and logs the documents per second.
+     * @return the number of documents imported
+     */
+    public int importFile(File file) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrentCommits);
+        List<Future<Integer>> commits = new ArrayList<>();
+        // Bounds the batches read ahead of the commits, a file of lunches does not fit in memory as JSON
+        Semaphore queued = new Semaphore(concurrentCommits * 2);
+        long startedAt = System.currentTimeMillis();
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            JsonArray writes = new JsonArray();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonObject document = gson.fromJson(line, JsonObject.class);
+                document.addProperty("name", documentsPath + "/" + document.get("name").getAsString());
+                JsonObject write = new JsonObject();
+                write.add("update", document);
+                writes.add(write);
+
+                if (writes.size() == MAX_WRITES_PER_COMMIT) {
+                    commits.add(submit(executor, queued, writes));
+                    writes = new JsonArray();
+                }
+            }
+            if (writes.size() > 0) {
+                commits.add(submit(executor, queued, writes));
+            }
+
+            int documents = 0;
+            for (Future<Integer> commit : commits) {
+                documents += commit.get();
+            }
+
+            long elapsedMillis = Math.max(System.currentTimeMillis() - startedAt, 1);
+            System.out.println(String.format(Locale.ROOT, "%s : %d documents in %d commits, %d ms, %.0f documents/s",
+                    file.getName(), documents, commits.size(), elapsedMillis, documents * 1000.0 / elapsedMillis));
+            return documents;
+        } catch (ExecutionException e) {
+            throw new IOException("Import of " + file.getName() + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Deletes every document of the project from the emulator, so that an import starts from an empty database.
+     */
+    public void clear() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(clearUrl).openConnection();
+        try {
+            connection.setRequestMethod("DELETE");
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Clear failed, response code : " + code + ", " + readError(connection));
+            }
+            System.out.println("Emulator cleared");
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private Future<Integer> submit(ExecutorService executor, Semaphore queued, JsonArray writes) throws InterruptedException {
+        queued.acquire();
+        return executor.submit(() -> {
+            try {
+                return commit(writes);
+            } finally {
+                queued.release();
+            }
+        });
+    }
+
+    private int commit(JsonArray writes) throws IOException {
+        JsonObject body = new JsonObject();
+        body.add("writes", writes);
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(commitUrl).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            // The emulator accepts the "owner" token as an admin : security rules are skipped
+            connection.setRequestProperty("Authorization", "Bearer owner");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Commit failed, response code : " + code + ", " + readError(connection));
+            }
+            return writes.size();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String readError(HttpURLConnection connection) throws IOException {
+        try (InputStream error = connection.getErrorStream()) {
+            if (error == null) {
+                return "";
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = error.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
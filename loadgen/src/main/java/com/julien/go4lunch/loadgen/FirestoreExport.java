@@ -0,0 +1,178 @@
+package com.julien.go4lunch.loadgen;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+/**
+ * Writes an office as Firestore documents, one file per collection, one document per line,
+ * in the JSON of the Firestore REST API : {"name": "workmates/loadgen-workmate-000001", "fields": {...}}.
+ * Names are relative to the database, {@link FirestoreEmulatorImport} sends them to the emulator.
+ *
+ * Fields are the ones the app writes : the bean properties of Workmate, Restaurant and Lunch,
+ * `updatedAt` for the workmates delta sync, `name` and `id` for the liked restaurants.
+ */
+public class FirestoreExport {
+
+    static final String WORKMATES = "workmates";
+    static final String LUNCHES = "lunches";
+    static final String LIKED_RESTAURANT = "likedRestaurant";
+
+    private final Gson gson = new Gson();
+
+    /**
+     * Writes workmates.ndjson, lunches.ndjson and likedRestaurant.ndjson to the directory.
+     * @return the number of documents written
+     */
+    public int write(Office office, File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        int documents = 0;
+
+        // Workmates are updated a little after 8:00 today, so that their order is the one of the watermark
+        String updatedAtDay = office.today.substring(0, 10);
+        try (Writer writer = newWriter(directory, WORKMATES)) {
+            for (int i = 0; i < office.workmates.size(); i++) {
+                Office.Workmate workmate = office.workmates.get(i);
+                JsonObject fields = workmateFields(workmate);
+                fields.add("updatedAt", timestampValue(updatedAtDay + "T08:00:00." + String.format(Locale.ROOT, "%06d", i % 1_000_000) + "Z"));
+                documents += writeDocument(writer, WORKMATES + "/" + workmate.documentId, fields);
+            }
+        }
+
+        try (Writer writer = newWriter(directory, LUNCHES)) {
+            for (Office.Lunch lunch : office.lunches) {
+                JsonObject fields = new JsonObject();
+                fields.add("workmate", mapValue(workmateFields(lunch.workmate)));
+                fields.add("restaurant", mapValue(restaurantFields(lunch.restaurant)));
+                fields.add("date", stringValue(lunch.date));
+                documents += writeDocument(writer, LUNCHES + "/" + lunch.documentId, fields);
+            }
+        }
+
+        try (Writer writer = newWriter(directory, LIKED_RESTAURANT)) {
+            for (Office.Like like : office.likes) {
+                JsonObject fields = new JsonObject();
+                fields.add("name", stringValue(like.restaurant.name));
+                fields.add("id", stringValue(like.restaurant.placeId));
+                documents += writeDocument(writer, WORKMATES + "/" + like.workmate.documentId + "/"
+                        + LIKED_RESTAURANT + "/" + like.restaurant.placeId, fields);
+            }
+        }
+
+        return documents;
+    }
+
+    private Writer newWriter(File directory, String collection) throws IOException {
+        return Files.newBufferedWriter(new File(directory, collection + ".ndjson").toPath(), StandardCharsets.UTF_8);
+    }
+
+    private int writeDocument(Writer writer, String name, JsonObject fields) throws IOException {
+        JsonObject document = new JsonObject();
+        document.addProperty("name", name);
+        document.add("fields", fields);
+        writer.write(gson.toJson(document));
+        writer.write('\n');
+        return 1;
+    }
+
+    private static JsonObject workmateFields(Office.Workmate workmate) {
+        JsonObject fields = new JsonObject();
+        fields.add("uid", stringValue(workmate.uid));
+        fields.add("name", stringValue(workmate.name));
+        fields.add("email", stringValue(workmate.email));
+        fields.add("notificationEnabled", booleanValue(workmate.notificationEnabled));
+        return fields;
+    }
+
+    private static JsonObject restaurantFields(Office.Restaurant restaurant) {
+        JsonObject location = new JsonObject();
+        location.add("lat", doubleValue(restaurant.latitude));
+        location.add("lng", doubleValue(restaurant.longitude));
+
+        JsonObject photo = new JsonObject();
+        photo.add("photoReference", stringValue(restaurant.photoReference));
+        photo.add("height", integerValue(400));
+        photo.add("width", integerValue(600));
+        JsonArray photos = new JsonArray();
+        photos.add(mapValue(photo));
+
+        JsonArray types = new JsonArray();
+        types.add(stringValue("restaurant"));
+        types.add(stringValue("food"));
+
+        JsonObject fields = new JsonObject();
+        fields.add("id", stringValue(restaurant.placeId));
+        fields.add("name", stringValue(restaurant.name));
+        fields.add("address", stringValue(restaurant.address));
+        fields.add("location", mapValue(location));
+        fields.add("types", arrayValue(types));
+        fields.add("opened", booleanValue(restaurant.opened));
+        fields.add("numberOfReviews", integerValue(restaurant.numberOfReviews));
+        fields.add("rating", doubleValue(restaurant.rating));
+        fields.add("photos", arrayValue(photos));
+        return fields;
+    }
+
+    // FIRESTORE VALUES
+
+    private static JsonObject value(String type, Object value) {
+        JsonObject json = new JsonObject();
+        if (value instanceof Boolean) {
+            json.addProperty(type, (Boolean) value);
+        } else if (value instanceof Number) {
+            json.addProperty(type, (Number) value);
+        } else {
+            json.addProperty(type, value.toString());
+        }
+        return json;
+    }
+
+    private static JsonObject stringValue(String value) {
+        if (value == null) {
+            JsonObject json = new JsonObject();
+            json.addProperty("nullValue", "NULL_VALUE");
+            return json;
+        }
+        return value("stringValue", value);
+    }
+
+    private static JsonObject booleanValue(boolean value) {
+        return value("booleanValue", value);
+    }
+
+    // 64 bits integers are strings in the REST API
+    private static JsonObject integerValue(long value) {
+        return value("integerValue", Long.toString(value));
+    }
+
+    private static JsonObject doubleValue(double value) {
+        return value("doubleValue", value);
+    }
+
+    private static JsonObject timestampValue(String value) {
+        return value("timestampValue", value);
+    }
+
+    private static JsonObject mapValue(JsonObject fields) {
+        JsonObject map = new JsonObject();
+        map.add("fields", fields);
+        JsonObject json = new JsonObject();
+        json.add("mapValue", map);
+        return json;
+    }
+
+    private static JsonObject arrayValue(JsonArray values) {
+        JsonObject array = new JsonObject();
+        array.add("values", values);
+        JsonObject json = new JsonObject();
+        json.add("arrayValue", array);
+        return json;
+    }
+}
@@ -0,0 +1,136 @@
+package com.julien.go4lunch.loadgen;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a synthetic office and writes it as Firestore documents and Places fixtures :
+ *
+ * <pre>
+ * ./gradlew :loadgen:run --args="--workmates 50000 --restaurants 2000 --days 10 --out build/office"
+ * </pre>
+ *
+ * writes build/office/firestore/*.ndjson and build/office/places/. With `--emulator localhost:8080 --project id`,
+ * the Firestore documents are then imported to the emulator. The same arguments give the same files.
+ */
+public class LoadGen {
+
+    private static final String USAGE = "Usage : loadgen [options]\n"
+            + "  --workmates N        workmates of the office (50000)\n"
+            + "  --restaurants N      restaurants around the office (2000)\n"
+            + "  --days N             workdays of lunches, today included (10)\n"
+            + "  --lunches N          about N lunches in all, sets the days\n"
+            + "  --lunch-rate R       share of the workmates lunching out each day (0.6)\n"
+            + "  --zipf S             popularity skew of the restaurants (1.0)\n"
+            + "  --walk-meters M      distance at which a restaurant is e times less chosen (800)\n"
+            + "  --likes N            liked restaurants per workmate (3)\n"
+            + "  --city NAME          paris or lyon (paris)\n"
+            + "  --seed N             random seed (42)\n"
+            + "  --today YYYY-MM-DD   day of today's lunches (today, UTC)\n"
+            + "  --out DIR            output directory (build/office)\n"
+            + "  --emulator HOST:PORT imports the documents to a Firestore emulator\n"
+            + "  --project ID         Firebase project id, required with --emulator\n"
+            + "  --concurrent N       commits sent at the same time to the emulator (4)\n"
+            + "  --clear              deletes the documents of the emulator before the import\n";
+
+    private static final Set<String> FLAGS = new HashSet<>(Arrays.asList("help", "clear"));
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + "\n" + USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.containsKey("help")) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        OfficeGenerator.Config config = new OfficeGenerator.Config();
+        config.workmates = intOption(options, "workmates", config.workmates);
+        config.restaurants = intOption(options, "restaurants", config.restaurants);
+        config.days = intOption(options, "days", config.days);
+        config.lunchRate = doubleOption(options, "lunch-rate", config.lunchRate);
+        config.zipfExponent = doubleOption(options, "zipf", config.zipfExponent);
+        config.walkMeters = doubleOption(options, "walk-meters", config.walkMeters);
+        config.likesPerWorkmate = intOption(options, "likes", config.likesPerWorkmate);
+        if (options.containsKey("lunches")) {
+            int lunches = intOption(options, "lunches", 0);
+            // Fewer lunches than a day of the office : fewer workmates lunch out, today only
+            config.lunchRate = Math.min(config.lunchRate, (double) lunches / config.workmates);
+            config.days = OfficeGenerator.daysFor(lunches, config.workmates, config.lunchRate);
+        }
+        config.seed = Long.parseLong(options.getOrDefault("seed", Long.toString(config.seed)));
+        if (options.containsKey("city")) {
+            config.city = City.named(options.get("city"));
+        }
+        if (options.containsKey("today")) {
+            config.today = LocalDate.parse(options.get("today"));
+        }
+        File out = new File(options.getOrDefault("out", "build/office"));
+
+        long startedAt = System.currentTimeMillis();
+        Office office = new OfficeGenerator(config).generate();
+        System.out.println("Generated " + office + " in " + (System.currentTimeMillis() - startedAt) + " ms");
+
+        File firestoreDirectory = new File(out, "firestore");
+        int documents = new FirestoreExport().write(office, firestoreDirectory);
+        int fixtures = new PlacesFixtures().write(office, new File(out, "places"));
+        System.out.println("Written " + documents + " Firestore documents and " + fixtures + " Places fixtures to " + out);
+
+        if (options.containsKey("emulator")) {
+            String projectId = options.get("project");
+            if (projectId == null) {
+                System.err.println("--project is required with --emulator\n" + USAGE);
+                System.exit(2);
+            }
+            FirestoreEmulatorImport emulatorImport = new FirestoreEmulatorImport(options.get("emulator"), projectId,
+                    intOption(options, "concurrent", 4));
+            if (options.containsKey("clear")) {
+                emulatorImport.clear();
+            }
+            // Workmates first : the lunches and likes of a partial import still have their workmates
+            for (String collection : new String[]{FirestoreExport.WORKMATES, FirestoreExport.LUNCHES, FirestoreExport.LIKED_RESTAURANT}) {
+                emulatorImport.importFile(new File(firestoreDirectory, collection + ".ndjson"));
+            }
+        }
+    }
+
+    /**
+     * Parses `--name value` pairs, the flags `--help` and `--clear` have no value.
+     * @throws IllegalArgumentException for an argument without value or not starting with --
+     */
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument : " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (FLAGS.contains(name)) {
+                options.put(name, "");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value of --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static double doubleOption(Map<String, String> options, String name, double defaultValue) {
+        return options.containsKey(name) ? Double.parseDouble(options.get(name)) : defaultValue;
+    }
+}
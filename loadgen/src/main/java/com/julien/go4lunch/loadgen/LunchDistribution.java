@@ -0,0 +1,61 @@
+package com.julien.go4lunch.loadgen;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Daily lunch distribution of an office.
+ *
+ * Each workday, a workmate lunches out with the probability `lunchRate`. The restaurant is drawn
+ * with a weight of rank^-zipfExponent (a few restaurants take most of the lunches, in the order
+ * of the list) times exp(-distance / walkMeters) from the office (the close ones are preferred).
+ */
+public class LunchDistribution {
+
+    private final double lunchRate;
+    private final double[] cumulativeWeights;
+
+    /**
+     * @param restaurants restaurants by popularity rank, the first one is the most popular
+     * @param office office position, {latitude, longitude}
+     * @param lunchRate share of the workmates lunching out on a workday, from 0 to 1
+     * @param zipfExponent popularity skew, 0 for restaurants all as popular
+     * @param walkMeters distance at which a restaurant is e times less chosen
+     */
+    public LunchDistribution(List<Office.Restaurant> restaurants, double[] office, double lunchRate, double zipfExponent, double walkMeters) {
+        if (restaurants.isEmpty()) {
+            throw new IllegalArgumentException("No restaurant to lunch at");
+        }
+        if (lunchRate < 0 || lunchRate > 1) {
+            throw new IllegalArgumentException("Lunch rate must be between 0 and 1 : " + lunchRate);
+        }
+        this.lunchRate = lunchRate;
+        this.cumulativeWeights = new double[restaurants.size()];
+
+        double total = 0;
+        for (int rank = 0; rank < restaurants.size(); rank++) {
+            Office.Restaurant restaurant = restaurants.get(rank);
+            double distance = City.distanceMeters(office, new double[]{restaurant.latitude, restaurant.longitude});
+            total += Math.pow(rank + 1, -zipfExponent) * Math.exp(-distance / walkMeters);
+            cumulativeWeights[rank] = total;
+        }
+    }
+
+    /**
+     * Draws if a workmate lunches out today.
+     */
+    public boolean lunchesOut(Random random) {
+        return random.nextDouble() < lunchRate;
+    }
+
+    /**
+     * Draws the index of the restaurant of a lunch.
+     */
+    public int pickRestaurant(Random random) {
+        double pick = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, pick);
+        // Not found : -(insertion point) - 1, the first weight above the pick
+        return index >= 0 ? index : Math.min(-index - 1, cumulativeWeights.length - 1);
+    }
+}
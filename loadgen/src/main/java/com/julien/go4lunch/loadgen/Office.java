@@ -0,0 +1,107 @@
+package com.julien.go4lunch.loadgen;
+
+import java.util.List;
+
+/**
+ * A generated office : its workmates, the restaurants around it, the lunches of the last days
+ * and the restaurants each workmate likes. Ids are stable for a given seed.
+ */
+public class Office {
+
+    final City city;
+    final String today;
+    final List<Workmate> workmates;
+    final List<Restaurant> restaurants;
+    final List<Lunch> lunches;
+    final List<Like> likes;
+
+    Office(City city, String today, List<Workmate> workmates, List<Restaurant> restaurants, List<Lunch> lunches, List<Like> likes) {
+        this.city = city;
+        this.today = today;
+        this.workmates = workmates;
+        this.restaurants = restaurants;
+        this.lunches = lunches;
+        this.likes = likes;
+    }
+
+    @Override
+    public String toString() {
+        return city.getName() + " office : " + workmates.size() + " workmates, " + restaurants.size() + " restaurants, "
+                + lunches.size() + " lunches, " + likes.size() + " likes";
+    }
+
+    /**
+     * Fields of the app's Workmate, as written to Firestore
+     */
+    static class Workmate {
+        final String documentId;
+        final String uid;
+        final String name;
+        final String email;
+        final boolean notificationEnabled;
+
+        Workmate(String documentId, String uid, String name, String email, boolean notificationEnabled) {
+            this.documentId = documentId;
+            this.uid = uid;
+            this.name = name;
+            this.email = email;
+            this.notificationEnabled = notificationEnabled;
+        }
+    }
+
+    /**
+     * Fields of a Places result, with the details of the details request
+     */
+    static class Restaurant {
+        final String placeId;
+        final String name;
+        final String address;
+        final double latitude;
+        final double longitude;
+        final double rating;
+        final int numberOfReviews;
+        final boolean opened;
+        final String photoReference;
+        final String website;
+        final String phoneNumber;
+
+        Restaurant(String placeId, String name, String address, double latitude, double longitude, double rating,
+                   int numberOfReviews, boolean opened, String photoReference, String website, String phoneNumber) {
+            this.placeId = placeId;
+            this.name = name;
+            this.address = address;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.rating = rating;
+            this.numberOfReviews = numberOfReviews;
+            this.opened = opened;
+            this.photoReference = photoReference;
+            this.website = website;
+            this.phoneNumber = phoneNumber;
+        }
+    }
+
+    static class Lunch {
+        final String documentId;
+        final Workmate workmate;
+        final Restaurant restaurant;
+        final String date; // the day, as the app writes it : 2024-06-03T00:00:00Z
+
+        Lunch(String documentId, Workmate workmate, Restaurant restaurant, String date) {
+            this.documentId = documentId;
+            this.workmate = workmate;
+            this.restaurant = restaurant;
+            this.date = date;
+        }
+    }
+
+    static class Like {
+        final Workmate workmate;
+        final Restaurant restaurant;
+
+        Like(Workmate workmate, Restaurant restaurant) {
+            this.workmate = workmate;
+            this.restaurant = restaurant;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.julien.go4lunch.loadgen;
+
+import com.github.javafaker.Faker;
+
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Generates an office from a configuration. The same configuration and seed give the same office :
+ * workmates, restaurants and lunches are drawn from their own random streams, so that changing
+ * the number of lunches does not change the workmates or the restaurants.
+ */
+public class OfficeGenerator {
+
+    /**
+     * Configuration of the generated office, with the defaults of a 50k workmates company
+     */
+    public static class Config {
+        public int workmates = 50_000;
+        public int restaurants = 2_000;
+        public int days = 10; // workdays, today included
+        public double lunchRate = 0.6;
+        public double zipfExponent = 1.0;
+        public double walkMeters = 800;
+        public int likesPerWorkmate = 3;
+        public long seed = 42;
+        public LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        public City city = City.PARIS;
+    }
+
+    private final Config config;
+
+    public OfficeGenerator(Config config) {
+        this.config = config;
+    }
+
+    public Office generate() {
+        List<Office.Workmate> workmates = generateWorkmates(new Random(config.seed));
+        List<Office.Restaurant> restaurants = generateRestaurants(new Random(config.seed + 1));
+        LunchDistribution distribution = new LunchDistribution(restaurants, config.city.getOffice(),
+                config.lunchRate, config.zipfExponent, config.walkMeters);
+
+        List<Office.Lunch> lunches = generateLunches(workmates, restaurants, distribution, new Random(config.seed + 2));
+        List<Office.Like> likes = generateLikes(workmates, restaurants, distribution, new Random(config.seed + 3));
+
+        return new Office(config.city, toDay(config.today), workmates, restaurants, lunches, likes);
+    }
+
+    private List<Office.Workmate> generateWorkmates(Random random) {
+        Faker faker = new Faker(config.city.getLocale(), random);
+        List<Office.Workmate> workmates = new ArrayList<>(config.workmates);
+
+        for (int i = 0; i < config.workmates; i++) {
+            String firstName = faker.name().firstName();
+            String lastName = faker.name().lastName();
+            String email = slug(firstName) + "." + slug(lastName) + "." + i + "@go4lunch.example";
+            String uid = new UUID(random.nextLong(), random.nextLong()).toString();
+
+            workmates.add(new Office.Workmate(String.format(Locale.ROOT, "loadgen-workmate-%06d", i), uid,
+                    firstName + " " + lastName, email, random.nextDouble() < 0.3));
+        }
+        return workmates;
+    }
+
+    private List<Office.Restaurant> generateRestaurants(Random random) {
+        Faker faker = new Faker(config.city.getLocale(), random);
+        List<Office.Restaurant> restaurants = new ArrayList<>(config.restaurants);
+
+        for (int i = 0; i < config.restaurants; i++) {
+            String name = restaurantName(faker, random);
+            double[] position = config.city.samplePosition(random);
+            // Ratings are mostly between 3.5 and 4.8, reviews spread over several orders of magnitude
+            double rating = Math.round(Math.max(1, Math.min(5, 4.1 + random.nextGaussian() * 0.45)) * 10) / 10.0;
+            int numberOfReviews = (int) Math.round(Math.exp(4 + random.nextGaussian() * 1.5));
+
+            restaurants.add(new Office.Restaurant(
+                    String.format(Locale.ROOT, "loadgen-place-%05d", i),
+                    name,
+                    faker.address().streetAddress() + ", " + capitalize(config.city.getName()),
+                    position[0],
+                    position[1],
+                    rating,
+                    numberOfReviews,
+                    random.nextDouble() < 0.8,
+                    String.format(Locale.ROOT, "loadgen-photo-%05d", i),
+                    "https://" + slug(name) + "-" + i + ".example",
+                    faker.phoneNumber().phoneNumber()));
+        }
+        return restaurants;
+    }
+
+    private List<Office.Lunch> generateLunches(List<Office.Workmate> workmates, List<Office.Restaurant> restaurants,
+                                               LunchDistribution distribution, Random random) {
+        List<Office.Lunch> lunches = new ArrayList<>();
+
+        for (LocalDate day : workdays()) {
+            String date = toDay(day);
+            for (int i = 0; i < workmates.size(); i++) {
+                if (distribution.lunchesOut(random)) {
+                    Office.Workmate workmate = workmates.get(i);
+                    lunches.add(new Office.Lunch("loadgen-lunch-" + day + "-" + i, workmate,
+                            restaurants.get(distribution.pickRestaurant(random)), date));
+                }
+            }
+        }
+        return lunches;
+    }
+
+    private List<Office.Like> generateLikes(List<Office.Workmate> workmates, List<Office.Restaurant> restaurants,
+                                            LunchDistribution distribution, Random random) {
+        List<Office.Like> likes = new ArrayList<>();
+        int likesPerWorkmate = Math.min(config.likesPerWorkmate, restaurants.size());
+
+        for (Office.Workmate workmate : workmates) {
+            Set<Integer> liked = new HashSet<>();
+            // Popular restaurants are drawn again and again, the attempts are bounded
+            for (int attempt = 0; liked.size() < likesPerWorkmate && attempt < likesPerWorkmate * 10; attempt++) {
+                liked.add(distribution.pickRestaurant(random));
+            }
+            for (int index : liked) {
+                likes.add(new Office.Like(workmate, restaurants.get(index)));
+            }
+        }
+        return likes;
+    }
+
+    /**
+     * The `days` last workdays, from today. Today is kept during a weekend, the app always reads today.
+     */
+    List<LocalDate> workdays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = config.today; days.size() < config.days; day = day.minusDays(1)) {
+            boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+            if (!weekend || day.equals(config.today)) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * The workdays giving about `lunches` lunches to an office of `workmates` workmates, one at least.
+     */
+    public static int daysFor(int lunches, int workmates, double lunchRate) {
+        return Math.max(1, (int) Math.ceil(lunches / (workmates * lunchRate)));
+    }
+
+    /**
+     * The day as the app writes it in a lunch : Instant.now().truncatedTo(ChronoUnit.DAYS).toString()
+     */
+    static String toDay(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toString();
+    }
+
+    private static String restaurantName(Faker faker, Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return "Chez " + faker.name().firstName();
+            case 1:
+                return "Le Bistrot de " + faker.name().lastName();
+            case 2:
+                return "La Table de " + faker.name().firstName();
+            default:
+                return "Les Saveurs de " + faker.address().cityName();
+        }
+    }
+
+    private static String slug(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("[^\\p{ASCII}]", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("(^-|-$)", "");
+    }
+
+    private static String capitalize(String value) {
+        return value.isEmpty() ? value : value.substring(0, 1).toUpperCase(Locale.ROOT) + value.substring(1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.julien.go4lunch.loadgen;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes the restaurants of an office as Places API responses, the JSON the app's Retrofit service reads :
+ * nearbysearch.json with every restaurant (a stand-in server keeps the ones in the requested radius),
+ * and details/{place_id}.json for each restaurant.
+ */
+public class PlacesFixtures {
+
+    static final String NEARBY_SEARCH_FILE = "nearbysearch.json";
+    static final String DETAILS_DIRECTORY = "details";
+
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+    /**
+     * @return the number of files written
+     */
+    public int write(Office office, File directory) throws IOException {
+        File detailsDirectory = new File(directory, DETAILS_DIRECTORY);
+        Files.createDirectories(detailsDirectory.toPath());
+
+        JsonArray results = new JsonArray();
+        for (Office.Restaurant restaurant : office.restaurants) {
+            results.add(toResult(restaurant));
+        }
+        JsonObject nearbySearch = new JsonObject();
+        nearbySearch.add("html_attributions", new JsonArray());
+        nearbySearch.add("results", results);
+        nearbySearch.addProperty("status", "OK");
+        writeJson(new File(directory, NEARBY_SEARCH_FILE), nearbySearch);
+
+        for (Office.Restaurant restaurant : office.restaurants) {
+            JsonObject result = toResult(restaurant);
+            result.addProperty("website", restaurant.website);
+            result.addProperty("formatted_phone_number", restaurant.phoneNumber);
+
+            JsonObject details = new JsonObject();
+            details.add("html_attributions", new JsonArray());
+            details.add("result", result);
+            details.addProperty("status", "OK");
+            writeJson(new File(detailsDirectory, restaurant.placeId + ".json"), details);
+        }
+
+        return office.restaurants.size() + 1;
+    }
+
+    private JsonObject toResult(Office.Restaurant restaurant) {
+        JsonObject location = new JsonObject();
+        location.addProperty("lat", restaurant.latitude);
+        location.addProperty("lng", restaurant.longitude);
+        JsonObject geometry = new JsonObject();
+        geometry.add("location", location);
+
+        JsonObject openingHours = new JsonObject();
+        openingHours.addProperty("open_now", restaurant.opened);
+
+        JsonObject photo = new JsonObject();
+        photo.addProperty("height", 400);
+        photo.addProperty("width", 600);
+        photo.addProperty("photo_reference", restaurant.photoReference);
+        photo.add("html_attributions", new JsonArray());
+        JsonArray photos = new JsonArray();
+        photos.add(photo);
+
+        JsonArray types = new JsonArray();
+        types.add("restaurant");
+        types.add("food");
+
+        JsonObject result = new JsonObject();
+        result.addProperty("business_status", "OPERATIONAL");
+        result.addProperty("place_id", restaurant.placeId);
+        result.addProperty("name", restaurant.name);
+        result.addProperty("vicinity", restaurant.address);
+        result.add("geometry", geometry);
+        result.add("opening_hours", openingHours);
+        result.add("photos", photos);
+        result.addProperty("rating", restaurant.rating);
+        result.addProperty("user_ratings_total", restaurant.numberOfReviews);
+        result.add("types", types);
+        return result;
+    }
+
+    private void writeJson(File file, JsonObject json) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(json, writer);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.julien.go4lunch.loadgen;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Local stand-in of the Places API, serving the fixtures written by {@link PlacesFixtures} :
+ * nearbysearch/json (the restaurants in the radius, by page, with next_page_token), details/json and photo.
+ *
+ * Latency, error rate, page size and payload size are configured, the draws come from a seeded random :
+ * a benchmark run against it does not depend on the network or on a key.
+ *
+ * <pre>
+ * ./gradlew :loadgen:servePlaces --args="--fixtures build/office/places --port 8090 --latency 150"
+ * </pre>
+ *
+ * The app points at it with PLACES_BASE_URL=http://10.0.2.2:8090/maps/api/place/ in local.properties.
+ */
+public class PlacesStandIn {
+
+    /**
+     * Path of the Places API, the base URL of the app ends with it
+     */
+    public static final String BASE_PATH = "/maps/api/place/";
+
+    public static final String NEARBY_SEARCH = "nearbysearch/json";
+    public static final String DETAILS = "details/json";
+    public static final String PHOTO = "photo";
+
+    // Places returns at most 3 pages of 20 results
+    private static final int MAX_RESULTS = 60;
+    private static final Pattern PLACE_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /**
+     * Configuration of the stand-in, with the defaults of an instant and reliable Places API
+     */
+    public static class Config {
+        public int port = 8090;
+        public long latencyMillis = 0;
+        public long jitterMillis = 0;
+        public double errorRate = 0; // share of the requests answered with an HTTP 500
+        public int pageSize = 20;
+        public int paddingBytes = 0; // added to each JSON response, to test larger payloads
+        public long seed = 42;
+    }
+
+    private final File fixtures;
+    private final Config config;
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+    private final Random random;
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    private List<JsonObject> results;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param fixtures directory written by {@link PlacesFixtures}
+     */
+    public PlacesStandIn(File fixtures, Config config) {
+        this.fixtures = fixtures;
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    /**
+     * Starts the server, on a free port if the configured port is 0.
+     */
+    public synchronized void start() throws IOException {
+        try (Reader reader = Files.newBufferedReader(new File(fixtures, PlacesFixtures.NEARBY_SEARCH_FILE).toPath(), StandardCharsets.UTF_8)) {
+            JsonArray array = gson.fromJson(reader, JsonObject.class).getAsJsonArray("results");
+            results = new ArrayList<>(array.size());
+            for (JsonElement result : array) {
+                results.add(result.getAsJsonObject());
+            }
+        }
+
+        server = HttpServer.create(new InetSocketAddress(config.port), 0);
+        server.createContext(BASE_PATH + NEARBY_SEARCH, exchange -> handle(exchange, NEARBY_SEARCH));
+        server.createContext(BASE_PATH + DETAILS, exchange -> handle(exchange, DETAILS));
+        server.createContext(BASE_PATH + PHOTO, exchange -> handle(exchange, PHOTO));
+        // Requests wait for their latency in parallel, as they would on the network
+        executor = Executors.newFixedThreadPool(8);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Base URL of the app's Retrofit service, on this machine.
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort() + BASE_PATH;
+    }
+
+    /**
+     * Requests received by an endpoint, {@link #NEARBY_SEARCH}, {@link #DETAILS} or {@link #PHOTO}.
+     */
+    public int getRequestCount(String endpoint) {
+        AtomicInteger count = requestCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    private void handle(HttpExchange exchange, String endpoint) throws IOException {
+        try {
+            requestCounts.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            long delay;
+            boolean fails;
+            synchronized (random) {
+                delay = config.latencyMillis + (config.jitterMillis > 0 ? (long) (random.nextDouble() * config.jitterMillis) : 0);
+                fails = random.nextDouble() < config.errorRate;
+            }
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            if (fails) {
+                respondJson(exchange, 500, status("UNKNOWN_ERROR"));
+            } else if (endpoint.equals(NEARBY_SEARCH)) {
+                respondJson(exchange, 200, nearbySearch(query));
+            } else if (endpoint.equals(DETAILS)) {
+                respondJson(exchange, 200, details(query.get("place_id")));
+            } else {
+                respond(exchange, 200, "image/png", photo(query.get("photoreference"), query.get("maxwidth")));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            respondJson(exchange, 400, status("INVALID_REQUEST"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private JsonObject nearbySearch(Map<String, String> query) {
+        String location = query.get("location");
+        int offset = 0;
+        if (query.containsKey("pagetoken")) {
+            // The token keeps the search : location|radius|offset
+            String[] token = new String(Base64.getUrlDecoder().decode(query.get("pagetoken")), StandardCharsets.UTF_8).split("\\|");
+            location = token[0];
+            query.put("radius", token[1]);
+            offset = Integer.parseInt(token[2]);
+        }
+        String[] position = location.split(",");
+        double[] center = {Double.parseDouble(position[0]), Double.parseDouble(position[1])};
+        double radius = Double.parseDouble(query.get("radius"));
+
+        // Fixtures are in the order of popularity, kept as the prominence of the results
+        List<JsonObject> found = new ArrayList<>();
+        for (JsonObject result : results) {
+            JsonObject resultLocation = result.getAsJsonObject("geometry").getAsJsonObject("location");
+            double[] at = {resultLocation.get("lat").getAsDouble(), resultLocation.get("lng").getAsDouble()};
+            if (City.distanceMeters(center, at) <= radius) {
+                found.add(result);
+                if (found.size() == MAX_RESULTS) {
+                    break;
+                }
+            }
+        }
+
+        int end = Math.min(offset + config.pageSize, found.size());
+        JsonArray page = new JsonArray();
+        for (JsonObject result : found.subList(Math.min(offset, end), end)) {
+            page.add(result);
+        }
+
+        JsonObject response = status(found.isEmpty() ? "ZERO_RESULTS" : "OK");
+        response.add("results", page);
+        if (end < found.size()) {
+            String token = location + "|" + query.get("radius") + "|" + end;
+            response.addProperty("next_page_token", Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8)));
+        }
+        return response;
+    }
+
+    private JsonObject details(String placeId) throws IOException {
+        File file = placeId != null && PLACE_ID.matcher(placeId).matches()
+                ? new File(new File(fixtures, PlacesFixtures.DETAILS_DIRECTORY), placeId + ".json")
+                : null;
+        if (file == null || !file.isFile()) {
+            return status("NOT_FOUND");
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, JsonObject.class);
+        }
+    }
+
+    /**
+     * A plain image of the requested width, its color drawn from the reference : the same photo is the same bytes.
+     */
+    private byte[] photo(String photoReference, String maxWidth) throws IOException {
+        int width = Math.max(1, Math.min(maxWidth != null ? Integer.parseInt(maxWidth) : 400, 1600));
+        int height = width * 2 / 3;
+        Color color = new Color(photoReference != null ? photoReference.hashCode() & 0xFFFFFF : 0x808080);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private JsonObject status(String status) {
+        JsonObject response = new JsonObject();
+        response.add("html_attributions", new JsonArray());
+        response.addProperty("status", status);
+        return response;
+    }
+
+    private void respondJson(HttpExchange exchange, int code, JsonObject response) throws IOException {
+        if (config.paddingBytes > 0) {
+            JsonArray attributions = new JsonArray();
+            attributions.add(String.join("", Collections.nCopies(config.paddingBytes, " ")));
+            response.add("html_attributions", attributions);
+        }
+        respond(exchange, code, "application/json; charset=UTF-8", gson.toJson(response).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void respond(HttpExchange exchange, int code, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"), URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = LoadGen.parse(args);
+        Config config = new Config();
+        config.port = Integer.parseInt(options.getOrDefault("port", Integer.toString(config.port)));
+        config.latencyMillis = Long.parseLong(options.getOrDefault("latency", "0"));
+        config.jitterMillis = Long.parseLong(options.getOrDefault("jitter", "0"));
+        config.errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0"));
+        config.pageSize = Integer.parseInt(options.getOrDefault("page-size", Integer.toString(config.pageSize)));
+        config.paddingBytes = Integer.parseInt(options.getOrDefault("padding", "0"));
+        config.seed = Long.parseLong(options.getOrDefault("seed", Long.toString(config.seed)));
+
+        PlacesStandIn standIn = new PlacesStandIn(new File(options.getOrDefault("fixtures", "build/office/places")), config);
+        standIn.start();
+        System.out.println("Places stand-in serving " + standIn.results.size() + " restaurants at " + standIn.getBaseUrl());
+    }
+}
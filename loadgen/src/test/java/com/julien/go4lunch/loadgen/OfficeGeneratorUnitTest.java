@@ -0,0 +1,108 @@
+package com.julien.go4lunch.loadgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class OfficeGeneratorUnitTest {
+
+    private OfficeGenerator.Config smallOffice() {
+        OfficeGenerator.Config config = new OfficeGenerator.Config();
+        config.workmates = 200;
+        config.restaurants = 50;
+        config.days = 5;
+        config.today = LocalDate.of(2024, 6, 5); // a Wednesday
+        return config;
+    }
+
+    @Test
+    public void sameSeedGivesTheSameOffice() {
+        Office first = new OfficeGenerator(smallOffice()).generate();
+        Office second = new OfficeGenerator(smallOffice()).generate();
+
+        assertEquals(first.workmates.size(), second.workmates.size());
+        assertEquals(first.lunches.size(), second.lunches.size());
+        for (int i = 0; i < first.workmates.size(); i++) {
+            assertEquals(first.workmates.get(i).name, second.workmates.get(i).name);
+            assertEquals(first.workmates.get(i).uid, second.workmates.get(i).uid);
+        }
+        for (int i = 0; i < first.lunches.size(); i++) {
+            assertEquals(first.lunches.get(i).documentId, second.lunches.get(i).documentId);
+            assertEquals(first.lunches.get(i).restaurant.placeId, second.lunches.get(i).restaurant.placeId);
+        }
+    }
+
+    @Test
+    public void moreLunchesDoNotChangeTheWorkmates() {
+        OfficeGenerator.Config moreDays = smallOffice();
+        moreDays.days = 8;
+
+        Office office = new OfficeGenerator(smallOffice()).generate();
+        Office longer = new OfficeGenerator(moreDays).generate();
+
+        assertEquals(office.workmates.get(10).name, longer.workmates.get(10).name);
+        assertEquals(office.restaurants.get(10).name, longer.restaurants.get(10).name);
+    }
+
+    @Test
+    public void oneLunchPerWorkmateAndWorkday() {
+        Office office = new OfficeGenerator(smallOffice()).generate();
+
+        Set<String> workmateDays = new HashSet<>();
+        for (Office.Lunch lunch : office.lunches) {
+            assertTrue(workmateDays.add(lunch.workmate.uid + lunch.date));
+            DayOfWeek day = LocalDate.parse(lunch.date.substring(0, 10)).getDayOfWeek();
+            assertFalse(day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY);
+        }
+        // 200 workmates, 5 days, 60 % lunching out
+        assertEquals(600, office.lunches.size(), 60);
+    }
+
+    @Test
+    public void workdaysSkipTheWeekendButKeepToday() {
+        OfficeGenerator.Config config = smallOffice();
+        config.today = LocalDate.of(2024, 6, 9); // a Sunday
+        config.days = 3;
+
+        List<LocalDate> days = new OfficeGenerator(config).workdays();
+
+        assertEquals(LocalDate.of(2024, 6, 9), days.get(0));
+        assertEquals(LocalDate.of(2024, 6, 7), days.get(1));
+        assertEquals(LocalDate.of(2024, 6, 6), days.get(2));
+    }
+
+    @Test
+    public void lunchesGiveTheDays() {
+        assertEquals(84, OfficeGenerator.daysFor(100_000, 2_000, 0.6));
+        assertEquals(1, OfficeGenerator.daysFor(1_000, 10_000, 0.1));
+        assertEquals(1, OfficeGenerator.daysFor(0, 100, 0.6));
+    }
+
+    @Test
+    public void dayIsWrittenAsTheApp() {
+        assertEquals("2024-06-05T00:00:00Z", OfficeGenerator.toDay(LocalDate.of(2024, 6, 5)));
+    }
+
+    @Test
+    public void popularRestaurantsTakeMostLunches() {
+        Office office = new OfficeGenerator(smallOffice()).generate();
+
+        int[] lunchesByRestaurant = new int[office.restaurants.size()];
+        for (Office.Lunch lunch : office.lunches) {
+            lunchesByRestaurant[office.restaurants.indexOf(lunch.restaurant)]++;
+        }
+        int firstTen = 0;
+        for (int i = 0; i < 10; i++) {
+            firstTen += lunchesByRestaurant[i];
+        }
+        assertTrue(firstTen > office.lunches.size() / 2);
+    }
+}
@@ -0,0 +1,152 @@
+package com.julien.go4lunch.loadgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+public class PlacesStandInUnitTest {
+
+    private static final String NEARBY_OFFICE = PlacesStandIn.NEARBY_SEARCH + "?location=48.8572,2.3473&radius=1500&type=restaurant&key=test";
+
+    private PlacesStandIn start(PlacesStandIn.Config config) throws IOException {
+        OfficeGenerator.Config office = new OfficeGenerator.Config();
+        office.workmates = 1;
+        office.restaurants = 300;
+        office.days = 1;
+
+        File fixtures = Files.createTempDirectory("places").toFile();
+        new PlacesFixtures().write(new OfficeGenerator(office).generate(), fixtures);
+
+        config.port = 0;
+        PlacesStandIn standIn = new PlacesStandIn(fixtures, config);
+        standIn.start();
+        return standIn;
+    }
+
+    private static byte[] get(String url, int expectedCode) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            assertEquals(expectedCode, connection.getResponseCode());
+            try (InputStream in = expectedCode < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static JsonObject getJson(String url) throws IOException {
+        return new Gson().fromJson(new String(get(url, 200), StandardCharsets.UTF_8), JsonObject.class);
+    }
+
+    @Test
+    public void pagesFollowTheToken() throws IOException {
+        PlacesStandIn.Config config = new PlacesStandIn.Config();
+        config.pageSize = 10;
+        PlacesStandIn standIn = start(config);
+        try {
+            Set<String> placeIds = new HashSet<>();
+            JsonObject page = getJson(standIn.getBaseUrl() + NEARBY_OFFICE);
+            int pages = 1;
+            while (true) {
+                assertTrue(page.getAsJsonArray("results").size() <= 10);
+                page.getAsJsonArray("results").forEach(result -> assertTrue(placeIds.add(result.getAsJsonObject().get("place_id").getAsString())));
+                if (!page.has("next_page_token")) {
+                    break;
+                }
+                page = getJson(standIn.getBaseUrl() + PlacesStandIn.NEARBY_SEARCH + "?pagetoken=" + page.get("next_page_token").getAsString() + "&key=test");
+                pages++;
+            }
+
+            assertTrue(pages > 1);
+            assertTrue(placeIds.size() <= 60);
+            assertEquals(pages, standIn.getRequestCount(PlacesStandIn.NEARBY_SEARCH));
+        } finally {
+            standIn.stop();
+        }
+    }
+
+    @Test
+    public void detailsOfAKnownAndAnUnknownPlace() throws IOException {
+        PlacesStandIn standIn = start(new PlacesStandIn.Config());
+        try {
+            JsonObject details = getJson(standIn.getBaseUrl() + PlacesStandIn.DETAILS + "?place_id=loadgen-place-00003&fields=name");
+            assertEquals("loadgen-place-00003", details.getAsJsonObject("result").get("place_id").getAsString());
+            assertTrue(details.getAsJsonObject("result").has("website"));
+
+            JsonObject unknown = getJson(standIn.getBaseUrl() + PlacesStandIn.DETAILS + "?place_id=..%2Fnearbysearch");
+            assertEquals("NOT_FOUND", unknown.get("status").getAsString());
+            assertNull(unknown.get("result"));
+        } finally {
+            standIn.stop();
+        }
+    }
+
+    @Test
+    public void everyRequestFailsWithAnErrorRateOfOne() throws IOException {
+        PlacesStandIn.Config config = new PlacesStandIn.Config();
+        config.errorRate = 1;
+        PlacesStandIn standIn = start(config);
+        try {
+            get(standIn.getBaseUrl() + NEARBY_OFFICE, 500);
+        } finally {
+            standIn.stop();
+        }
+    }
+
+    @Test
+    public void paddingAndLatencyAreAdded() throws IOException {
+        PlacesStandIn.Config config = new PlacesStandIn.Config();
+        config.paddingBytes = 100_000;
+        config.latencyMillis = 50;
+        PlacesStandIn standIn = start(config);
+        try {
+            long startedAt = System.currentTimeMillis();
+            byte[] body = get(standIn.getBaseUrl() + PlacesStandIn.DETAILS + "?place_id=loadgen-place-00001", 200);
+
+            assertTrue(body.length > 100_000);
+            assertTrue(System.currentTimeMillis() - startedAt >= 50);
+        } finally {
+            standIn.stop();
+        }
+    }
+
+    @Test
+    public void photoIsAnImageOfTheRequestedWidth() throws IOException {
+        PlacesStandIn standIn = start(new PlacesStandIn.Config());
+        try {
+            byte[] photo = get(standIn.getBaseUrl() + PlacesStandIn.PHOTO + "?maxwidth=400&photoreference=loadgen-photo-00001&key=test", 200);
+
+            assertFalse(photo.length == 0);
+            assertEquals(400, ImageIO.read(new ByteArrayInputStream(photo)).getWidth());
+        } finally {
+            standIn.stop();
+        }
+    }
+}